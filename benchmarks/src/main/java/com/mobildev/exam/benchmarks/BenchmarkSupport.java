@@ -0,0 +1,22 @@
+package com.mobildev.exam.benchmarks;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared setup for the benchmarks.
+ */
+final class BenchmarkSupport {
+    static final int OPTIONS_PER_QUESTION = 4;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Keeps INFO logging from writing to the console during measurement. Log statements are still
+     * evaluated, so the cost of building their messages remains part of the results.
+     */
+    static void quietLogging() {
+        Logger.getLogger("").setLevel(Level.WARNING);
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobildev.exam.benchmarks;
+
+import com.mobildev.exam.config.AppConfig;
+import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.dao.ExamFetchStrategy;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.loadtest.SyntheticDataset;
+import com.mobildev.exam.model.Exam;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ExamDAO.getExamDetails against an embedded H2 database: running the queries of each fetch
+ * strategy and mapping their rows into the exam graph. Unlike the other benchmarks this includes the JDBC driver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExamDAOBenchmark {
+    // The first exam of the seeded dataset.
+    private static final int EXAM_ID = 1;
+
+    @Param({"10", "50", "200"})
+    public int questions;
+
+    @Param({"JOIN", "SPLIT"})
+    public ExamFetchStrategy strategy;
+
+    private H2DataSourceProvider dataSourceProvider;
+    private ExamDAO examDAO;
+
+    @Setup
+    public void setUp() throws SQLException {
+        BenchmarkSupport.quietLogging();
+        dataSourceProvider = new H2DataSourceProvider(AppConfig.getInstance(), "exam-dao-benchmark");
+        new SyntheticDataset(dataSourceProvider, 1, questions, BenchmarkSupport.OPTIONS_PER_QUESTION, 1).create();
+        examDAO = new ExamDAO(dataSourceProvider);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSourceProvider.close();
+    }
+
+    @Benchmark
+    public Exam loadExamDetails() throws SQLException {
+        return examDAO.getExamDetails(EXAM_ID, strategy);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mobildev.exam.benchmarks;
+
+import com.mobildev.exam.dto.ExamResponseDTO;
+import com.mobildev.exam.service.ExamService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures ExamService.getExamResponseById: converting the exam graph into DTOs, and a cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExamServiceBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int questions;
+
+    private ExamService examService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        examService = new ExamService(new InMemoryExamDAO(questions, BenchmarkSupport.OPTIONS_PER_QUESTION));
+    }
+
+    @Benchmark
+    public ExamResponseDTO assembleExam() {
+        examService.invalidateExam(InMemoryExamDAO.EXAM_ID);
+        return examService.getExamResponseById(InMemoryExamDAO.EXAM_ID);
+    }
+
+    @Benchmark
+    public ExamResponseDTO cachedExam() {
+        return examService.getExamResponseById(InMemoryExamDAO.EXAM_ID);
+    }
+}
@@ -0,0 +1,54 @@
+package com.mobildev.exam.benchmarks;
+
+import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.model.Exam;
+import com.mobildev.exam.model.Option;
+import com.mobildev.exam.model.Question;
+import com.mobildev.exam.model.QuestionType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ExamDAO serving one synthetic exam from memory, as the same graph the JDBC queries assemble.
+ * Even questions are multiple-choice with {@code optionsPerQuestion} options, odd questions are classic.
+ */
+public class InMemoryExamDAO extends ExamDAO {
+    public static final int EXAM_ID = 1;
+
+    private final List<Exam> exams;
+    private final Exam examDetails;
+
+    public InMemoryExamDAO(int questions, int optionsPerQuestion) {
+        this.exams = List.of(exam());
+        this.examDetails = exam();
+        List<Question> questionList = new ArrayList<>(questions);
+        for (int q = 1; q <= questions; q++) {
+            QuestionType type = q % 2 == 0 ? QuestionType.MULTIPLE_CHOICE : QuestionType.CLASSIC;
+            Question question = new Question(q, EXAM_ID,
+                    "Question " + q + ": which of the following statements is correct?", type);
+            List<Option> options = new ArrayList<>();
+            if (type == QuestionType.MULTIPLE_CHOICE) {
+                for (int o = 1; o <= optionsPerQuestion; o++) {
+                    options.add(new Option(q * 100 + o, q, "Option " + (q * 100 + o), false));
+                }
+            }
+            question.setOptions(options);
+            questionList.add(question);
+        }
+        examDetails.setQuestions(questionList);
+    }
+
+    @Override
+    public List<Exam> getAllExams() {
+        return exams;
+    }
+
+    @Override
+    public Exam getExamDetails(int examId) {
+        return examId == EXAM_ID ? examDetails : null;
+    }
+
+    private static Exam exam() {
+        return new Exam(EXAM_ID, "Benchmark exam", "A synthetic exam used by the benchmarks.", 60, null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.mobildev.exam.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mobildev.exam.dto.ExamResponseDTO;
+import com.mobildev.exam.service.ExamService;
+import com.mobildev.exam.util.JsonUtil;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures serializing an ExamResponseDTO with the shared writer, and with a plain reflective
+ * mapper for comparison with Blackbird disabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int questions;
+
+    private ExamResponseDTO exam;
+    private ObjectWriter plainWriter;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        exam = new ExamService(new InMemoryExamDAO(questions, BenchmarkSupport.OPTIONS_PER_QUESTION))
+                .getExamResponseById(InMemoryExamDAO.EXAM_ID);
+        plainWriter = JsonUtil.createMapper(false).writerFor(ExamResponseDTO.class);
+    }
+
+    @Benchmark
+    public byte[] sharedWriter() throws JsonProcessingException {
+        return JsonUtil.getExamResponseWriter().writeValueAsBytes(exam);
+    }
+
+    @Benchmark
+    public byte[] reflectiveWriter() throws JsonProcessingException {
+        return plainWriter.writeValueAsBytes(exam);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mobildev.exam.benchmarks;
+
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.util.JwtUtil;
+import com.mobildev.exam.util.TokenVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures issuing a token, fully verifying it, and verifying it through the TokenVerifier cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private AuthenticatedUser principal;
+    private String token;
+    private TokenVerifier tokenVerifier;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        principal = new AuthenticatedUser(42, "benchmark", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
+        token = JwtUtil.generateToken(principal);
+        tokenVerifier = new TokenVerifier();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtUtil.generateToken(principal);
+    }
+
+    @Benchmark
+    public Jws<Claims> parseToken() {
+        return JwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser verifyCachedToken() {
+        return tokenVerifier.verify(token);
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobildev.exam.benchmarks;
+
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.model.QuestionType;
+import com.mobildev.exam.service.AnswerKey;
+import com.mobildev.exam.service.SubmitService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures scoring a full submission against a compiled AnswerKey. Half of the answers are correct.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int questions;
+
+    private SubmitService submitService;
+    private AnswerKey answerKey;
+    private List<UserAnswerSubmissionDTO> answers;
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        submitService = new SubmitService();
+
+        AnswerKey.Builder builder = AnswerKey.builder(InMemoryExamDAO.EXAM_ID);
+        answers = new ArrayList<>(questions);
+        for (int q = 1; q <= questions; q++) {
+            boolean correct = q % 4 < 2;
+            if (q % 2 == 0) {
+                builder.addQuestion(q, QuestionType.MULTIPLE_CHOICE, null).setCorrectOption(q, q * 100 + 1);
+                answers.add(new UserAnswerSubmissionDTO(q, correct ? q * 100 + 1 : q * 100 + 2, null));
+            } else {
+                builder.addQuestion(q, QuestionType.CLASSIC, "Answer " + q);
+                answers.add(new UserAnswerSubmissionDTO(q, null, correct ? "answer " + q : "wrong"));
+            }
+        }
+        answerKey = builder.build();
+    }
+
+    @Benchmark
+    public double scoreSubmission() {
+        return submitService.calculateFinalScore(answers, answerKey, new ArrayList<>(answers.size()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.mobildev.exam.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects request latencies per endpoint. Each virtual user owns one recorder, so recording is
+ * uncontended; the recorders are merged once the run is over.
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new LinkedHashMap<>();
+
+    /**
+     * @param endpoint     The endpoint label, e.g. {@code GET /exams}.
+     * @param statusCode   The response status, or -1 if the request failed without a response.
+     * @param elapsedNanos The time from sending the request to receiving the complete response.
+     */
+    public void record(String endpoint, int statusCode, long elapsedNanos) {
+        samples.computeIfAbsent(endpoint, key -> new Samples()).add(statusCode, elapsedNanos);
+    }
+
+    /**
+     * Adds all samples of another recorder to this one.
+     */
+    public void merge(LatencyRecorder other) {
+        other.samples.forEach((endpoint, otherSamples) ->
+                samples.computeIfAbsent(endpoint, key -> new Samples()).addAll(otherSamples));
+    }
+
+    /**
+     * Formats one line per endpoint with the request count, the error count, the throughput and the
+     * latency percentiles in milliseconds.
+     *
+     * @param elapsedSeconds The measured duration, for the throughput.
+     */
+    public String report(double elapsedSeconds) {
+        StringBuilder report = new StringBuilder(String.format("%-16s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        samples.forEach((endpoint, endpointSamples) -> {
+            long[] sorted = Arrays.copyOf(endpointSamples.latencies, endpointSamples.count);
+            Arrays.sort(sorted);
+            report.append(String.format("%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, endpointSamples.count, endpointSamples.errors, endpointSamples.count / elapsedSeconds,
+                    percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.95),
+                    percentileMillis(sorted, 0.99), percentileMillis(sorted, 1.0)));
+        });
+        return report.toString();
+    }
+
+    // Nearest-rank percentile.
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        private void add(int statusCode, long elapsedNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = elapsedNanos;
+            if (statusCode < 200 || statusCode >= 400) {
+                errors++;
+            }
+        }
+
+        private void addAll(Samples other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+    }
+}
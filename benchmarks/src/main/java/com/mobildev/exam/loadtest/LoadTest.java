@@ -0,0 +1,90 @@
+package com.mobildev.exam.loadtest;
+
+import com.mobildev.exam.config.AppConfig;
+import com.mobildev.exam.db.DataSourceProvider;
+import com.mobildev.exam.db.DatabaseManager;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.server.HttpServerApp;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Boots the server against an embedded H2 database in MySQL mode, seeds a synthetic dataset and drives
+ * the login, list, fetch and submit flow with a number of concurrent virtual users, then prints the
+ * throughput and latency percentiles of each endpoint.
+ * <p>
+ * All settings are read through {@link AppConfig}, so they can be given as system properties:
+ * <ul>
+ *     <li>{@code loadtest.exams}, {@code loadtest.questions}, {@code loadtest.options}: the dataset size.</li>
+ *     <li>{@code loadtest.users}: the number of seeded users; virtual users are spread over them.</li>
+ *     <li>{@code loadtest.virtual-users}: the number of concurrent virtual users.</li>
+ *     <li>{@code loadtest.warmup-seconds}, {@code loadtest.duration-seconds}: the unrecorded warmup and the measured run.</li>
+ *     <li>{@code loadtest.seed}: whether to create the schema and data, by default only for H2.</li>
+ * </ul>
+ * Any {@code exam.*} setting applies to the server under test, e.g. {@code -Dexam.server.executor=virtual}.
+ * Passing {@code -Dexam.db.url} runs against that database instead of H2.
+ */
+public class LoadTest {
+    private static final Logger LOGGER = Logger.getLogger(LoadTest.class.getName());
+
+    public static void main(String[] args) throws Exception {
+        // Must happen before the configuration is first used.
+        if (System.getProperty("exam.server.port") == null) {
+            System.setProperty("exam.server.port", "0");
+        }
+        Logger.getLogger("").setLevel(Level.WARNING);
+        LOGGER.setLevel(Level.INFO);
+
+        AppConfig config = AppConfig.getInstance();
+        boolean embedded = System.getProperty("exam.db.url") == null;
+        DataSourceProvider dataSourceProvider = embedded
+                ? new H2DataSourceProvider(config, "loadtest")
+                : DatabaseManager.createProvider(config);
+        SyntheticDataset dataset = new SyntheticDataset(dataSourceProvider,
+                config.getInt("loadtest.exams", 10),
+                config.getInt("loadtest.questions", 20),
+                config.getInt("loadtest.options", 4),
+                config.getInt("loadtest.users", 200));
+        int virtualUsers = config.getInt("loadtest.virtual-users", 50);
+        int warmupSeconds = config.getInt("loadtest.warmup-seconds", 10);
+        int durationSeconds = config.getInt("loadtest.duration-seconds", 60);
+
+        if (config.getBoolean("loadtest.seed", embedded)) {
+            dataset.create();
+        }
+
+        HttpServerApp.RunningServer server = HttpServerApp.start(config, dataSourceProvider);
+        try {
+            String baseUrl = "http://localhost:" + server.getPort();
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            LOGGER.info(String.format("Running %d virtual users against %s: %d s warmup, %d s measured.",
+                    virtualUsers, baseUrl, warmupSeconds, durationSeconds));
+
+            long measureFrom = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+            long end = measureFrom + durationSeconds * 1_000_000_000L;
+            List<VirtualUser> users = new ArrayList<>(virtualUsers);
+            List<Thread> threads = new ArrayList<>(virtualUsers);
+            for (int i = 0; i < virtualUsers; i++) {
+                VirtualUser user = new VirtualUser(client, baseUrl, i % dataset.getUsers() + 1, measureFrom, end);
+                Thread thread = new Thread(user, "virtual-user-" + (i + 1));
+                users.add(user);
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            LatencyRecorder total = new LatencyRecorder();
+            users.forEach(user -> total.merge(user.getRecorder()));
+            System.out.println();
+            System.out.print(total.report(durationSeconds));
+        } finally {
+            server.stop();
+        }
+    }
+}
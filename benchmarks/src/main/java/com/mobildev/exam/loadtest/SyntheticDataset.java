@@ -0,0 +1,148 @@
+package com.mobildev.exam.loadtest;
+
+import com.mobildev.exam.db.DataSourceProvider;
+import com.mobildev.exam.db.SqlScript;
+import com.mobildev.exam.model.QuestionType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.logging.Logger;
+
+/**
+ * Creates the schema and a deterministic synthetic dataset: N exams with M questions each, K options
+ * per multiple-choice question, and U users.
+ * Even questions are multiple-choice, odd questions are classic. User {@code i} is named {@code user<i>}
+ * with the legacy plaintext password {@code password<i>}, so the first login of each user also exercises
+ * the rehash path.
+ */
+public class SyntheticDataset {
+    private static final Logger LOGGER = Logger.getLogger(SyntheticDataset.class.getName());
+    // Dependent tables first.
+    private static final String[] TABLES = {"exam_session_answers", "exam_sessions", "results", "user_answers",
+            "options", "questions", "exams", "users"};
+    private static final int BATCH_SIZE = 1000;
+
+    private final DataSourceProvider dataSourceProvider;
+    private final int exams;
+    private final int questionsPerExam;
+    private final int optionsPerQuestion;
+    private final int users;
+
+    public SyntheticDataset(DataSourceProvider dataSourceProvider, int exams, int questionsPerExam,
+                            int optionsPerQuestion, int users) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.exams = exams;
+        this.questionsPerExam = questionsPerExam;
+        this.optionsPerQuestion = optionsPerQuestion;
+        this.users = users;
+    }
+
+    public static String username(int user) {
+        return "user" + user;
+    }
+
+    public static String password(int user) {
+        return "password" + user;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * Drops and recreates the tables and inserts the dataset.
+     *
+     * @throws SQLException if the database rejects the schema or the data.
+     */
+    public void create() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = dataSourceProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            createSchema(conn);
+            insertUsers(conn);
+            insertExams(conn);
+            conn.commit();
+        }
+        LOGGER.info(String.format("Seeded %d exams x %d questions x %d options and %d users in %d ms.",
+                exams, questionsPerExam, optionsPerQuestion, users, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private void createSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : TABLES) {
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+            }
+        }
+        SqlScript.execute(conn, SqlScript.SCHEMA);
+    }
+
+    private void insertUsers(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO users (id, username, password) VALUES (?, ?, ?)")) {
+            for (int user = 1; user <= users; user++) {
+                stmt.setInt(1, user);
+                stmt.setString(2, username(user));
+                stmt.setString(3, password(user));
+                addToBatch(stmt, user);
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void insertExams(Connection conn) throws SQLException {
+        try (PreparedStatement examStmt = conn.prepareStatement(
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (?, ?, ?, ?)");
+             PreparedStatement questionStmt = conn.prepareStatement(
+                     "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement optionStmt = conn.prepareStatement(
+                     "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (?, ?, ?, ?)")) {
+
+            int questionId = 0;
+            int optionId = 0;
+            for (int exam = 1; exam <= exams; exam++) {
+                examStmt.setInt(1, exam);
+                examStmt.setString(2, "Exam " + exam);
+                examStmt.setString(3, "Synthetic load test exam " + exam + ".");
+                examStmt.setInt(4, 60);
+                examStmt.executeUpdate();
+
+                for (int q = 1; q <= questionsPerExam; q++) {
+                    questionId++;
+                    boolean multipleChoice = q % 2 == 0;
+                    questionStmt.setInt(1, questionId);
+                    questionStmt.setInt(2, exam);
+                    questionStmt.setString(3, "Question " + questionId + " of exam " + exam + ": which statement is correct?");
+                    questionStmt.setString(4, (multipleChoice ? QuestionType.MULTIPLE_CHOICE : QuestionType.CLASSIC).name());
+                    if (multipleChoice) {
+                        questionStmt.setNull(5, Types.VARCHAR);
+                    } else {
+                        questionStmt.setString(5, "answer " + questionId);
+                    }
+                    questionStmt.addBatch();
+
+                    if (multipleChoice) {
+                        for (int o = 1; o <= optionsPerQuestion; o++) {
+                            optionId++;
+                            optionStmt.setInt(1, optionId);
+                            optionStmt.setInt(2, questionId);
+                            optionStmt.setString(3, "Option " + o + " of question " + questionId);
+                            optionStmt.setBoolean(4, o == 1);
+                            optionStmt.addBatch();
+                        }
+                    }
+                }
+                // One batch per exam and table, parents first, so the foreign keys are satisfied.
+                questionStmt.executeBatch();
+                optionStmt.executeBatch();
+            }
+        }
+    }
+
+    private static void addToBatch(PreparedStatement stmt, int count) throws SQLException {
+        stmt.addBatch();
+        if (count % BATCH_SIZE == 0) {
+            stmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mobildev.exam.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mobildev.exam.util.JsonUtil;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A simulated candidate repeating the exam flow until the run ends:
+ * log in, list the exams, fetch a random exam and submit answers for all of its questions.
+ * Requests are sent one after another with no think time, so the load is bounded by the number
+ * of virtual users. Latencies are recorded only after the warmup deadline.
+ */
+public class VirtualUser implements Runnable {
+
+    static final String LOGIN = "POST /login";
+    static final String LIST_EXAMS = "GET /exams";
+    static final String GET_EXAM = "GET /exams/{id}";
+    static final String SUBMIT = "POST /submit";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String authorization;
+    private final long measureFromNanos;
+    private final long endNanos;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final ObjectMapper mapper = JsonUtil.getMapper();
+
+    /**
+     * @param client           The shared HTTP client.
+     * @param baseUrl          The server URL, e.g. {@code http://localhost:8080}.
+     * @param user             The seeded user this virtual user logs in as.
+     * @param measureFromNanos The {@link System#nanoTime()} at which the warmup ends.
+     * @param endNanos         The {@link System#nanoTime()} at which the run ends.
+     */
+    public VirtualUser(HttpClient client, String baseUrl, int user, long measureFromNanos, long endNanos) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        String credentials = SyntheticDataset.username(user) + ":" + SyntheticDataset.password(user);
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        this.measureFromNanos = measureFromNanos;
+        this.endNanos = endNanos;
+    }
+
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < endNanos) {
+            try {
+                runFlow();
+            } catch (IOException e) {
+                // Already recorded as a failed request; start the next flow.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void runFlow() throws IOException, InterruptedException {
+        HttpResponse<byte[]> login = send(LOGIN, HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Authorization", authorization)
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        if (login.statusCode() != 200) {
+            return;
+        }
+        String bearer = "Bearer " + mapper.readTree(login.body()).path("token").asText();
+
+        HttpResponse<byte[]> list = send(LIST_EXAMS, HttpRequest.newBuilder(URI.create(baseUrl + "/exams"))
+                .header("Authorization", bearer)
+                .header("Accept-Encoding", "gzip")
+                .GET());
+        JsonNode exams = list.statusCode() == 200 ? mapper.readTree(decode(list)).path("exams") : null;
+        if (exams == null || exams.size() == 0) {
+            return;
+        }
+        int examId = exams.get(ThreadLocalRandom.current().nextInt(exams.size())).path("id").asInt();
+
+        HttpResponse<byte[]> exam = send(GET_EXAM, HttpRequest.newBuilder(URI.create(baseUrl + "/exams/" + examId))
+                .header("Authorization", bearer)
+                .header("Accept-Encoding", "gzip")
+                .GET());
+        if (exam.statusCode() != 200) {
+            return;
+        }
+
+        byte[] submission = mapper.writeValueAsBytes(buildSubmission(examId, mapper.readTree(decode(exam))));
+        send(SUBMIT, HttpRequest.newBuilder(URI.create(baseUrl + "/submit"))
+                .header("Authorization", bearer)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(submission)));
+    }
+
+    // Answers every question: a random option for multiple-choice questions, a guess for classic ones.
+    private ObjectNode buildSubmission(int examId, JsonNode exam) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ObjectNode submission = mapper.createObjectNode().put("examId", examId);
+        ArrayNode answers = submission.putArray("answers");
+        for (JsonNode question : exam.path("questions")) {
+            int questionId = question.path("id").asInt();
+            ObjectNode answer = answers.addObject().put("questionId", questionId);
+            JsonNode options = question.path("options");
+            if (options.size() > 0) {
+                answer.put("selectedOptionId", options.get(random.nextInt(options.size())).path("id").asInt());
+            } else {
+                answer.put("answerText", random.nextBoolean() ? "answer " + questionId : "no idea");
+            }
+        }
+        return submission;
+    }
+
+    // HttpClient does not decompress bodies itself.
+    private static byte[] decode(HttpResponse<byte[]> response) throws IOException {
+        if (response.headers().firstValue("Content-Encoding").filter("gzip"::equalsIgnoreCase).isPresent()) {
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+                return in.readAllBytes();
+            }
+        }
+        return response.body();
+    }
+
+    private HttpResponse<byte[]> send(String endpoint, HttpRequest.Builder request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            record(endpoint, response.statusCode(), start);
+            return response;
+        } catch (IOException e) {
+            record(endpoint, -1, start);
+            throw e;
+        }
+    }
+
+    private void record(String endpoint, int statusCode, long start) {
+        if (start >= measureFromNanos) {
+            recorder.record(endpoint, statusCode, System.nanoTime() - start);
+        }
+    }
+}
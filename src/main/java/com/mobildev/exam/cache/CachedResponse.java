@@ -0,0 +1,137 @@
+package com.mobildev.exam.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An immutable, fully encoded HTTP response body that can be written to many clients
+ * without being serialized again. Holds the identity and gzip encodings of the body
+ * together with the validators used for conditional requests: a strong ETag computed
+ * from its content and the time the content was last seen to change. The gzip encoding
+ * is a different representation, so it has its own strong ETag with a {@value #GZIP_ETAG_SUFFIX} suffix.
+ */
+public final class CachedResponse {
+
+    // Bodies smaller than this are not worth compressing.
+    private static final int MIN_GZIP_SIZE = 256;
+    // Number of SHA-256 bytes kept in the ETag.
+    private static final int ETAG_HASH_BYTES = 16;
+    public static final String GZIP_ETAG_SUFFIX = "-gz";
+
+    private final Object source;
+    private final byte[] body;
+    private final byte[] gzipBody;
+    private final String etag;
+    private final Instant lastModified;
+
+    private CachedResponse(Object source, byte[] body, byte[] gzipBody, String etag, Instant lastModified) {
+        this.source = source;
+        this.body = body;
+        this.gzipBody = gzipBody;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Builds a cached response from an encoded body.
+     *
+     * @param source The object the body was serialized from, used to detect stale entries.
+     * @param body   The UTF-8 encoded response body. The array must not be modified afterwards.
+     * @return The cached response.
+     */
+    public static CachedResponse of(Object source, byte[] body) {
+        return of(source, body, null);
+    }
+
+    /**
+     * Builds a cached response that replaces an earlier one. If the content did not change,
+     * the earlier Last-Modified time is kept so that clients' validators stay valid.
+     *
+     * @param source   The object the body was serialized from, used to detect stale entries.
+     * @param body     The UTF-8 encoded response body. The array must not be modified afterwards.
+     * @param previous The response being replaced. Can be null.
+     * @return The cached response.
+     */
+    public static CachedResponse of(Object source, byte[] body, CachedResponse previous) {
+        String etag = computeEtag(body);
+        if (previous != null && previous.etag.equals(etag)) {
+            return new CachedResponse(source, previous.body, previous.gzipBody, etag, previous.lastModified);
+        }
+
+        byte[] gzipBody = body.length >= MIN_GZIP_SIZE ? gzip(body) : null;
+        // Keep the compressed variant only if it actually saves bytes.
+        if (gzipBody != null && gzipBody.length >= body.length) {
+            gzipBody = null;
+        }
+        // HTTP dates have a resolution of one second.
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        return new CachedResponse(source, body, gzipBody, etag, lastModified);
+    }
+
+    /**
+     * Checks whether this response was built from the given object.
+     */
+    public boolean isFor(Object candidate) {
+        return source == candidate;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return The gzip encoded body, or null if the body is not worth compressing.
+     */
+    public byte[] getGzipBody() {
+        return gzipBody;
+    }
+
+    /**
+     * @return The strong ETag of the identity encoded body.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return The strong ETag of the gzip encoded body, e.g. {@code "abc-gz"} for {@code "abc"},
+     * or null if there is no gzip variant.
+     */
+    public String getGzipEtag() {
+        if (gzipBody == null) {
+            return null;
+        }
+        return etag.substring(0, etag.length() - 1) + GZIP_ETAG_SUFFIX + "\"";
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String computeEtag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(Arrays.copyOf(hash, ETAG_HASH_BYTES)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.mobildev.exam.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe, read-through cache with least-recently-used eviction.
+ * Concurrent misses for the same key are coalesced, so only one caller runs the loader
+ * while the others wait for its result. Invalidation bumps a generation counter, which
+ * prevents a load that started before the invalidation from publishing a stale value.
+ *
+ * @param <K> The type of the cache keys.
+ * @param <V> The type of the cached values.
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Loads the value for a key on a cache miss.
+     *
+     * @param <K> The type of the cache keys.
+     * @param <V> The type of the loaded values.
+     * @param <E> The type of the checked exception the loader may throw.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V, E extends Exception> {
+        V load(K key) throws E;
+    }
+
+    private final int maxSize;
+    // Access-ordered map; guarded by 'this'.
+    private final LinkedHashMap<K, V> entries;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize The maximum number of entries kept before the least recently used one is evicted.
+     */
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the key, loading it on a miss.
+     * A null result from the loader is returned to the caller but not cached.
+     *
+     * @param key    The cache key.
+     * @param loader The loader invoked when the key is not cached.
+     * @return The cached or freshly loaded value, possibly null.
+     * @throws E if the loader fails.
+     */
+    public <E extends Exception> V get(K key, Loader<K, V, E> loader) throws E {
+        V value = getIfPresent(key);
+        if (Objects.nonNull(value)) {
+            return value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (Objects.nonNull(existing)) {
+            return await(existing);
+        }
+
+        try {
+            long loadGeneration;
+            synchronized (this) {
+                // Another caller may have finished loading between the miss and claiming the slot.
+                value = entries.get(key);
+                loadGeneration = generation;
+            }
+            if (Objects.isNull(value)) {
+                value = loader.load(key);
+                if (Objects.nonNull(value)) {
+                    synchronized (this) {
+                        if (generation == loadGeneration) {
+                            entries.put(key, value);
+                        }
+                    }
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Returns the cached value for the key without loading it, recording a hit or a miss.
+     *
+     * @param key The cache key.
+     * @return The cached value, or null if absent.
+     */
+    public V getIfPresent(K key) {
+        V value;
+        synchronized (this) {
+            value = entries.get(key);
+        }
+        if (Objects.nonNull(value)) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value, replacing any existing entry for the key.
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, Objects.requireNonNull(value));
+    }
+
+    /**
+     * Removes the entry for a single key.
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Waits for a load started by another caller and rethrows its failure unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V, E extends Exception> V await(CompletableFuture<V> future) throws E {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+}
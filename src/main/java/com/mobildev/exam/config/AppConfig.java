@@ -0,0 +1,501 @@
+package com.mobildev.exam.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Typed runtime configuration for the server, the connection pool and the caches.
+ * Values are resolved in the following order, the first match winning:
+ * <ol>
+ *     <li>A JVM system property with the key itself, e.g. {@code -Dexam.server.port=9090}.</li>
+ *     <li>An environment variable named after the key in upper case with dots and dashes
+ *     replaced by underscores, e.g. {@code EXAM_SERVER_PORT=9090}.</li>
+ *     <li>The {@code application.properties} file on the classpath.</li>
+ * </ol>
+ */
+public class AppConfig {
+    private static final Logger LOGGER = Logger.getLogger(AppConfig.class.getName());
+    private static final String DEFAULT_RESOURCE = "application.properties";
+
+    private final Properties fileProperties;
+    private final Map<String, String> environment;
+    private final Properties systemProperties;
+
+    public AppConfig(Properties fileProperties, Map<String, String> environment, Properties systemProperties) {
+        this.fileProperties = fileProperties;
+        this.environment = environment;
+        this.systemProperties = systemProperties;
+    }
+
+    /**
+     * Returns the process-wide configuration, loaded on first use.
+     */
+    public static AppConfig getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Loads the configuration from the classpath properties file, the environment and the system properties.
+     */
+    public static AppConfig load() {
+        Properties properties = new Properties();
+        try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (Objects.nonNull(in)) {
+                properties.load(in);
+            } else {
+                LOGGER.warning(DEFAULT_RESOURCE + " not found on the classpath. Using built-in defaults.");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + DEFAULT_RESOURCE, e);
+        }
+        return new AppConfig(properties, System.getenv(), System.getProperties());
+    }
+
+    // Server
+
+    public int getServerPort() {
+        return getInt("exam.server.port", 8080);
+    }
+
+    public int getServerBacklog() {
+        return getInt("exam.server.backlog", 0);
+    }
+
+    public String getExecutorMode() {
+        return getString("exam.server.executor", "fixed");
+    }
+
+    /**
+     * @return The worker thread count, or 0 to size the workers to the connection pool.
+     */
+    public int getExecutorThreads() {
+        return getInt("exam.server.threads", 0);
+    }
+
+    public long getDbPermitTimeoutMillis() {
+        return getLong("exam.server.db-permit-timeout-ms", 30000L);
+    }
+
+    // Database and connection pool
+
+    /**
+     * @return "hikari" for a pool on {@link #getDbUrl()}, or "h2" for an embedded in-memory database.
+     */
+    public String getDbProvider() {
+        return getString("exam.db.provider", "hikari");
+    }
+
+    public String getDbUrl() {
+        return getString("exam.db.url", "jdbc:mysql://localhost:3306/online_exam_db");
+    }
+
+    public String getDbUsername() {
+        return getString("exam.db.username", "root");
+    }
+
+    public String getDbPassword() {
+        return getString("exam.db.password", "root");
+    }
+
+    public int getPoolMaxSize() {
+        return getInt("exam.db.pool.max-size", 20);
+    }
+
+    public int getPoolMinIdle() {
+        return getInt("exam.db.pool.min-idle", 5);
+    }
+
+    public long getPoolConnectionTimeoutMillis() {
+        return getLong("exam.db.pool.connection-timeout-ms", 30000L);
+    }
+
+    public long getPoolIdleTimeoutMillis() {
+        return getLong("exam.db.pool.idle-timeout-ms", 600000L);
+    }
+
+    public long getPoolMaxLifetimeMillis() {
+        return getLong("exam.db.pool.max-lifetime-ms", 1800000L);
+    }
+
+    public int getPrepStmtCacheSize() {
+        return getInt("exam.db.prep-stmt-cache-size", 250);
+    }
+
+    public int getPrepStmtCacheSqlLimit() {
+        return getInt("exam.db.prep-stmt-cache-sql-limit", 2048);
+    }
+
+    /**
+     * @return "join" to load exam details with one joined query, or "split" for separate exam, question and option queries.
+     */
+    public String getExamFetchStrategy() {
+        return getString("exam.db.exam-fetch-strategy", "join");
+    }
+
+    // Read replicas
+
+    /**
+     * @return The JDBC URLs of the read replicas, from a comma-separated list; empty if reads go to the primary.
+     */
+    public List<String> getReplicaUrls() {
+        String value = get("exam.db.replicas.urls");
+        if (Objects.isNull(value)) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    public String getReplicaUsername() {
+        return getString("exam.db.replicas.username", getDbUsername());
+    }
+
+    public String getReplicaPassword() {
+        return getString("exam.db.replicas.password", getDbPassword());
+    }
+
+    /**
+     * @return "round-robin" or "least-connections".
+     */
+    public String getReplicaSelection() {
+        return getString("exam.db.replicas.selection", "round-robin");
+    }
+
+    public long getReplicaHealthCheckIntervalMillis() {
+        return getLong("exam.db.replicas.health-check-interval-ms", 5000L);
+    }
+
+    /**
+     * @return How long a read waits for a replica connection before the replica is considered down.
+     */
+    public long getReplicaConnectionTimeoutMillis() {
+        return getLong("exam.db.replicas.connection-timeout-ms", 2000L);
+    }
+
+    /**
+     * @return How long a user's reads go to the primary after that user wrote; 0 disables it.
+     */
+    public long getReadYourWritesMillis() {
+        return getLong("exam.db.read-your-writes-ms", 5000L);
+    }
+
+    // Caches
+
+    public int getExamCacheCapacity() {
+        return getInt("exam.cache.exam.capacity", 256);
+    }
+
+    public int getExamResponseCacheCapacity() {
+        return getInt("exam.cache.exam-response.capacity", 256);
+    }
+
+    public int getAnswerKeyCacheCapacity() {
+        return getInt("exam.cache.answer-key.capacity", 256);
+    }
+
+    public int getTokenCacheCapacity() {
+        return getInt("exam.cache.token.capacity", 10000);
+    }
+
+    // Submissions
+
+    /**
+     * @return "sync" to persist submissions before responding, or "write-behind" to journal them
+     * and persist them in the background.
+     */
+    public String getSubmitMode() {
+        return getString("exam.submit.mode", "sync");
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return getSubmitMode().equalsIgnoreCase("write-behind");
+    }
+
+    public String getSubmitJournalDir() {
+        return getString("exam.submit.journal-dir", "data/journal");
+    }
+
+    public boolean isSubmitJournalFsync() {
+        return getBoolean("exam.submit.journal-fsync", true);
+    }
+
+    public int getSubmitBatchSize() {
+        return getInt("exam.submit.batch-size", 500);
+    }
+
+    /**
+     * @return The maximum number of submissions waiting to be written before new ones are refused with 503.
+     */
+    public int getSubmitQueueCapacity() {
+        return getInt("exam.submit.queue-capacity", 20000);
+    }
+
+    public long getSubmitDrainTimeoutMillis() {
+        return getLong("exam.submit.drain-timeout-ms", 30000L);
+    }
+
+    public long getSubmitMaxBodyBytes() {
+        return getLong("exam.submit.max-body-bytes", 1048576L);
+    }
+
+    public int getSubmitMaxAnswers() {
+        return getInt("exam.submit.max-answers", 1000);
+    }
+
+    /**
+     * @return Whether recent submission results are remembered by their idempotency key.
+     */
+    public boolean isSubmitIdempotencyEnabled() {
+        return getBoolean("exam.submit.idempotency.enabled", true);
+    }
+
+    public int getSubmitIdempotencyCapacity() {
+        return getInt("exam.submit.idempotency.capacity", 50000);
+    }
+
+    /**
+     * @return How long a submission result is returned for retries with the same idempotency key.
+     */
+    public long getSubmitIdempotencyTtlMillis() {
+        return getLong("exam.submit.idempotency.ttl-ms", 86400000L);
+    }
+
+    // Exam sessions
+
+    /**
+     * @return Whether timed exam sessions with answer autosave are served. Off by default, because the
+     * database needs the tables of {@code V2__exam_sessions.sql} first.
+     */
+    public boolean isSessionEnabled() {
+        return getBoolean("exam.session.enabled", false);
+    }
+
+    /**
+     * @return The delay between two writes of the autosaved answers.
+     */
+    public long getSessionFlushIntervalMillis() {
+        return getLong("exam.session.flush-interval-ms", 1000L);
+    }
+
+    public int getSessionLockStripes() {
+        return getInt("exam.session.lock-stripes", 64);
+    }
+
+    /**
+     * @return How long after a session's deadline autosaves are still accepted.
+     */
+    public long getSessionGraceMillis() {
+        return getLong("exam.session.grace-ms", 30000L);
+    }
+
+    /**
+     * @return How long an active session without requests stays in memory.
+     */
+    public long getSessionIdleEvictMillis() {
+        return getLong("exam.session.idle-evict-ms", 600000L);
+    }
+
+    // Metrics
+
+    /**
+     * @return Whether the Prometheus metrics are served on {@code /metrics}.
+     */
+    public boolean isMetricsEnabled() {
+        return getBoolean("exam.metrics.enabled", true);
+    }
+
+    // Tracing
+
+    /**
+     * @return Whether requests are traced per stage and the slowest ones are served on {@code /admin/traces}.
+     */
+    public boolean isTracingEnabled() {
+        return getBoolean("exam.tracing.enabled", true);
+    }
+
+    public int getTracingSlowestCapacity() {
+        return getInt("exam.tracing.slowest-capacity", 50);
+    }
+
+    /**
+     * @return The file receiving the traces in OTLP/JSON format, or null to not export them.
+     */
+    public String getTracingExportFile() {
+        return get("exam.tracing.export.file");
+    }
+
+    public long getTracingExportMinDurationMillis() {
+        return getLong("exam.tracing.export.min-duration-ms", 0L);
+    }
+
+    public int getTracingExportQueueCapacity() {
+        return getInt("exam.tracing.export.queue-capacity", 1024);
+    }
+
+    public String getTracingServiceName() {
+        return getString("exam.tracing.service-name", "online-examination-system");
+    }
+
+    // Logging
+
+    /**
+     * @return The level of the root logger, e.g. {@code INFO} or {@code FINE}.
+     */
+    public String getLogLevel() {
+        return getString("exam.log.level", "INFO");
+    }
+
+    /**
+     * @return Whether log records are written by a background thread instead of the logging thread.
+     */
+    public boolean isLogAsyncEnabled() {
+        return getBoolean("exam.log.async", true);
+    }
+
+    public int getLogAsyncQueueCapacity() {
+        return getInt("exam.log.async.queue-capacity", 8192);
+    }
+
+    /**
+     * @return The fraction, between 0 and 1, of high-volume debug events that are logged.
+     */
+    public double getLogDebugSampleRate() {
+        return getDouble("exam.log.debug-sample-rate", 0.01);
+    }
+
+    // JSON
+
+    /**
+     * @return Whether Jackson uses the Blackbird module for faster property access.
+     */
+    public boolean isJsonBlackbirdEnabled() {
+        return getBoolean("exam.json.blackbird", true);
+    }
+
+    // Security
+
+    /**
+     * @return The usernames granted the admin role at login, from a comma-separated list.
+     */
+    public Set<String> getAdminUsernames() {
+        String value = get("exam.security.admin-usernames");
+        if (Objects.isNull(value)) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public int getPasswordIterations() {
+        return getInt("exam.security.password.iterations", 310000);
+    }
+
+    /**
+     * @return The number of password hashing threads, by default half the available processors.
+     */
+    public int getPasswordHashThreads() {
+        int threads = getInt("exam.security.password.hash-threads", 0);
+        return threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    }
+
+    public int getPasswordHashQueueCapacity() {
+        return getInt("exam.security.password.hash-queue-capacity", 64);
+    }
+
+    // Generic accessors
+
+    /**
+     * Resolves a raw value by key.
+     *
+     * @param key The property key.
+     * @return The trimmed value, or null if no source defines it or it is blank.
+     */
+    public String get(String key) {
+        String value = systemProperties.getProperty(key);
+        if (Objects.isNull(value)) {
+            value = environment.get(toEnvironmentName(key));
+        }
+        if (Objects.isNull(value)) {
+            value = fileProperties.getProperty(key);
+        }
+        if (Objects.isNull(value) || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    public String getString(String key, String defaultValue) {
+        String value = get(key);
+        return Objects.nonNull(value) ? value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key);
+        if (Objects.isNull(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Configuration value for '" + key + "' is not an integer: " + value, e);
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key);
+        if (Objects.isNull(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Configuration value for '" + key + "' is not a number: " + value, e);
+        }
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        String value = get(key);
+        if (Objects.isNull(value)) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Configuration value for '" + key + "' is not a number: " + value, e);
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        if (Objects.isNull(value)) {
+            return defaultValue;
+        }
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new IllegalArgumentException("Configuration value for '" + key + "' is not a boolean: " + value);
+    }
+
+    static String toEnvironmentName(String key) {
+        return key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+
+    // Initialization-on-demand holder: loaded once, on first access.
+    private static final class Holder {
+        private static final AppConfig INSTANCE = load();
+    }
+}
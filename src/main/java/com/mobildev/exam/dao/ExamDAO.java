@@ -1,14 +1,20 @@
 package com.mobildev.exam.dao;
 
+import com.mobildev.exam.db.DataSourceProvider;
 import com.mobildev.exam.db.DatabaseManager;
+import com.mobildev.exam.logging.LogSampler;
+import com.mobildev.exam.model.Exam;
+import com.mobildev.exam.model.Option;
+import com.mobildev.exam.model.Question;
+import com.mobildev.exam.model.QuestionType;
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -16,115 +22,301 @@ import java.util.logging.Logger;
 /**
  * Data Access Object (DAO) for managing exam-related database operations.
  * This class handles interactions with the 'exams', 'questions', and 'options' tables.
+ * Exam details are fetched with the {@link ExamFetchStrategy} given per call, or the DAO's default.
  */
 public class ExamDAO {
     private static final Logger LOGGER = Logger.getLogger(ExamDAO.class.getName());
 
+    private static final String SQL_GET_ALL_EXAMS = "SELECT id, title, description, duration_minutes FROM exams ORDER BY id";
+    private static final String SQL_GET_EXAM_DETAILS = """
+            SELECT e.id, e.title, e.description, e.duration_minutes,
+                   q.id, q.question_text, q.question_type,
+                   o.id, o.option_text
+            FROM exams e
+            LEFT JOIN questions q ON e.id = q.exam_id
+            LEFT JOIN options o ON q.id = o.question_id
+            WHERE e.id = ?
+            ORDER BY e.id, q.id, o.id
+            """;
+    private static final String SQL_GET_EXAM = "SELECT id, title, description, duration_minutes FROM exams WHERE id = ?";
+    private static final String SQL_GET_QUESTIONS =
+            "SELECT id, question_text, question_type FROM questions WHERE exam_id = ? ORDER BY id";
+    private static final String SQL_GET_OPTIONS = """
+            SELECT o.id, o.question_id, o.option_text
+            FROM options o
+            JOIN questions q ON q.id = o.question_id
+            WHERE q.exam_id = ?
+            ORDER BY o.question_id, o.id
+            """;
+
+    // Column indexes of the queries above; the exam columns are shared by both.
+    private static final int COL_EXAM_ID = 1;
+    private static final int COL_TITLE = 2;
+    private static final int COL_DESCRIPTION = 3;
+    private static final int COL_DURATION_MINUTES = 4;
+    private static final int COL_QUESTION_ID = 5;
+    private static final int COL_QUESTION_TEXT = 6;
+    private static final int COL_QUESTION_TYPE = 7;
+    private static final int COL_OPTION_ID = 8;
+    private static final int COL_OPTION_TEXT = 9;
+
+    // Column indexes of the split questions and options queries.
+    private static final int COL_SPLIT_QUESTION_ID = 1;
+    private static final int COL_SPLIT_QUESTION_TEXT = 2;
+    private static final int COL_SPLIT_QUESTION_TYPE = 3;
+    private static final int COL_SPLIT_OPTION_ID = 1;
+    private static final int COL_SPLIT_OPTION_QUESTION_ID = 2;
+    private static final int COL_SPLIT_OPTION_TEXT = 3;
+
+    private final DataSourceProvider dataSourceProvider;
+    private final ExamFetchStrategy defaultFetchStrategy;
+    // Every query is a debug event; only a sample of them is logged.
+    private final LogSampler queryLogSampler;
+
+    public ExamDAO() {
+        this(DatabaseManager.getDefaultProvider());
+    }
+
+    /**
+     * @param dataSourceProvider The provider of the connections. Exams are only read, so read connections are used.
+     */
+    public ExamDAO(DataSourceProvider dataSourceProvider) {
+        this(dataSourceProvider, ExamFetchStrategy.JOIN);
+    }
+
+    /**
+     * @param dataSourceProvider   The provider of the connections. Exams are only read, so read connections are used.
+     * @param defaultFetchStrategy The strategy used by {@link #getExamDetails(int)}.
+     */
+    public ExamDAO(DataSourceProvider dataSourceProvider, ExamFetchStrategy defaultFetchStrategy) {
+        this(dataSourceProvider, defaultFetchStrategy, new LogSampler(LogSampler.DEFAULT_RATE));
+    }
+
+    /**
+     * @param dataSourceProvider   The provider of the connections. Exams are only read, so read connections are used.
+     * @param defaultFetchStrategy The strategy used by {@link #getExamDetails(int)}.
+     * @param queryLogSampler      The sampler deciding which queries are logged at FINE.
+     */
+    public ExamDAO(DataSourceProvider dataSourceProvider, ExamFetchStrategy defaultFetchStrategy, LogSampler queryLogSampler) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.defaultFetchStrategy = defaultFetchStrategy;
+        this.queryLogSampler = queryLogSampler;
+    }
+
     /**
      * Retrieves a list of all exams with their basic details.
      *
-     * @return A List of Maps, where each Map represents a single exam.
+     * @return The exams, without their questions.
      * @throws SQLException if a database access error occurs.
      */
-    public List<Map<String, Object>> getAllExams() throws SQLException {
-        String query = "SELECT id AS exam_id, title, description, duration_minutes FROM exams ORDER BY id";
-        return executeGetAllExamsQuery(query);
+    public List<Exam> getAllExams() throws SQLException {
+        try (Span span = Tracer.span("db.get-all-exams")) {
+            return executeGetAllExamsQuery(SQL_GET_ALL_EXAMS);
+        }
     }
 
     /**
-     * Retrieves a detailed view of a specific exam, including all its questions and options.
+     * Retrieves a detailed view of a specific exam, including all its questions and options,
+     * with the DAO's default fetch strategy.
      *
      * @param examId The ID of the exam to retrieve.
-     * @return A List of Maps containing denormalized data for the exam, questions, and options.
-     * @throws SQLException if a database access error occurs.
+     * @return The exam with its questions and their options, in ID order, or null if the exam does not exist.
+     * @throws SQLException             if a database access error occurs.
+     * @throws IllegalArgumentException if a question has an unknown question type.
      */
-    public List<Map<String, Object>> getExamDetails(int examId) throws SQLException {
-        String query = """
-                SELECT e.id AS exam_id, e.title, e.description, e.duration_minutes,
-                       q.id AS question_id, q.question_text, q.question_type,
-                       o.id AS option_id, o.option_text
-                FROM exams e
-                LEFT JOIN questions q ON e.id = q.exam_id
-                LEFT JOIN options o ON q.id = o.question_id
-                WHERE e.id = ?
-                ORDER BY e.id, q.id, o.id
-                """;
-        return executeGetExamDetailsQuery(query, List.of(examId));
+    public Exam getExamDetails(int examId) throws SQLException {
+        return getExamDetails(examId, defaultFetchStrategy);
+    }
+
+    /**
+     * Retrieves a detailed view of a specific exam, including all its questions and options.
+     * Both strategies return the same graph.
+     *
+     * @param examId   The ID of the exam to retrieve.
+     * @param strategy How the exam is loaded.
+     * @return The exam with its questions and their options, in ID order, or null if the exam does not exist.
+     * @throws SQLException             if a database access error occurs.
+     * @throws IllegalArgumentException if a question has an unknown question type.
+     */
+    public Exam getExamDetails(int examId, ExamFetchStrategy strategy) throws SQLException {
+        try (Span span = Tracer.span("db.get-exam-details")) {
+            if (strategy == ExamFetchStrategy.SPLIT) {
+                return executeSplitExamDetailsQueries(examId);
+            }
+            return executeGetExamDetailsQuery(SQL_GET_EXAM_DETAILS, examId);
+        }
     }
 
     /**
      * Helper method to execute the query for all exams and map the results.
      *
      * @param query The SQL query to execute.
-     * @return A List of Maps representing the exam results.
+     * @return The exams in ID order.
      * @throws SQLException if an error occurs during query execution.
      */
-    private List<Map<String, Object>> executeGetAllExamsQuery(String query) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
+    private List<Exam> executeGetAllExamsQuery(String query) throws SQLException {
+        List<Exam> exams = new ArrayList<>();
         // Using a try-with-resources block ensures that the Connection, PreparedStatement, and
         // ResultSet are automatically closed, which is a best practice to prevent resource leaks.
-        try (Connection conn = DatabaseManager.getConnection();
+        try (Connection conn = dataSourceProvider.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query);
              ResultSet rs = stmt.executeQuery()) {
 
-            LOGGER.log(Level.INFO, "Executing query: {0}", query);
+            if (queryLogSampler.isLoggable(LOGGER, Level.FINE)) {
+                LOGGER.log(Level.FINE, "Executing query: {0}", query);
+            }
 
             while (rs.next()) {
-                Map<String, Object> row = new HashMap<>();
-                row.put("exam_id", rs.getInt("exam_id"));
-                row.put("title", rs.getString("title"));
-                row.put("description", rs.getString("description"));
-                row.put("duration_minutes", rs.getInt("duration_minutes"));
-                results.add(row);
+                exams.add(mapExam(rs));
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error executing query: " + query, e);
             throw e;
         }
-        return results;
+        return exams;
     }
 
     /**
-     * Helper method to execute the query for exam details and map the results.
+     * Helper method to execute the query for exam details and assemble the exam graph.
+     * The rows are ordered by question and option ID, so the rows of one question are adjacent
+     * and the graph is built in a single pass without lookups.
      *
-     * @param query      The SQL query to execute.
-     * @param parameters A List of objects to set as parameters. Can be null.
-     * @return A List of Maps representing the detailed query results.
+     * @param query  The SQL query to execute.
+     * @param examId The ID of the exam.
+     * @return The assembled exam, or null if the query returned no rows.
      * @throws SQLException if an error occurs during query execution.
      */
-    private List<Map<String, Object>> executeGetExamDetailsQuery(String query, List<Object> parameters) throws SQLException {
-        List<Map<String, Object>> results = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection();
+    private Exam executeGetExamDetailsQuery(String query, int examId) throws SQLException {
+        try (Connection conn = dataSourceProvider.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            // If parameters are provided, set them in the prepared statement.
-            if (Objects.nonNull(parameters)) {
-                for (int i = 0; i < parameters.size(); i++) {
-                    stmt.setObject(i + 1, parameters.get(i));
-                }
-            }
+            stmt.setInt(1, examId);
 
-            LOGGER.log(Level.INFO, "Executing query: {0} with parameters: {1}", new Object[]{query, parameters});
+            if (queryLogSampler.isLoggable(LOGGER, Level.FINE)) {
+                LOGGER.log(Level.FINE, "Executing query: {0} with parameters: {1}", new Object[]{query, examId});
+            }
 
             try (ResultSet rs = stmt.executeQuery()) {
+                Exam exam = null;
+                Question question = null;
                 while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("exam_id", rs.getInt("exam_id"));
-                    row.put("title", rs.getString("title"));
-                    row.put("description", rs.getString("description"));
-                    row.put("duration_minutes", rs.getInt("duration_minutes"));
-                    row.put("question_id", rs.getInt("question_id"));
-                    row.put("question_text", rs.getString("question_text"));
-                    row.put("question_type", rs.getString("question_type"));
-                    row.put("option_id", rs.getInt("option_id"));
-                    row.put("option_text", rs.getString("option_text"));
-                    results.add(row);
+                    if (Objects.isNull(exam)) {
+                        exam = mapExam(rs);
+                        exam.setQuestions(new ArrayList<>());
+                    }
+
+                    // A LEFT JOIN returns NULL IDs for an exam without questions or a question without options.
+                    int questionId = rs.getInt(COL_QUESTION_ID);
+                    if (rs.wasNull()) {
+                        continue;
+                    }
+                    if (Objects.isNull(question) || question.getId() != questionId) {
+                        question = new Question(questionId, exam.getId(), rs.getString(COL_QUESTION_TEXT),
+                                QuestionType.valueOf(rs.getString(COL_QUESTION_TYPE)));
+                        question.setOptions(new ArrayList<>());
+                        exam.getQuestions().add(question);
+                    }
+
+                    int optionId = rs.getInt(COL_OPTION_ID);
+                    if (!rs.wasNull()) {
+                        // Correctness is not selected; it never leaves the server.
+                        question.getOptions().add(new Option(optionId, questionId, rs.getString(COL_OPTION_TEXT), false));
+                    }
                 }
+                return exam;
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error executing query: " + query, e);
             throw e;
         }
-        return results;
     }
-}
\ No newline at end of file
+
+    /**
+     * Loads the exam, its questions and its options with one query each, in one read-only transaction
+     * so the three queries see the same snapshot. Questions and options are both ordered by question ID,
+     * so the options are attached by walking both lists once.
+     *
+     * @param examId The ID of the exam.
+     * @return The assembled exam, or null if it does not exist.
+     * @throws SQLException if an error occurs during query execution.
+     */
+    private Exam executeSplitExamDetailsQueries(int examId) throws SQLException {
+        try (Connection conn = dataSourceProvider.getReadConnection()) {
+            if (queryLogSampler.isLoggable(LOGGER, Level.FINE)) {
+                LOGGER.log(Level.FINE, "Executing split exam details queries with parameters: {0}", examId);
+            }
+            conn.setAutoCommit(false);
+            try {
+                Exam exam = queryExam(conn, examId);
+                if (Objects.nonNull(exam)) {
+                    exam.setQuestions(queryQuestions(conn, examId));
+                    attachOptions(conn, examId, exam.getQuestions());
+                }
+                conn.commit();
+                return exam;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error executing split exam details queries for exam ID: " + examId, e);
+            throw e;
+        }
+    }
+
+    private static Exam queryExam(Connection conn, int examId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_GET_EXAM)) {
+            stmt.setInt(1, examId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapExam(rs) : null;
+            }
+        }
+    }
+
+    private static List<Question> queryQuestions(Connection conn, int examId) throws SQLException {
+        List<Question> questions = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_GET_QUESTIONS)) {
+            stmt.setInt(1, examId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Question question = new Question(rs.getInt(COL_SPLIT_QUESTION_ID), examId,
+                            rs.getString(COL_SPLIT_QUESTION_TEXT), QuestionType.valueOf(rs.getString(COL_SPLIT_QUESTION_TYPE)));
+                    question.setOptions(new ArrayList<>());
+                    questions.add(question);
+                }
+            }
+        }
+        return questions;
+    }
+
+    private static void attachOptions(Connection conn, int examId, List<Question> questions) throws SQLException {
+        if (questions.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_GET_OPTIONS)) {
+            stmt.setInt(1, examId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int index = 0;
+                while (rs.next()) {
+                    int questionId = rs.getInt(COL_SPLIT_OPTION_QUESTION_ID);
+                    while (index < questions.size() && questions.get(index).getId() < questionId) {
+                        index++;
+                    }
+                    // Skips options of a question added after the questions were read.
+                    if (index < questions.size() && questions.get(index).getId() == questionId) {
+                        questions.get(index).getOptions().add(
+                                new Option(rs.getInt(COL_SPLIT_OPTION_ID), questionId, rs.getString(COL_SPLIT_OPTION_TEXT), false));
+                    }
+                }
+            }
+        }
+    }
+
+    // Maps the exam columns, which come first in the exam queries.
+    private static Exam mapExam(ResultSet rs) throws SQLException {
+        return new Exam(rs.getInt(COL_EXAM_ID), rs.getString(COL_TITLE), rs.getString(COL_DESCRIPTION),
+                rs.getInt(COL_DURATION_MINUTES), null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mobildev.exam.dao;
+
+import java.util.Locale;
+
+/**
+ * How {@link ExamDAO#getExamDetails(int, ExamFetchStrategy)} loads an exam with its questions and options.
+ */
+public enum ExamFetchStrategy {
+    /**
+     * One round trip with a LEFT JOIN. The exam and question columns are repeated on every option row,
+     * which is cheap for small exams with short texts.
+     */
+    JOIN,
+    /**
+     * Three narrow queries for the exam, its questions and its options, stitched together in memory.
+     * Every value is transferred once, at the cost of two more round trips; better for large exams
+     * and long descriptions.
+     */
+    SPLIT;
+
+    /**
+     * Parses a configuration value such as "join" or "split".
+     *
+     * @param value The configured value, case-insensitive.
+     * @return The matching strategy.
+     * @throws IllegalArgumentException if the value names no strategy.
+     */
+    public static ExamFetchStrategy fromString(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,57 @@
+package com.mobildev.exam.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Supplies JDBC connections to the DAOs and services.
+ * Implementations own their connection pools and release them in {@link #close()}.
+ */
+public interface DataSourceProvider extends AutoCloseable {
+
+    /**
+     * @return A connection for reads and writes, which the caller must close.
+     * @throws SQLException if no connection can be obtained.
+     */
+    Connection getConnection() throws SQLException;
+
+    /**
+     * Returns a connection for read-only queries. It may be served by a replica that lags
+     * behind the primary, so it must not be used to read data the caller has just written.
+     *
+     * @return A connection the caller must close. Defaults to {@link #getConnection()}.
+     * @throws SQLException if no connection can be obtained.
+     */
+    default Connection getReadConnection() throws SQLException {
+        return getConnection();
+    }
+
+    /**
+     * Returns a connection for read-only queries about the given user. Providers that route reads
+     * to replicas serve it from the primary while the user's last write may not have replicated yet.
+     *
+     * @param userId The user the query reads data of.
+     * @return A connection the caller must close. Defaults to {@link #getReadConnection()}.
+     * @throws SQLException if no connection can be obtained.
+     */
+    default Connection getReadConnection(int userId) throws SQLException {
+        return getReadConnection();
+    }
+
+    /**
+     * Notes that a write of the given user has been committed, for {@link #getReadConnection(int)}.
+     * Does nothing by default.
+     *
+     * @param userId The user whose data was written.
+     */
+    default void markWritten(int userId) {
+    }
+
+    /**
+     * @return The maximum number of connections {@link #getConnection()} hands out at the same time.
+     */
+    int getMaximumPoolSize();
+
+    @Override
+    void close();
+}
@@ -1,53 +1,130 @@
 package com.mobildev.exam.db;
 
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import com.mobildev.exam.config.AppConfig;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.logging.Logger;
+import java.util.Locale;
+import java.util.Objects;
 
+/**
+ * Creates DataSourceProviders from the configuration and holds the process-wide default provider.
+ * The default provider is created from {@link AppConfig#getInstance()} on first use, so merely
+ * loading this class or a component using the default does not open a connection pool.
+ * Components should receive their provider through their constructor; the default only backs
+ * the convenience constructors.
+ */
 public class DatabaseManager {
-    private static final Logger LOGGER = Logger.getLogger(DatabaseManager.class.getName());
 
+    private static final DataSourceProvider DEFAULT_PROVIDER = new DefaultProvider();
 
-    // The single, static instance of the HikariCP data source.
-    private static final HikariDataSource dataSource;
+    // Written under the DatabaseManager.class lock.
+    private static volatile DataSourceProvider provider;
 
-    // Static block to initialize the connection pool when the class is loaded.
-    static {
-        // We read configuration from a configuration file in a real-world application.
-        String dbUrl = "jdbc:mysql://localhost:3306/online_exam_db";
-        String user = "root";
-        String pass = "root";
+    /**
+     * Creates the provider selected by {@code exam.db.provider}: {@code hikari} (the default) for the
+     * configured JDBC URL, or {@code h2} for an embedded in-memory database.
+     * When {@code exam.db.replicas.urls} lists replicas, that provider becomes the primary of a
+     * {@link RoutingDataSourceProvider} sending read-only queries to the replicas.
+     *
+     * @param config The configuration.
+     * @return A new provider, which the caller must close.
+     */
+    public static DataSourceProvider createProvider(AppConfig config) {
+        DataSourceProvider primary = createPrimaryProvider(config);
+        if (config.getReplicaUrls().isEmpty()) {
+            return primary;
+        }
+        try {
+            return new RoutingDataSourceProvider(primary, ReplicaSetDataSourceProvider.fromConfig(config),
+                    new ReadYourWritesTracker(config.getReadYourWritesMillis()));
+        } catch (RuntimeException e) {
+            primary.close();
+            throw e;
+        }
+    }
+
+    private static DataSourceProvider createPrimaryProvider(AppConfig config) {
+        String type = config.getDbProvider().toLowerCase(Locale.ROOT);
+        switch (type) {
+            case "hikari":
+                return HikariDataSourceProvider.fromConfig(config);
+            case "h2":
+                return new H2DataSourceProvider(config, config.getString("exam.db.h2.name", "exam"));
+            default:
+                throw new IllegalArgumentException("Unknown database provider: " + type);
+        }
+    }
 
-        // Create the configuration object for HikariCP.
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(dbUrl);
-        config.setUsername(user);
-        config.setPassword(pass);
+    /**
+     * @return A provider delegating to the process-wide default, created on first use.
+     */
+    public static DataSourceProvider getDefaultProvider() {
+        return DEFAULT_PROVIDER;
+    }
 
-        // Configure the pool size. A good starting point is usually
-        // based on the number of CPU cores and expected concurrency.
-        config.setMaximumPoolSize(20);
-        config.setMinimumIdle(5);
-        config.setPoolName("ExamApp-Pool");
+    public static Connection getConnection() throws SQLException {
+        return provider().getConnection();
+    }
 
-        // Set up other useful properties for performance and reliability.
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+    /**
+     * @return The maximum number of connections the default pool will open.
+     */
+    public static int getMaximumPoolSize() {
+        return provider().getMaximumPoolSize();
+    }
 
-        dataSource = new HikariDataSource(config);
+    /**
+     * Closes the default provider if it was created.
+     */
+    public static synchronized void shutdown() {
+        if (Objects.nonNull(provider)) {
+            provider.close();
+            provider = null;
+        }
     }
 
-    public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+    private static DataSourceProvider provider() {
+        DataSourceProvider current = provider;
+        if (Objects.nonNull(current)) {
+            return current;
+        }
+        synchronized (DatabaseManager.class) {
+            if (Objects.isNull(provider)) {
+                provider = createProvider(AppConfig.getInstance());
+            }
+            return provider;
+        }
     }
 
-    public static void shutdown() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
-            LOGGER.info("HikariCP connection pool has been shut down gracefully.");
+    private static final class DefaultProvider implements DataSourceProvider {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return provider().getConnection();
+        }
+
+        @Override
+        public Connection getReadConnection() throws SQLException {
+            return provider().getReadConnection();
+        }
+
+        @Override
+        public Connection getReadConnection(int userId) throws SQLException {
+            return provider().getReadConnection(userId);
+        }
+
+        @Override
+        public void markWritten(int userId) {
+            provider().markWritten(userId);
+        }
+
+        @Override
+        public int getMaximumPoolSize() {
+            return provider().getMaximumPoolSize();
+        }
+
+        @Override
+        public void close() {
+            shutdown();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.mobildev.exam.db;
+
+import com.mobildev.exam.config.AppConfig;
+import com.zaxxer.hikari.HikariConfig;
+
+/**
+ * A pooled, in-memory H2 database in MySQL compatibility mode, for tests, benchmarks and load tests.
+ * The database lives until the provider is closed. The H2 driver is an optional dependency and
+ * must be on the classpath.
+ */
+public class H2DataSourceProvider extends HikariDataSourceProvider {
+
+    /**
+     * @param appConfig    The configuration supplying pool sizing and timeouts.
+     * @param databaseName The in-memory database name; providers with the same name share the database.
+     */
+    public H2DataSourceProvider(AppConfig appConfig, String databaseName) {
+        super(createH2Config(appConfig, databaseName));
+    }
+
+    /**
+     * @param databaseName The in-memory database name.
+     * @return The JDBC URL of the database.
+     */
+    public static String url(String databaseName) {
+        return "jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    private static HikariConfig createH2Config(AppConfig appConfig, String databaseName) {
+        HikariConfig config = createConfig(appConfig, "ExamApp-H2-Pool", url(databaseName), "sa", "");
+        config.setDriverClassName("org.h2.Driver");
+        return config;
+    }
+}
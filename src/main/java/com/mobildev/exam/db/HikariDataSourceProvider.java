@@ -0,0 +1,99 @@
+package com.mobildev.exam.db;
+
+import com.mobildev.exam.config.AppConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+/**
+ * A DataSourceProvider backed by a HikariCP connection pool.
+ */
+public class HikariDataSourceProvider implements DataSourceProvider {
+    private static final Logger LOGGER = Logger.getLogger(HikariDataSourceProvider.class.getName());
+
+    private final HikariDataSource dataSource;
+
+    public HikariDataSourceProvider(HikariConfig config) {
+        this.dataSource = new HikariDataSource(config);
+    }
+
+    /**
+     * Creates the primary pool from the {@code exam.db.*} settings.
+     *
+     * @param appConfig The configuration.
+     * @return The provider.
+     */
+    public static HikariDataSourceProvider fromConfig(AppConfig appConfig) {
+        return new HikariDataSourceProvider(createConfig(appConfig, "ExamApp-Pool",
+                appConfig.getDbUrl(), appConfig.getDbUsername(), appConfig.getDbPassword()));
+    }
+
+    /**
+     * Creates a pool configuration with the configured pool sizing and timeouts.
+     *
+     * @param appConfig The configuration supplying pool sizing, timeouts and statement caching.
+     * @param poolName  The pool name shown in logs and metrics.
+     * @param url       The JDBC URL.
+     * @param username  The database user.
+     * @param password  The database password.
+     * @return The pool configuration.
+     */
+    public static HikariConfig createConfig(AppConfig appConfig, String poolName, String url, String username, String password) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+
+        // Configure the pool size. A good starting point is usually
+        // based on the number of CPU cores and expected concurrency.
+        config.setMaximumPoolSize(appConfig.getPoolMaxSize());
+        config.setMinimumIdle(appConfig.getPoolMinIdle());
+        config.setConnectionTimeout(appConfig.getPoolConnectionTimeoutMillis());
+        config.setIdleTimeout(appConfig.getPoolIdleTimeoutMillis());
+        config.setMaxLifetime(appConfig.getPoolMaxLifetimeMillis());
+        config.setPoolName(poolName);
+
+        // Set up other useful properties for performance and reliability.
+        // These are MySQL Connector/J driver properties; other drivers may reject them.
+        if (url.startsWith("jdbc:mysql:")) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(appConfig.getPrepStmtCacheSize()));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(appConfig.getPrepStmtCacheSqlLimit()));
+        }
+        return config;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
+    /**
+     * @return The number of connections currently borrowed from the pool.
+     */
+    public int getActiveConnections() {
+        return dataSource.getHikariPoolMXBean().getActiveConnections();
+    }
+
+    /**
+     * Exposes the pool, e.g. for its metrics.
+     */
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        if (!dataSource.isClosed()) {
+            dataSource.close();
+            LOGGER.info("HikariCP connection pool " + dataSource.getPoolName() + " has been shut down gracefully.");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobildev.exam.db;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which users wrote recently, so their reads can be served by the primary until the
+ * replicas have caught up. Entries older than the window are pruned at most once per window.
+ */
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final Map<Integer, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final AtomicLong nextPruneNanos;
+
+    /**
+     * @param windowMillis How long after a write the user's reads go to the primary; 0 disables tracking.
+     */
+    public ReadYourWritesTracker(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(windowMillis, 0));
+        this.nextPruneNanos = new AtomicLong(System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * Records that the user's write has been committed on the primary.
+     */
+    public void recordWrite(int userId) {
+        if (windowNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWriteNanos.put(userId, now);
+        pruneIfDue(now);
+    }
+
+    /**
+     * @return Whether the user wrote within the window, so a replica may not have the write yet.
+     */
+    public boolean requiresPrimary(int userId) {
+        if (windowNanos == 0) {
+            return false;
+        }
+        Long writtenAt = lastWriteNanos.get(userId);
+        return Objects.nonNull(writtenAt) && System.nanoTime() - writtenAt < windowNanos;
+    }
+
+    /**
+     * @return The number of users currently remembered, including expired entries not yet pruned.
+     */
+    public int size() {
+        return lastWriteNanos.size();
+    }
+
+    private void pruneIfDue(long now) {
+        long due = nextPruneNanos.get();
+        // Only the thread winning the CAS prunes; the others skip it.
+        if (now - due >= 0 && nextPruneNanos.compareAndSet(due, now + windowNanos)) {
+            lastWriteNanos.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mobildev.exam.db;
+
+import java.util.Locale;
+
+/**
+ * How a {@link ReplicaSetDataSourceProvider} picks the replica for the next read.
+ */
+public enum ReplicaSelection {
+    /**
+     * Cycles through the healthy replicas.
+     */
+    ROUND_ROBIN,
+    /**
+     * Picks the healthy replica with the fewest borrowed connections, so a slow replica receives less traffic.
+     */
+    LEAST_CONNECTIONS;
+
+    /**
+     * Parses a configuration value such as "round-robin" or "least-connections".
+     *
+     * @param value The configured value, case-insensitive.
+     * @return The matching selection.
+     * @throws IllegalArgumentException if the value names no selection.
+     */
+    public static ReplicaSelection fromString(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
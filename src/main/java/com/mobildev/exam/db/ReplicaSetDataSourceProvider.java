@@ -0,0 +1,300 @@
+package com.mobildev.exam.db;
+
+import com.mobildev.exam.config.AppConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves read-only connections from a set of replica pools.
+ * A background thread validates every replica at a fixed interval over a connection of its own, outside
+ * the pool, so a replica whose pool is busy is not mistaken for a replica that is down. Replicas failing
+ * the check, or failing to connect, are skipped until a later check succeeds. A replica whose pool has
+ * no free connection is only skipped for that read.
+ * Every connection it hands out is a read connection, so {@link #getConnection()} must not be used for writes.
+ */
+public class ReplicaSetDataSourceProvider implements DataSourceProvider {
+    private static final Logger LOGGER = Logger.getLogger(ReplicaSetDataSourceProvider.class.getName());
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final ReplicaSelection selection;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+    private final LongAdder busyCount = new LongAdder();
+
+    /**
+     * @param replicas                  The replica pools, which this provider closes.
+     * @param selection                 How the replica for each read is picked.
+     * @param healthCheckIntervalMillis The delay between two health checks of all replicas.
+     */
+    public ReplicaSetDataSourceProvider(List<HikariDataSourceProvider> replicas, ReplicaSelection selection,
+                                        long healthCheckIntervalMillis) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required.");
+        }
+        List<Replica> wrapped = new ArrayList<>(replicas.size());
+        for (HikariDataSourceProvider provider : replicas) {
+            wrapped.add(new Replica(provider));
+        }
+        this.replicas = List.copyOf(wrapped);
+        this.selection = selection;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates one pool per URL in {@code exam.db.replicas.urls}, with the primary's pool settings.
+     * A replica that is down at startup does not fail the startup; it is skipped until it recovers.
+     *
+     * @param appConfig The configuration.
+     * @return The provider.
+     */
+    public static ReplicaSetDataSourceProvider fromConfig(AppConfig appConfig) {
+        List<String> urls = appConfig.getReplicaUrls();
+        List<HikariDataSourceProvider> providers = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = HikariDataSourceProvider.createConfig(appConfig, "ExamApp-Replica-" + (i + 1),
+                    urls.get(i), appConfig.getReplicaUsername(), appConfig.getReplicaPassword());
+            config.setReadOnly(true);
+            config.setConnectionTimeout(appConfig.getReplicaConnectionTimeoutMillis());
+            config.setInitializationFailTimeout(-1);
+            providers.add(new HikariDataSourceProvider(config));
+        }
+        return new ReplicaSetDataSourceProvider(providers, ReplicaSelection.fromString(appConfig.getReplicaSelection()),
+                appConfig.getReplicaHealthCheckIntervalMillis());
+    }
+
+    /**
+     * @return A read-only connection from a healthy replica.
+     * @throws SQLTransientConnectionException if no healthy replica could hand out a connection.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        SQLException lastFailure = null;
+        List<Replica> tried = new ArrayList<>(replicas.size());
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = select(tried);
+            if (Objects.isNull(replica)) {
+                break;
+            }
+            tried.add(replica);
+            try {
+                return replica.provider.getConnection();
+            } catch (SQLException e) {
+                if (isPoolExhausted(e)) {
+                    busyCount.increment();
+                    LOGGER.log(Level.FINE, "Read replica {0} has no free connection; trying another one.",
+                            replica.getName());
+                } else {
+                    markDown(replica, e);
+                }
+                lastFailure = e;
+            }
+        }
+        throw new SQLTransientConnectionException("No healthy read replica is available.", lastFailure);
+    }
+
+    // HikariCP attaches the last failure to connect as the cause of its timeout. Without one the replica
+    // was reachable, and the timeout only means that every pooled connection was in use.
+    private static boolean isPoolExhausted(SQLException e) {
+        return e instanceof SQLTransientConnectionException && Objects.isNull(e.getCause());
+    }
+
+    // Picks a healthy replica that was not tried yet for this read.
+    private Replica select(List<Replica> tried) {
+        int size = replicas.size();
+        if (selection == ReplicaSelection.LEAST_CONNECTIONS) {
+            Replica best = null;
+            int bestActive = Integer.MAX_VALUE;
+            for (Replica replica : replicas) {
+                if (replica.healthy && !tried.contains(replica)) {
+                    int active = replica.provider.getActiveConnections();
+                    if (active < bestActive) {
+                        best = replica;
+                        bestActive = active;
+                    }
+                }
+            }
+            return best;
+        }
+        int start = Math.floorMod(nextIndex.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy && !tried.contains(replica)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validates every replica over its health check connection and updates which replicas receive reads.
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            try {
+                boolean valid = Objects.nonNull(replica.checkConnection)
+                        && replica.checkConnection.isValid(VALIDATION_TIMEOUT_SECONDS);
+                if (!valid) {
+                    // The old connection may just have been dropped, e.g. by a restart; a new one decides.
+                    replica.closeCheckConnection();
+                    replica.checkConnection = openCheckConnection(replica.provider.getDataSource());
+                    valid = replica.checkConnection.isValid(VALIDATION_TIMEOUT_SECONDS);
+                }
+                if (valid) {
+                    markUp(replica);
+                } else {
+                    replica.closeCheckConnection();
+                    markDown(replica, null);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.closeCheckConnection();
+                markDown(replica, e);
+            }
+        }
+    }
+
+    /**
+     * Opens a connection to a replica with the settings of its pool, but outside the pool.
+     */
+    private static Connection openCheckConnection(HikariDataSource dataSource) throws SQLException {
+        Properties properties = new Properties();
+        properties.putAll(dataSource.getDataSourceProperties());
+        if (Objects.nonNull(dataSource.getUsername())) {
+            properties.setProperty("user", dataSource.getUsername());
+        }
+        if (Objects.nonNull(dataSource.getPassword())) {
+            properties.setProperty("password", dataSource.getPassword());
+        }
+        // MySQL Connector/J waits for the operating system's TCP timeout by default; other drivers may reject these.
+        if (dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            String timeoutMillis = String.valueOf(TimeUnit.SECONDS.toMillis(VALIDATION_TIMEOUT_SECONDS));
+            properties.setProperty("connectTimeout", timeoutMillis);
+            properties.setProperty("socketTimeout", timeoutMillis);
+        }
+        Connection conn = DriverManager.getConnection(dataSource.getJdbcUrl(), properties);
+        conn.setReadOnly(true);
+        return conn;
+    }
+
+    private void markUp(Replica replica) {
+        if (!replica.healthy) {
+            replica.healthy = true;
+            LOGGER.info("Read replica " + replica.getName() + " is healthy again.");
+        }
+    }
+
+    private void markDown(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOGGER.log(Level.WARNING, "Read replica " + replica.getName() + " is unavailable; skipping it until it recovers.",
+                    cause);
+        }
+    }
+
+    /**
+     * @return The number of replicas currently receiving reads.
+     */
+    public int getHealthyCount() {
+        int count = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of reads that skipped a replica because its pool had no free connection.
+     */
+    public long getBusyCount() {
+        return busyCount.sum();
+    }
+
+    /**
+     * @return The replica pools, e.g. for their metrics.
+     */
+    public List<HikariDataSourceProvider> getReplicas() {
+        List<HikariDataSourceProvider> providers = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            providers.add(replica.provider);
+        }
+        return providers;
+    }
+
+    /**
+     * @return The combined maximum size of all replica pools.
+     */
+    @Override
+    public int getMaximumPoolSize() {
+        int total = 0;
+        for (Replica replica : replicas) {
+            total += replica.provider.getMaximumPoolSize();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        try {
+            healthChecker.awaitTermination(VALIDATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Replica replica : replicas) {
+            replica.closeCheckConnection();
+            replica.provider.close();
+        }
+    }
+
+    private static final class Replica {
+        private final HikariDataSourceProvider provider;
+        // Optimistic until the first check, so reads are spread out right after startup.
+        private volatile boolean healthy = true;
+        // Only used by the health check thread, and by close() once that thread has stopped.
+        private Connection checkConnection;
+
+        private Replica(HikariDataSourceProvider provider) {
+            this.provider = provider;
+        }
+
+        private void closeCheckConnection() {
+            if (Objects.isNull(checkConnection)) {
+                return;
+            }
+            try {
+                checkConnection.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Could not close the health check connection of " + getName() + ".", e);
+            } finally {
+                checkConnection = null;
+            }
+        }
+
+        private String getName() {
+            return provider.getDataSource().getPoolName();
+        }
+    }
+}
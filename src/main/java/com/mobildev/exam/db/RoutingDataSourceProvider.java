@@ -0,0 +1,111 @@
+package com.mobildev.exam.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends writes to a primary provider and read-only queries to a separate read provider,
+ * e.g. a pool of replicas. Reads fall back to the primary when the read provider cannot hand out
+ * a connection, and reads about a user who wrote recently go to the primary, so users always see
+ * their own writes. Closing it closes both.
+ */
+public class RoutingDataSourceProvider implements DataSourceProvider {
+    private static final Logger LOGGER = Logger.getLogger(RoutingDataSourceProvider.class.getName());
+
+    private final DataSourceProvider primary;
+    private final DataSourceProvider reads;
+    private final ReadYourWritesTracker readYourWrites;
+    private final LongAdder fallbackCount = new LongAdder();
+    private final LongAdder readYourWritesCount = new LongAdder();
+
+    /**
+     * Creates a router without read-your-writes tracking.
+     *
+     * @param primary The provider for reads and writes.
+     * @param reads   The provider for read-only queries.
+     */
+    public RoutingDataSourceProvider(DataSourceProvider primary, DataSourceProvider reads) {
+        this(primary, reads, new ReadYourWritesTracker(0));
+    }
+
+    /**
+     * @param primary        The provider for reads and writes.
+     * @param reads          The provider for read-only queries.
+     * @param readYourWrites The tracker deciding which users' reads stay on the primary.
+     */
+    public RoutingDataSourceProvider(DataSourceProvider primary, DataSourceProvider reads,
+                                     ReadYourWritesTracker readYourWrites) {
+        this.primary = primary;
+        this.reads = reads;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        try {
+            return reads.getReadConnection();
+        } catch (SQLException e) {
+            fallbackCount.increment();
+            LOGGER.log(Level.FINE, "No read connection available, reading from the primary: {0}", e.getMessage());
+            return primary.getReadConnection();
+        }
+    }
+
+    @Override
+    public Connection getReadConnection(int userId) throws SQLException {
+        if (readYourWrites.requiresPrimary(userId)) {
+            readYourWritesCount.increment();
+            return primary.getReadConnection();
+        }
+        return getReadConnection();
+    }
+
+    @Override
+    public void markWritten(int userId) {
+        readYourWrites.recordWrite(userId);
+    }
+
+    @Override
+    public int getMaximumPoolSize() {
+        return primary.getMaximumPoolSize();
+    }
+
+    public DataSourceProvider getPrimary() {
+        return primary;
+    }
+
+    public DataSourceProvider getReads() {
+        return reads;
+    }
+
+    /**
+     * @return The number of reads served by the primary because the read provider failed.
+     */
+    public long getFallbackCount() {
+        return fallbackCount.sum();
+    }
+
+    /**
+     * @return The number of reads served by the primary because the user wrote recently.
+     */
+    public long getReadYourWritesCount() {
+        return readYourWritesCount.sum();
+    }
+
+    @Override
+    public void close() {
+        try {
+            reads.close();
+        } finally {
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mobildev.exam.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Runs the SQL scripts shipped on the classpath: {@value #SCHEMA} creates the tables of a new database,
+ * and the scripts in {@code db/migration} bring an existing database up to date.
+ * Lines starting with {@code --} are comments; statements are separated by semicolons.
+ */
+public final class SqlScript {
+    public static final String SCHEMA = "db/schema.sql";
+
+    private SqlScript() {
+    }
+
+    /**
+     * Executes every statement of a script, in order, on the given connection.
+     *
+     * @param conn     The connection; the caller controls its transaction.
+     * @param resource The classpath location of the script, e.g. {@link #SCHEMA}.
+     * @throws SQLException if the database rejects a statement.
+     */
+    public static void execute(Connection conn, String resource) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : read(resource)) {
+                stmt.execute(statement);
+            }
+        }
+    }
+
+    /**
+     * @param resource The classpath location of the script.
+     * @return The statements of the script, without comments and the separating semicolons.
+     */
+    public static List<String> read(String resource) {
+        String script;
+        try (InputStream in = SqlScript.class.getClassLoader().getResourceAsStream(resource)) {
+            if (Objects.isNull(in)) {
+                throw new IllegalStateException(resource + " not found on the classpath.");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        List<String> statements = new ArrayList<>();
+        // Comments are removed first, so they may contain semicolons.
+        for (String sql : script.replaceAll("(?m)^\\s*--.*$", "").split(";")) {
+            String statement = sql.trim();
+            if (!statement.isEmpty()) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+}
@@ -1,11 +1,15 @@
 package com.mobildev.exam.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.math.BigDecimal;
 
 public class ExamResultDTO {
 
     private String message;
     private BigDecimal score;
+    // Only set when the submission is persisted asynchronously.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String submissionId;
 
     public ExamResultDTO() {
     }
@@ -21,6 +25,19 @@ public class ExamResultDTO {
         this.score = score;
     }
 
+    /**
+     * Constructs an ExamResultDTO for a submission that is persisted asynchronously.
+     *
+     * @param message      A descriptive message about the submission result.
+     * @param score        The calculated score of the exam.
+     * @param submissionId The ID under which the submission is being saved.
+     */
+    public ExamResultDTO(String message, BigDecimal score, String submissionId) {
+        this.message = message;
+        this.score = score;
+        this.submissionId = submissionId;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -36,4 +53,12 @@ public class ExamResultDTO {
     public void setScore(BigDecimal score) {
         this.score = score;
     }
-}
\ No newline at end of file
+
+    public String getSubmissionId() {
+        return submissionId;
+    }
+
+    public void setSubmissionId(String submissionId) {
+        this.submissionId = submissionId;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mobildev.exam.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+public class ExamSessionDTO {
+
+    private String sessionId;
+    private int examId;
+    private String status;
+    private String startedAt;
+    // Null for exams without a duration.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String expiresAt;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long remainingSeconds;
+    private List<UserAnswerSubmissionDTO> answers;
+
+    public ExamSessionDTO() {
+    }
+
+    /**
+     * @param sessionId        The ID used to save answers and to submit the session.
+     * @param examId           The ID of the exam.
+     * @param status           The session status, e.g. {@code ACTIVE}.
+     * @param startedAt        The start of the session as an ISO-8601 instant.
+     * @param expiresAt        The deadline as an ISO-8601 instant, or null if the exam has no duration.
+     * @param remainingSeconds The time left until the deadline, or null if the exam has no duration.
+     * @param answers          The answers saved so far.
+     */
+    public ExamSessionDTO(String sessionId, int examId, String status, String startedAt, String expiresAt,
+                          Long remainingSeconds, List<UserAnswerSubmissionDTO> answers) {
+        this.sessionId = sessionId;
+        this.examId = examId;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.expiresAt = expiresAt;
+        this.remainingSeconds = remainingSeconds;
+        this.answers = answers;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public int getExamId() {
+        return examId;
+    }
+
+    public void setExamId(int examId) {
+        this.examId = examId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(String startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(String expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getRemainingSeconds() {
+        return remainingSeconds;
+    }
+
+    public void setRemainingSeconds(Long remainingSeconds) {
+        this.remainingSeconds = remainingSeconds;
+    }
+
+    public List<UserAnswerSubmissionDTO> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<UserAnswerSubmissionDTO> answers) {
+        this.answers = answers;
+    }
+}
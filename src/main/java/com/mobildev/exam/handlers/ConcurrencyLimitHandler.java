@@ -0,0 +1,73 @@
+package com.mobildev.exam.handlers;
+
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
+import com.mobildev.exam.util.ResponseUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Limits how many requests may run the wrapped handler at the same time.
+ * Wrapping database-bound handlers with a limit equal to the connection pool size keeps a large
+ * number of concurrent requests (e.g. one virtual thread per request) from stampeding the pool;
+ * excess requests wait for a permit and are rejected with 503 if none frees up in time.
+ */
+public class ConcurrencyLimitHandler implements HttpHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(ConcurrencyLimitHandler.class.getName());
+    private final HttpHandler nextHandler;
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+
+    /**
+     * @param nextHandler          The handler to protect.
+     * @param permits              The shared permits; handlers wrapping the same resource should share one instance.
+     * @param acquireTimeoutMillis How long a request may wait for a permit before it is rejected.
+     */
+    public ConcurrencyLimitHandler(HttpHandler nextHandler, Semaphore permits, long acquireTimeoutMillis) {
+        this.nextHandler = nextHandler;
+        this.permits = permits;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!tryAcquire(permits, acquireTimeoutMillis)) {
+            sendBusy(exchange);
+            return;
+        }
+
+        try {
+            nextHandler.handle(exchange);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Waits for a permit, for handlers that take one for only part of their work.
+     *
+     * @return Whether a permit was acquired; the caller must release it.
+     */
+    static boolean tryAcquire(Semaphore permits, long acquireTimeoutMillis) {
+        try (Span span = Tracer.span("db.permit-wait")) {
+            return permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Rejects a request that did not get a permit in time.
+     */
+    static void sendBusy(HttpExchange exchange) throws IOException {
+        LOGGER.warning("Rejecting request to " + exchange.getRequestURI().getPath() + ": concurrency limit reached.");
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        ResponseUtil.sendResponse(exchange, 503, "Server is busy. Please retry.");
+    }
+}
@@ -1,8 +1,8 @@
 package com.mobildev.exam.handlers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mobildev.exam.dto.ExamResponseDTO;
 import com.mobildev.exam.service.ExamService;
+import com.mobildev.exam.util.JsonUtil;
 import com.mobildev.exam.util.ResponseUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -11,7 +11,6 @@ import java.util.logging.Logger;
 
 public class ExamDetailsHandler implements HttpHandler {
     private static final Logger LOGGER = Logger.getLogger(ExamDetailsHandler.class.getName());
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final ExamService examService;
 
     public ExamDetailsHandler(ExamService examService) {
@@ -45,8 +44,7 @@ public class ExamDetailsHandler implements HttpHandler {
         if (examResponse == null) {
             ResponseUtil.sendResponse(exchange, 404, "Exam not found.");
         } else {
-            String jsonResponse = objectMapper.writeValueAsString(examResponse);
-            ResponseUtil.sendResponse(exchange, 200, jsonResponse);
+            ResponseUtil.sendJson(exchange, 200, JsonUtil.getExamResponseWriter(), examResponse);
         }
     }
 }
\ No newline at end of file
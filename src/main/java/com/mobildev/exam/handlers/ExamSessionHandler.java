@@ -0,0 +1,197 @@
+package com.mobildev.exam.handlers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.mobildev.exam.dto.ExamSessionDTO;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.service.ExamService;
+import com.mobildev.exam.session.ExamSessionService;
+import com.mobildev.exam.submission.SubmissionParser;
+import com.mobildev.exam.submission.WriteBehindSubmissionWriter;
+import com.mobildev.exam.util.JsonUtil;
+import com.mobildev.exam.util.ResponseUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Logger;
+
+/**
+ * Serves timed exam sessions. Must be wrapped by a {@link JwtAuthHandler}.
+ * <ul>
+ *     <li>{@code POST /exams/{examId}/start} starts or resumes the session of an exam, delegated by {@link ExamsHandler}.</li>
+ *     <li>{@code GET /sessions/{sessionId}} returns the session with its saved answers.</li>
+ *     <li>{@code PUT /sessions/{sessionId}/answers/{questionId}} autosaves one answer.</li>
+ *     <li>{@code POST /sessions/{sessionId}/submit} scores the saved answers and closes the session.</li>
+ * </ul>
+ * Autosaves are served from memory. The submit holds a database permit while it scores and saves;
+ * the other requests read the database only to reload a session, and wait for a permit only if that
+ * needs an exam that is not cached.
+ */
+public class ExamSessionHandler implements HttpHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(ExamSessionHandler.class.getName());
+    private static final String MSG_SESSION_NOT_FOUND = "Session Not Found";
+
+    private final ExamSessionService sessionService;
+    private final SubmissionParser submissionParser;
+    private final HttpHandler submitHandler;
+
+    /**
+     * @param sessionService       The service holding the sessions.
+     * @param submissionParser     The parser enforcing the body size limit on autosaves.
+     * @param dbPermits            The permits limiting concurrent database work, shared with the other endpoints.
+     * @param permitTimeoutMillis  How long a submit waits for a permit.
+     */
+    public ExamSessionHandler(ExamSessionService sessionService, SubmissionParser submissionParser,
+                              Semaphore dbPermits, long permitTimeoutMillis) {
+        this.sessionService = sessionService;
+        this.submissionParser = submissionParser;
+        this.submitHandler = new ConcurrencyLimitHandler(this::handleSubmit, dbPermits, permitTimeoutMillis);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        AuthenticatedUser principal = JwtAuthHandler.getPrincipal(exchange);
+        if (Objects.isNull(principal)) {
+            ResponseUtil.sendResponse(exchange, 401, "Authentication failed.");
+            return;
+        }
+
+        // "/sessions/{id}", "/sessions/{id}/submit" or "/sessions/{id}/answers/{questionId}"
+        String[] pathParts = exchange.getRequestURI().getPath().split("/");
+        String method = exchange.getRequestMethod();
+        if (pathParts.length == 3) {
+            requireMethod(exchange, "GET", method, () -> handleGet(exchange, principal, pathParts[2]));
+        } else if (pathParts.length == 4 && "submit".equals(pathParts[3])) {
+            requireMethod(exchange, "POST", method, () -> submitHandler.handle(exchange));
+        } else if (pathParts.length == 5 && "answers".equals(pathParts[3])) {
+            requireMethod(exchange, "PUT", method, () -> handleSaveAnswer(exchange, principal, pathParts[2], pathParts[4]));
+        } else {
+            ResponseUtil.sendResponse(exchange, 404, "Not Found");
+        }
+    }
+
+    /**
+     * Handles {@code POST /exams/{examId}/start}.
+     *
+     * @param exchange     The exchange, already authenticated.
+     * @param examIdString The exam ID from the path.
+     */
+    public void handleStart(HttpExchange exchange, String examIdString) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            ResponseUtil.sendResponse(exchange, 405, "Method Not Allowed");
+            return;
+        }
+        AuthenticatedUser principal = JwtAuthHandler.getPrincipal(exchange);
+        if (Objects.isNull(principal)) {
+            ResponseUtil.sendResponse(exchange, 401, "Authentication failed.");
+            return;
+        }
+        try {
+            ExamSessionDTO session = sessionService.startSession(principal, Integer.parseInt(examIdString));
+            if (Objects.isNull(session)) {
+                ResponseUtil.sendResponse(exchange, 404, "Exam Not Found");
+                return;
+            }
+            sendSession(exchange, session);
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid exam ID format: " + examIdString);
+            ResponseUtil.sendResponse(exchange, 400, "Invalid Exam ID Format");
+        } catch (ExamService.ServerBusyException e) {
+            ConcurrencyLimitHandler.sendBusy(exchange);
+        } catch (Exception e) {
+            LOGGER.severe("Error starting exam session: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
+        }
+    }
+
+    private void handleGet(HttpExchange exchange, AuthenticatedUser principal, String sessionId) throws IOException {
+        try {
+            ExamSessionDTO session = sessionService.getSession(principal, sessionId);
+            if (Objects.isNull(session)) {
+                ResponseUtil.sendResponse(exchange, 404, MSG_SESSION_NOT_FOUND);
+                return;
+            }
+            sendSession(exchange, session);
+        } catch (ExamService.ServerBusyException e) {
+            ConcurrencyLimitHandler.sendBusy(exchange);
+        } catch (Exception e) {
+            LOGGER.severe("Error getting exam session: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
+        }
+    }
+
+    private void handleSaveAnswer(HttpExchange exchange, AuthenticatedUser principal, String sessionId,
+                                  String questionIdString) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            UserAnswerSubmissionDTO answer = submissionParser.parseAnswer(body, Integer.parseInt(questionIdString));
+            if (!sessionService.saveAnswer(principal, sessionId, answer)) {
+                ResponseUtil.sendResponse(exchange, 404, MSG_SESSION_NOT_FOUND);
+                return;
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        } catch (NumberFormatException e) {
+            ResponseUtil.sendResponse(exchange, 400, "Invalid Question ID Format");
+        } catch (SubmissionParser.PayloadTooLargeException e) {
+            LOGGER.warning("Answer rejected: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 413, "Payload Too Large");
+        } catch (ExamSessionService.SessionConflictException e) {
+            ResponseUtil.sendResponse(exchange, 409, "Conflict - " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            ResponseUtil.sendResponse(exchange, 400, "Bad Request - " + e.getMessage());
+        } catch (JsonProcessingException e) {
+            ResponseUtil.sendResponse(exchange, 400, "Bad Request - Malformed JSON.");
+        } catch (ExamService.ServerBusyException e) {
+            ConcurrencyLimitHandler.sendBusy(exchange);
+        } catch (Exception e) {
+            LOGGER.severe("Error saving answer: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
+        }
+    }
+
+    private void handleSubmit(HttpExchange exchange) throws IOException {
+        AuthenticatedUser principal = JwtAuthHandler.getPrincipal(exchange);
+        String sessionId = exchange.getRequestURI().getPath().split("/")[2];
+        try {
+            String jsonResponse = sessionService.submitSession(principal, sessionId);
+            if (Objects.isNull(jsonResponse)) {
+                ResponseUtil.sendResponse(exchange, 404, MSG_SESSION_NOT_FOUND);
+                return;
+            }
+            ResponseUtil.sendResponse(exchange, 200, jsonResponse);
+        } catch (ExamSessionService.SessionConflictException e) {
+            ResponseUtil.sendResponse(exchange, 409, "Conflict - " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            LOGGER.warning("Session submission validation failed: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 400, "Bad Request - " + e.getMessage());
+        } catch (ExamService.ServerBusyException | WriteBehindSubmissionWriter.QueueFullException e) {
+            ConcurrencyLimitHandler.sendBusy(exchange);
+        } catch (Exception e) {
+            LOGGER.severe("Internal Server Error: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 500, "Internal Server Error.");
+        }
+    }
+
+    private static void sendSession(HttpExchange exchange, ExamSessionDTO session) throws IOException {
+        // Sessions carry every saved answer, so they are streamed rather than serialized to an array first.
+        ResponseUtil.sendJson(exchange, 200, JsonUtil.getExamSessionWriter(), session);
+    }
+
+    private static void requireMethod(HttpExchange exchange, String expected, String actual, Route route)
+            throws IOException {
+        if (expected.equals(actual)) {
+            route.handle();
+        } else {
+            ResponseUtil.sendResponse(exchange, 405, "Method Not Allowed");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        void handle() throws IOException;
+    }
+}
@@ -1,26 +1,63 @@
 package com.mobildev.exam.handlers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobildev.exam.cache.CachedResponse;
+import com.mobildev.exam.cache.LruCache;
 import com.mobildev.exam.dto.ExamListResponseDTO;
 import com.mobildev.exam.dto.ExamResponseDTO;
 import com.mobildev.exam.service.ExamService;
+import com.mobildev.exam.util.JsonUtil;
 import com.mobildev.exam.util.ResponseUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
+import java.util.Objects;
 import java.util.logging.Logger;
 
+/**
+ * Serves {@code GET /exams} and {@code GET /exams/{id}}, and passes {@code POST /exams/{id}/start} to the session handler.
+ * Exams are served from the caches of {@link ExamService}, which takes a database permit only to load an exam
+ * that is not cached, so cached reads never wait for a permit.
+ */
 public class ExamsHandler implements HttpHandler {
     private static final Logger LOGGER = Logger.getLogger(ExamsHandler.class.getName());
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final int DEFAULT_RESPONSE_CACHE_CAPACITY = 256;
+
     private final ExamService examService;
+    // Null when exam sessions are disabled.
+    private final ExamSessionHandler sessionHandler;
+    // Serialized exam payloads keyed by exam ID. An entry is only reused while ExamService
+    // keeps returning the same DTO instance, so exam invalidation also invalidates the payload.
+    private final LruCache<Integer, CachedResponse> responseCache;
+    // The serialized exam list, reused while ExamService returns the same list instance.
+    private volatile CachedResponse examListCachedResponse;
 
     public ExamsHandler(ExamService examService) {
+        this(examService, DEFAULT_RESPONSE_CACHE_CAPACITY);
+    }
+
+    public ExamsHandler(ExamService examService, int responseCacheCapacity) {
+        this(examService, responseCacheCapacity, null);
+    }
+
+    /**
+     * @param examService           The service reading the exams.
+     * @param responseCacheCapacity The number of serialized exams kept.
+     * @param sessionHandler        The handler of {@code POST /exams/{id}/start}, or null if exam sessions are disabled.
+     */
+    public ExamsHandler(ExamService examService, int responseCacheCapacity, ExamSessionHandler sessionHandler) {
         this.examService = examService;
+        this.responseCache = new LruCache<>(responseCacheCapacity);
+        this.sessionHandler = sessionHandler;
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
+        String[] startParts = exchange.getRequestURI().getPath().split("/");
+        if (Objects.nonNull(sessionHandler) && startParts.length == 4 && "start".equals(startParts[3])) {
+            sessionHandler.handleStart(exchange, startParts[2]);
+            return;
+        }
+
         if (!"GET".equals(exchange.getRequestMethod())) {
             ResponseUtil.sendResponse(exchange, 405, "Method Not Allowed");
             return;
@@ -47,8 +84,16 @@ public class ExamsHandler implements HttpHandler {
     private void handleGetAllExams(HttpExchange exchange) throws IOException {
         try {
             ExamListResponseDTO examListResponse = examService.getAllExams();
-            String jsonResponse = objectMapper.writeValueAsString(examListResponse);
-            ResponseUtil.sendResponse(exchange, 200, jsonResponse);
+            CachedResponse response = examListCachedResponse;
+            if (response == null || !response.isFor(examListResponse)) {
+                // A reloaded list with unchanged content keeps the earlier Last-Modified time.
+                response = CachedResponse.of(examListResponse,
+                        JsonUtil.getExamListResponseWriter().writeValueAsBytes(examListResponse), response);
+                examListCachedResponse = response;
+            }
+            ResponseUtil.sendCachedResponse(exchange, 200, response);
+        } catch (ExamService.ServerBusyException e) {
+            ConcurrencyLimitHandler.sendBusy(exchange);
         } catch (Exception e) {
             LOGGER.severe("Error getting all exams: " + e.getMessage());
             ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
@@ -61,17 +106,37 @@ public class ExamsHandler implements HttpHandler {
             ExamResponseDTO examDetail = examService.getExamResponseById(examId);
 
             if (examDetail != null) {
-                String jsonResponse = objectMapper.writeValueAsString(examDetail);
-                ResponseUtil.sendResponse(exchange, 200, jsonResponse);
+                ResponseUtil.sendCachedResponse(exchange, 200, getCachedResponse(examId, examDetail));
             } else {
                 ResponseUtil.sendResponse(exchange, 404, "Exam Not Found");
             }
         } catch (NumberFormatException e) {
             LOGGER.warning("Invalid exam ID format: " + examIdString);
             ResponseUtil.sendResponse(exchange, 400, "Invalid Exam ID Format");
+        } catch (ExamService.ServerBusyException e) {
+            ConcurrencyLimitHandler.sendBusy(exchange);
         } catch (Exception e) {
             LOGGER.severe("Error getting exam details: " + e.getMessage());
             ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
         }
     }
+
+    /**
+     * Returns the encoded payload for an exam, serializing it only if the exam changed since it was cached.
+     */
+    private CachedResponse getCachedResponse(int examId, ExamResponseDTO examDetail) throws IOException {
+        CachedResponse cached = responseCache.getIfPresent(examId);
+        if (cached == null || !cached.isFor(examDetail)) {
+            cached = CachedResponse.of(examDetail, JsonUtil.getExamResponseWriter().writeValueAsBytes(examDetail), cached);
+            responseCache.put(examId, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Exposes the serialized response cache for monitoring its hit, miss and eviction counters.
+     */
+    public LruCache<Integer, CachedResponse> getResponseCache() {
+        return responseCache;
+    }
 }
\ No newline at end of file
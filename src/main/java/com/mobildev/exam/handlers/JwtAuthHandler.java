@@ -1,12 +1,13 @@
 package com.mobildev.exam.handlers;
 
-import com.mobildev.exam.util.JwtUtil;
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
 import com.mobildev.exam.util.ResponseUtil;
+import com.mobildev.exam.util.TokenVerifier;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -15,11 +16,26 @@ import java.util.logging.Logger;
 
 public class JwtAuthHandler implements HttpHandler {
 
+    // Exchange attribute holding the AuthenticatedUser of a verified request.
+    public static final String PRINCIPAL_ATTRIBUTE = "principal";
+
     private static final Logger LOGGER = Logger.getLogger(JwtAuthHandler.class.getName());
+    private static final TokenVerifier DEFAULT_VERIFIER = new TokenVerifier();
+
     private final HttpHandler nextHandler;
+    private final TokenVerifier tokenVerifier;
 
     public JwtAuthHandler(HttpHandler nextHandler) {
+        this(nextHandler, DEFAULT_VERIFIER);
+    }
+
+    /**
+     * @param nextHandler   The handler invoked for authenticated requests.
+     * @param tokenVerifier The verifier, shared between handlers so a session is verified once.
+     */
+    public JwtAuthHandler(HttpHandler nextHandler, TokenVerifier tokenVerifier) {
         this.nextHandler = nextHandler;
+        this.tokenVerifier = tokenVerifier;
     }
 
     @Override
@@ -33,22 +49,35 @@ public class JwtAuthHandler implements HttpHandler {
 
         String token = authHeader.substring("Bearer ".length()).trim();
 
-        try {
-            Jws<Claims> claims = JwtUtil.parseToken(token);
-
-            String username = claims.getBody().getSubject();
-            exchange.setAttribute("username", username);
-
-            nextHandler.handle(exchange);
+        AuthenticatedUser principal;
+        try (Span span = Tracer.span("auth.verify-token")) {
+            principal = tokenVerifier.verify(token);
         } catch (ExpiredJwtException e) {
             LOGGER.warning("Token has expired. " + e.getMessage());
             ResponseUtil.sendResponse(exchange, 401, "Token has expired.");
+            return;
         } catch (UnsupportedJwtException | MalformedJwtException | SignatureException | IllegalArgumentException e) {
             LOGGER.warning("Invalid token. " + e.getMessage());
             ResponseUtil.sendResponse(exchange, 401, "Invalid token.");
+            return;
         } catch (Exception e) {
             LOGGER.severe("Internal Server Error during token validation. " + e.getMessage());
             ResponseUtil.sendResponse(exchange, 500, "Internal Server Error during token validation.");
+            return;
         }
+
+        // Errors of the next handler are its own and must not be reported as authentication failures.
+        exchange.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        nextHandler.handle(exchange);
+    }
+
+    /**
+     * Returns the authenticated caller of a request that passed through this handler.
+     *
+     * @param exchange The current exchange.
+     * @return The principal, or null if the request was not authenticated.
+     */
+    public static AuthenticatedUser getPrincipal(HttpExchange exchange) {
+        return (AuthenticatedUser) exchange.getAttribute(PRINCIPAL_ATTRIBUTE);
     }
 }
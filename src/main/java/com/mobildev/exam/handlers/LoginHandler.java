@@ -1,27 +1,65 @@
 package com.mobildev.exam.handlers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobildev.exam.config.AppConfig;
+import com.mobildev.exam.db.DataSourceProvider;
 import com.mobildev.exam.db.DatabaseManager;
+import com.mobildev.exam.model.AuthenticatedUser;
 import com.mobildev.exam.model.User;
+import com.mobildev.exam.service.AuthService;
+import com.mobildev.exam.util.JsonUtil;
 import com.mobildev.exam.util.JwtUtil;
+import com.mobildev.exam.util.PasswordHasher;
 import com.mobildev.exam.util.ResponseUtil;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Logger;
 
+/**
+ * Exchanges HTTP Basic credentials for a JWT.
+ * The password check runs on the {@link AuthService} hashing pool and the response is sent from
+ * there, so the HTTP worker thread is released as soon as the user row has been read.
+ */
 public class LoginHandler implements HttpHandler {
 
     private static final Logger LOGGER = Logger.getLogger(LoginHandler.class.getName());
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AuthService authService;
+    private final Set<String> adminUsernames;
+
+    public LoginHandler() {
+        this(AppConfig.getInstance().getAdminUsernames());
+    }
+
+    /**
+     * @param adminUsernames The users granted the admin role in addition to the candidate role.
+     */
+    public LoginHandler(Set<String> adminUsernames) {
+        this(createAuthService(AppConfig.getInstance(), DatabaseManager.getDefaultProvider()), adminUsernames);
+    }
+
+    /**
+     * @param authService    The credential verifier.
+     * @param adminUsernames The users granted the admin role in addition to the candidate role.
+     */
+    public LoginHandler(AuthService authService, Set<String> adminUsernames) {
+        this.authService = authService;
+        this.adminUsernames = Set.copyOf(adminUsernames);
+    }
+
+    /**
+     * Creates an AuthService with the configured work factor, pool size and queue capacity.
+     */
+    public static AuthService createAuthService(AppConfig config, DataSourceProvider dataSourceProvider) {
+        return new AuthService(dataSourceProvider, new PasswordHasher(config.getPasswordIterations()),
+                config.getPasswordHashThreads(), config.getPasswordHashQueueCapacity());
+    }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
@@ -45,47 +83,51 @@ public class LoginHandler implements HttpHandler {
             String username = parts[0];
             String password = parts[1];
 
-            User user = authenticate(username, password);
+            try {
+                authService.authenticateAsync(username, password)
+                        .whenComplete((user, error) -> completeLogin(exchange, user, error));
+            } catch (RejectedExecutionException e) {
+                LOGGER.warning("Rejecting login: password hashing queue is full.");
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                ResponseUtil.sendResponse(exchange, 503, "Server is busy. Please retry.");
+            }
+        } catch (Exception e) {
+            LOGGER.severe("Login handler hatası: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
+        }
+    }
 
-            if (user != null) {
+    // Runs on the hashing thread once the password has been checked.
+    private void completeLogin(HttpExchange exchange, User user, Throwable error) {
+        try {
+            if (Objects.nonNull(error)) {
+                LOGGER.severe("Login handler hatası: " + error.getMessage());
+                ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
+            } else if (user != null) {
                 // success login
                 // create JWT token
-                String token = JwtUtil.generateToken(user.getUsername());
+                String token = JwtUtil.generateToken(new AuthenticatedUser(user.getId(), user.getUsername(), rolesOf(user)));
 
                 // create JSON
                 Map<String, String> responseMap = new HashMap<>();
                 responseMap.put("message", "Login successful!");
                 responseMap.put("token", token);
 
-                String response = objectMapper.writeValueAsString(responseMap);
+                String response = JsonUtil.getMessageWriter().writeValueAsString(responseMap);
 
                 ResponseUtil.sendResponse(exchange, 200, response);
             } else {
                 ResponseUtil.sendResponse(exchange, 401, "Invalid credentials");
             }
-        } catch (Exception e) {
-            LOGGER.severe("Login handler hatası: " + e.getMessage());
-            ResponseUtil.sendResponse(exchange, 500, "Internal Server Error");
+        } catch (IOException e) {
+            LOGGER.warning("Could not send login response: " + e.getMessage());
         }
     }
 
-    private User authenticate(String username, String password) throws SQLException {
-        String sql = "SELECT id, username FROM users WHERE username = ? AND password = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    User user = new User();
-                    user.setId(rs.getInt("id"));
-                    user.setUsername(rs.getString("username"));
-                    return user;
-                }
-            }
+    private Set<String> rolesOf(User user) {
+        if (adminUsernames.contains(user.getUsername())) {
+            return Set.of(AuthenticatedUser.ROLE_CANDIDATE, AuthenticatedUser.ROLE_ADMIN);
         }
-        return null;
+        return Set.of(AuthenticatedUser.ROLE_CANDIDATE);
     }
 }
@@ -0,0 +1,37 @@
+package com.mobildev.exam.handlers;
+
+import com.mobildev.exam.metrics.MetricsRegistry;
+import com.mobildev.exam.metrics.PrometheusWriter;
+import com.mobildev.exam.util.ResponseUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the application metrics in the Prometheus text format for scraping.
+ */
+public class MetricsHandler implements HttpHandler {
+
+    private final MetricsRegistry metrics;
+
+    public MetricsHandler(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            ResponseUtil.sendResponse(exchange, 405, "Method Not Allowed");
+            return;
+        }
+
+        byte[] body = metrics.scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", PrometheusWriter.CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}
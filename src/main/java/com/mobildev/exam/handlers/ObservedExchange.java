@@ -0,0 +1,160 @@
+package com.mobildev.exam.handlers;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Delegates to an exchange and reports its status once the response is complete: when the exchange or
+ * the response body is closed, or when headers without a body are sent. This also covers responses
+ * completed on another thread after the handler returned.
+ */
+class ObservedExchange extends HttpExchange {
+
+    private final HttpExchange delegate;
+    private final IntConsumer onComplete;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private OutputStream responseBody;
+
+    /**
+     * @param delegate   The exchange of the server.
+     * @param onComplete Receives the response status exactly once.
+     */
+    ObservedExchange(HttpExchange delegate, IntConsumer onComplete) {
+        this.delegate = delegate;
+        this.onComplete = onComplete;
+    }
+
+    /**
+     * Reports the response as complete with the given status unless it was already reported.
+     */
+    void complete(int status) {
+        if (completed.compareAndSet(false, true)) {
+            onComplete.accept(status);
+        }
+    }
+
+    boolean isCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public void sendResponseHeaders(int rCode, long responseLength) throws IOException {
+        delegate.sendResponseHeaders(rCode, responseLength);
+        // A length of -1 means no body follows, so the response is complete.
+        if (responseLength == -1) {
+            complete(rCode);
+        }
+    }
+
+    @Override
+    public synchronized OutputStream getResponseBody() {
+        if (Objects.isNull(responseBody)) {
+            responseBody = new FilterOutputStream(delegate.getResponseBody()) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        complete(delegate.getResponseCode());
+                    }
+                }
+            };
+        }
+        return responseBody;
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            complete(delegate.getResponseCode());
+        }
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return delegate.getRequestHeaders();
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return delegate.getResponseHeaders();
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return delegate.getRequestURI();
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return delegate.getRequestMethod();
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return delegate.getHttpContext();
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return delegate.getRequestBody();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return delegate.getRemoteAddress();
+    }
+
+    @Override
+    public int getResponseCode() {
+        return delegate.getResponseCode();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return delegate.getLocalAddress();
+    }
+
+    @Override
+    public String getProtocol() {
+        return delegate.getProtocol();
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return delegate.getAttribute(name);
+    }
+
+    @Override
+    public void setAttribute(String name, Object value) {
+        delegate.setAttribute(name, value);
+    }
+
+    @Override
+    public void setStreams(InputStream i, OutputStream o) {
+        delegate.setStreams(i, o);
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return delegate.getPrincipal();
+    }
+}
@@ -1,25 +1,72 @@
 package com.mobildev.exam.handlers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.mobildev.exam.dto.ExamSubmissionDTO;
+import com.mobildev.exam.model.AuthenticatedUser;
 import com.mobildev.exam.service.SubmitService;
+import com.mobildev.exam.submission.SubmissionDeduplicator;
+import com.mobildev.exam.submission.SubmissionParser;
+import com.mobildev.exam.submission.WriteBehindSubmissionWriter;
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
 import com.mobildev.exam.util.ResponseUtil;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Logger;
 
+/**
+ * Accepts exam submissions. A client may send an {@code Idempotency-Key} header to retry a submission
+ * safely: a retry with the same key and the same answers receives the original result, marked with
+ * {@code Idempotent-Replayed: true}, and reusing a key for different answers is rejected with 422.
+ * When database permits are given, a permit is only held while a new submission is processed,
+ * so parsing and replays never wait for one.
+ */
 public class SubmitHandler implements HttpHandler {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
     private static final Logger LOGGER = Logger.getLogger(SubmitHandler.class.getName());
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String MSG_PAYLOAD_TOO_LARGE = "Payload Too Large";
+    private final SubmissionParser submissionParser;
     private final SubmitService submitService;
+    // Null when replays are only detected by the database.
+    private final SubmissionDeduplicator deduplicator;
+    // Null when the caller limits the concurrency instead.
+    private final Semaphore dbPermits;
+    private final long permitTimeoutMillis;
 
     public SubmitHandler(SubmitService submitService) {
+        this(submitService, new SubmissionParser());
+    }
+
+    /**
+     * @param submitService    The service scoring and saving submissions.
+     * @param submissionParser The parser enforcing the body size and answer count limits.
+     */
+    public SubmitHandler(SubmitService submitService, SubmissionParser submissionParser) {
+        this(submitService, submissionParser, null, null, 0);
+    }
+
+    /**
+     * @param submitService       The service scoring and saving submissions.
+     * @param submissionParser    The parser enforcing the body size and answer count limits.
+     * @param deduplicator        The table of recent results by idempotency key, or null.
+     * @param dbPermits           The permits limiting concurrent database work, or null if the caller limits it.
+     * @param permitTimeoutMillis How long a new submission waits for a permit.
+     */
+    public SubmitHandler(SubmitService submitService, SubmissionParser submissionParser,
+                         SubmissionDeduplicator deduplicator, Semaphore dbPermits, long permitTimeoutMillis) {
         this.submitService = submitService;
+        this.submissionParser = submissionParser;
+        this.deduplicator = deduplicator;
+        this.dbPermits = dbPermits;
+        this.permitTimeoutMillis = permitTimeoutMillis;
     }
 
     @Override
@@ -29,32 +76,115 @@ public class SubmitHandler implements HttpHandler {
             return;
         }
 
-        // Get username from the JWT authentication handler
-        String username = (String) exchange.getAttribute("username");
-        if (username == null) {
+        // Get the authenticated user from the JWT authentication handler
+        AuthenticatedUser principal = JwtAuthHandler.getPrincipal(exchange);
+        if (principal == null) {
             ResponseUtil.sendResponse(exchange, 401, "Authentication failed.");
             return;
         }
 
-        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+        // Reject a declared oversized body before reading any of it
+        if (getContentLength(exchange) > submissionParser.getMaxBodyBytes()) {
+            ResponseUtil.sendResponse(exchange, 413, MSG_PAYLOAD_TOO_LARGE);
+            return;
+        }
+
+        String idempotencyKey = getHeader(exchange, IDEMPOTENCY_KEY_HEADER);
+        if (Objects.nonNull(idempotencyKey) && !SubmissionDeduplicator.isValidKey(idempotencyKey)) {
+            ResponseUtil.sendResponse(exchange, 400, "Bad Request - The " + IDEMPOTENCY_KEY_HEADER + " header must be 1 to "
+                    + SubmissionDeduplicator.MAX_KEY_LENGTH + " visible ASCII characters.");
+            return;
+        }
+
+        try (InputStream body = exchange.getRequestBody()) {
 
-            // Convert JSON request body to DTO
-            ExamSubmissionDTO submission = objectMapper.readValue(reader, ExamSubmissionDTO.class);
+            // Parse and validate the JSON request body as it streams in
+            ExamSubmissionDTO submission;
+            try (Span span = Tracer.span("submit.parse")) {
+                submission = submissionParser.parse(body);
+            }
             int examId = submission.getExamId();
 
-            // Delegate the core logic to the service class
-            String jsonResponse = submitService.processExamSubmission(username, examId, submission);
+            // Delegate the core logic to the service class, unless this is a retry of a known submission
+            String jsonResponse;
+            if (Objects.isNull(idempotencyKey) || Objects.isNull(deduplicator)) {
+                jsonResponse = submit(principal, examId, submission, idempotencyKey);
+            } else {
+                SubmissionDeduplicator.Outcome outcome = deduplicator.submit(principal.getUserId(), idempotencyKey,
+                        SubmissionDeduplicator.fingerprint(examId, submission.getAnswers()),
+                        () -> submit(principal, examId, submission, idempotencyKey));
+                if (outcome.isReplayed()) {
+                    exchange.getResponseHeaders().set(IDEMPOTENT_REPLAYED_HEADER, "true");
+                }
+                jsonResponse = outcome.getResultJson();
+            }
 
             // Send the successful response from the service
             ResponseUtil.sendResponse(exchange, 200, jsonResponse);
 
+        } catch (SubmissionParser.PayloadTooLargeException e) {
+            LOGGER.warning("Submission rejected: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 413, MSG_PAYLOAD_TOO_LARGE);
+        } catch (ServerBusyException | WriteBehindSubmissionWriter.QueueFullException e) {
+            ConcurrencyLimitHandler.sendBusy(exchange);
+        } catch (SubmissionDeduplicator.KeyReuseException e) {
+            LOGGER.warning("Submission rejected: " + e.getMessage());
+            ResponseUtil.sendResponse(exchange, 422, "Unprocessable Entity - " + e.getMessage());
         } catch (IllegalArgumentException e) {
             // Handle validation errors from the service
             LOGGER.warning("Submission validation failed: " + e.getMessage());
             ResponseUtil.sendResponse(exchange, 400, "Bad Request - " + e.getMessage());
+        } catch (JsonProcessingException e) {
+            // The parser's message echoes parts of the body, so it is only logged.
+            LOGGER.warning("Malformed submission: " + e.getOriginalMessage());
+            ResponseUtil.sendResponse(exchange, 400, "Bad Request - Malformed JSON.");
         } catch (Exception e) {
             LOGGER.severe("Internal Server Error: " + e.getMessage());
             ResponseUtil.sendResponse(exchange, 500, "Internal Server Error.");
         }
     }
+
+    /**
+     * Scores and saves a new submission, holding a database permit if permits are configured.
+     */
+    private String submit(AuthenticatedUser principal, int examId, ExamSubmissionDTO submission, String idempotencyKey)
+            throws SQLException, IOException {
+        if (Objects.nonNull(dbPermits) && !ConcurrencyLimitHandler.tryAcquire(dbPermits, permitTimeoutMillis)) {
+            throw new ServerBusyException();
+        }
+        try {
+            return Objects.isNull(idempotencyKey)
+                    ? submitService.processExamSubmission(principal, examId, submission)
+                    : submitService.processExamSubmission(principal, examId, submission, idempotencyKey);
+        } finally {
+            if (Objects.nonNull(dbPermits)) {
+                dbPermits.release();
+            }
+        }
+    }
+
+    private static String getHeader(HttpExchange exchange, String name) {
+        Headers headers = exchange.getRequestHeaders();
+        return Objects.nonNull(headers) ? headers.getFirst(name) : null;
+    }
+
+    // Returns the declared Content-Length, or -1 if it is absent or invalid (e.g. chunked bodies).
+    private static long getContentLength(HttpExchange exchange) {
+        String value = getHeader(exchange, "Content-Length");
+        if (Objects.isNull(value)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Thrown when a new submission gets no database permit in time; answered with 503.
+    private static final class ServerBusyException extends RuntimeException {
+        private ServerBusyException() {
+            super(null, null, false, false);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package com.mobildev.exam.handlers;
+
+import com.mobildev.exam.metrics.MetricsRegistry;
+import com.mobildev.exam.metrics.RouteMetrics;
+import com.mobildev.exam.tracing.Trace;
+import com.mobildev.exam.tracing.TraceCollector;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Records the latency and status of every request to the wrapped handler.
+ * Requests to the context path itself are labelled with that path, requests below it with
+ * {@code <path>/{id}}, so e.g. the exam list and single exams are measured separately.
+ * The time runs until the response is complete, even if it is completed asynchronously.
+ * With a trace collector, every request is also traced: its ID is taken from the {@code X-Request-Id}
+ * header or generated, returned in the same header and stored in the {@link #REQUEST_ID_ATTRIBUTE} attribute.
+ */
+public class TimedHandler implements HttpHandler {
+
+    // Exchange attribute holding the request ID of a traced request.
+    public static final String REQUEST_ID_ATTRIBUTE = "requestId";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    private static final int STATUS_FAILED = 500;
+
+    private final HttpHandler nextHandler;
+    private final String contextPath;
+    private final RouteMetrics contextRoute;
+    private final RouteMetrics itemRoute;
+    // Null when requests are not traced.
+    private final TraceCollector traceCollector;
+
+    /**
+     * @param nextHandler The handler to measure, usually the full chain of a context.
+     * @param contextPath The path the handler is registered at.
+     * @param metrics     The registry receiving the measurements.
+     */
+    public TimedHandler(HttpHandler nextHandler, String contextPath, MetricsRegistry metrics) {
+        this(nextHandler, contextPath, metrics, null);
+    }
+
+    /**
+     * @param nextHandler    The handler to measure, usually the full chain of a context.
+     * @param contextPath    The path the handler is registered at.
+     * @param metrics        The registry receiving the measurements.
+     * @param traceCollector The collector of the request traces, or null to not trace.
+     */
+    public TimedHandler(HttpHandler nextHandler, String contextPath, MetricsRegistry metrics,
+                        TraceCollector traceCollector) {
+        this.nextHandler = nextHandler;
+        this.contextPath = contextPath;
+        this.contextRoute = metrics.route(contextPath);
+        this.itemRoute = metrics.route(contextPath + "/{id}");
+        this.traceCollector = traceCollector;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        RouteMetrics route = contextPath.equals(exchange.getRequestURI().getPath()) ? contextRoute : itemRoute;
+        Trace trace = null;
+        if (Objects.nonNull(traceCollector)) {
+            trace = traceCollector.begin(exchange.getRequestHeaders().getFirst(REQUEST_ID_HEADER),
+                    exchange.getRequestMethod(), route.getRoute());
+            exchange.setAttribute(REQUEST_ID_ATTRIBUTE, trace.getRequestId());
+            exchange.getResponseHeaders().set(REQUEST_ID_HEADER, trace.getRequestId());
+        }
+        Trace observedTrace = trace;
+        ObservedExchange observed = new ObservedExchange(exchange, status -> {
+            route.record(status, System.nanoTime() - start);
+            if (Objects.nonNull(observedTrace)) {
+                traceCollector.finish(observedTrace, status);
+            }
+        });
+        try {
+            nextHandler.handle(observed);
+        } catch (IOException | RuntimeException e) {
+            // The server closes the connection without a response.
+            observed.complete(STATUS_FAILED);
+            throw e;
+        } finally {
+            if (Objects.nonNull(trace)) {
+                traceCollector.detach();
+            }
+        }
+    }
+}
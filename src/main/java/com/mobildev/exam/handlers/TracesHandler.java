@@ -0,0 +1,49 @@
+package com.mobildev.exam.handlers;
+
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.tracing.TraceCollector;
+import com.mobildev.exam.tracing.TraceReport;
+import com.mobildev.exam.util.ResponseUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Serves the slowest recent requests with their per-stage timings to administrators.
+ * {@code GET} lists them slowest first, {@code DELETE} forgets them. Must be wrapped by a {@link JwtAuthHandler}.
+ */
+public class TracesHandler implements HttpHandler {
+
+    private final TraceCollector traceCollector;
+
+    public TracesHandler(TraceCollector traceCollector) {
+        this.traceCollector = traceCollector;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        AuthenticatedUser principal = JwtAuthHandler.getPrincipal(exchange);
+        if (Objects.isNull(principal)) {
+            ResponseUtil.sendResponse(exchange, 401, "Authentication failed.");
+            return;
+        }
+        if (!principal.hasRole(AuthenticatedUser.ROLE_ADMIN)) {
+            ResponseUtil.sendResponse(exchange, 403, "Forbidden");
+            return;
+        }
+
+        switch (exchange.getRequestMethod()) {
+            case "GET":
+                ResponseUtil.sendResponse(exchange, 200, TraceReport.toJson(traceCollector.getSlowest()));
+                break;
+            case "DELETE":
+                traceCollector.clear();
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+                break;
+            default:
+                ResponseUtil.sendResponse(exchange, 405, "Method Not Allowed");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.mobildev.exam.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Hands log records to a delegate handler on a background thread, so logging threads never wait for
+ * the console or a file. Records are buffered in a bounded ring buffer; when it is full, records below
+ * {@link Level#WARNING} are dropped and counted, while warnings and errors wait for space so they are never lost.
+ * The number of dropped records is logged once the writer catches up.
+ * <p>
+ * The delegate formats the records on the background thread, so its formatter must not rely on the
+ * inferred source class and method; {@link LogFormatter} prints the logger name instead.
+ */
+public class AsyncLogHandler extends Handler {
+    private static final int DRAIN_BATCH_SIZE = 256;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final Handler delegate;
+    private final BlockingQueue<LogRecord> queue;
+    private final LongAdder droppedCount = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+    private long reportedDropped;
+
+    /**
+     * @param delegate      The handler writing the records; this handler closes it.
+     * @param queueCapacity The number of records buffered for the writer thread.
+     */
+    public AsyncLogHandler(Handler delegate, int queueCapacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::drainLoop, "async-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        if (closed) {
+            delegate.publish(record);
+            return;
+        }
+        if (!queue.offer(record)) {
+            if (record.getLevel().intValue() < Level.WARNING.intValue()) {
+                droppedCount.increment();
+                return;
+            }
+            try {
+                queue.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCount.increment();
+                return;
+            }
+        }
+        // Closed while the record was queued: the writer thread and close() may both have finished already.
+        if (closed) {
+            drainQueue();
+        }
+    }
+
+    // Writes the queued records on the calling thread; each record is taken from the queue only once.
+    private void drainQueue() {
+        LogRecord record;
+        while (Objects.nonNull(record = queue.poll())) {
+            delegate.publish(record);
+        }
+    }
+
+    private void drainLoop() {
+        List<LogRecord> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                LogRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (Objects.isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // close() interrupts only after the queue was given time to drain
+                break;
+            } catch (RuntimeException e) {
+                reportError("Could not write log records.", e, ErrorManager.WRITE_FAILURE);
+                batch.clear();
+            }
+        }
+        reportDropped();
+        delegate.flush();
+    }
+
+    private void write(List<LogRecord> batch) {
+        for (LogRecord record : batch) {
+            delegate.publish(record);
+        }
+        reportDropped();
+        delegate.flush();
+    }
+
+    private void reportDropped() {
+        long dropped = droppedCount.sum();
+        if (dropped > reportedDropped) {
+            LogRecord report = new LogRecord(Level.WARNING,
+                    (dropped - reportedDropped) + " log records were dropped because the log queue was full.");
+            report.setLoggerName(AsyncLogHandler.class.getName());
+            delegate.publish(report);
+            reportedDropped = dropped;
+        }
+    }
+
+    /**
+     * @return The number of log records dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return The number of log records waiting for the writer thread.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * Stops accepting records, waits for the queued ones to be written and closes the delegate.
+     * Records published afterwards are passed straight to the delegate, and records a publishing thread
+     * queued while the handler was closing are written by that thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.interrupt();
+        // Records queued after the writer thread's last check, or left behind by a timeout
+        drainQueue();
+        delegate.flush();
+        delegate.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.mobildev.exam.logging;
+
+import com.mobildev.exam.config.AppConfig;
+import java.util.Locale;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.Logger;
+
+/**
+ * Replaces the default console logging with the single-line {@link LogFormatter},
+ * written through an {@link AsyncLogHandler} unless {@code exam.log.async} is false.
+ */
+public final class LogConfigurer {
+
+    private LogConfigurer() {
+    }
+
+    /**
+     * Configures the root logger. Meant to be called once at startup, before the first request.
+     *
+     * @param config The configuration.
+     * @return The installed handler.
+     */
+    public static Handler configure(AppConfig config) {
+        Level level = Level.parse(config.getLogLevel().toUpperCase(Locale.ROOT));
+        Logger root = LogManager.getLogManager().getLogger("");
+        for (Handler handler : root.getHandlers()) {
+            root.removeHandler(handler);
+            handler.close();
+        }
+
+        ConsoleHandler console = new ConsoleHandler();
+        console.setFormatter(new LogFormatter());
+        console.setLevel(Level.ALL);
+        Handler handler = config.isLogAsyncEnabled()
+                ? new AsyncLogHandler(console, config.getLogAsyncQueueCapacity())
+                : console;
+        handler.setLevel(level);
+        root.addHandler(handler);
+        root.setLevel(level);
+        return handler;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mobildev.exam.logging;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+import java.util.logging.Formatter;
+import java.util.logging.LogRecord;
+
+/**
+ * Formats each record on a single line: timestamp, level, thread ID, logger name and message,
+ * followed by the stack trace of an attached exception.
+ * Unlike {@link java.util.logging.SimpleFormatter} it never asks for the source class and method,
+ * which would make the record walk the stack of the logging thread.
+ */
+public class LogFormatter extends Formatter {
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    @Override
+    public String format(LogRecord record) {
+        StringBuilder line = new StringBuilder(128);
+        TIMESTAMP.formatTo(record.getInstant(), line);
+        line.append(' ').append(record.getLevel().getName())
+                .append(" [").append(record.getLongThreadID()).append("] ")
+                .append(record.getLoggerName())
+                .append(" - ").append(formatMessage(record))
+                .append(System.lineSeparator());
+        Throwable thrown = record.getThrown();
+        if (Objects.nonNull(thrown)) {
+            StringWriter trace = new StringWriter();
+            thrown.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+        return line.toString();
+    }
+}
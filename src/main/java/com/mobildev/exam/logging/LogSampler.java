@@ -0,0 +1,38 @@
+package com.mobildev.exam.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Lets through a fixed fraction of high-volume debug events, such as one line per query or per answer,
+ * so they can stay enabled under load. The level is checked first, so a disabled event costs no random draw.
+ */
+public class LogSampler {
+    // The rate used when no configuration is given, as for exam.log.debug-sample-rate.
+    public static final double DEFAULT_RATE = 0.01;
+
+    private final double rate;
+
+    /**
+     * @param rate The fraction of events to log: 0 logs none, 1 logs all.
+     */
+    public LogSampler(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1: " + rate);
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * @param logger The logger of the event.
+     * @param level  The level of the event.
+     * @return Whether the event should be logged.
+     */
+    public boolean isLoggable(Logger logger, Level level) {
+        if (!logger.isLoggable(level)) {
+            return false;
+        }
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
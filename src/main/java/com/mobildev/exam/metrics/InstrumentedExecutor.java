@@ -0,0 +1,70 @@
+package com.mobildev.exam.metrics;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps the server's request executor to measure how long requests wait before a worker picks
+ * them up, and how many are waiting and running. It works the same for every executor mode,
+ * including one virtual thread per task.
+ */
+public class InstrumentedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+
+    /**
+     * @param delegate The executor running the tasks; its lifecycle stays with the caller.
+     */
+    public InstrumentedExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submittedAt = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queued.decrementAndGet();
+                queueWait.recordSince(submittedAt);
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            });
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of tasks submitted but not started yet.
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * @return The number of tasks currently running.
+     */
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+}
@@ -0,0 +1,154 @@
+package com.mobildev.exam.metrics;
+
+import com.mobildev.exam.cache.LruCache;
+import com.mobildev.exam.db.DataSourceProvider;
+import com.mobildev.exam.db.HikariDataSourceProvider;
+import com.mobildev.exam.db.ReplicaSetDataSourceProvider;
+import com.mobildev.exam.db.RoutingDataSourceProvider;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds the application's metrics and renders them in the Prometheus text format:
+ * request latency per route and status, the request executor, the connection pools, the caches
+ * and the JVM heap and garbage collectors. Components are registered once at startup; recording
+ * on the request path is lock-free.
+ */
+public class MetricsRegistry {
+
+    private final Map<String, RouteMetrics> routes = new ConcurrentSkipListMap<>();
+    private final Map<String, LruCache<?, ?>> caches = new ConcurrentSkipListMap<>();
+    private final PoolMetrics poolMetrics = new PoolMetrics();
+    private volatile InstrumentedExecutor executor;
+
+    /**
+     * @param route The route label, e.g. {@code /exams/{id}}.
+     * @return The metrics of the route, created on first use.
+     */
+    public RouteMetrics route(String route) {
+        return routes.computeIfAbsent(route, RouteMetrics::new);
+    }
+
+    /**
+     * Wraps the request executor so its queue wait and load are measured.
+     *
+     * @param delegate The executor running the requests.
+     * @return The executor to hand to the server.
+     */
+    public Executor instrumentExecutor(Executor delegate) {
+        InstrumentedExecutor instrumented = new InstrumentedExecutor(delegate);
+        this.executor = instrumented;
+        return instrumented;
+    }
+
+    /**
+     * Reports the hit, miss and eviction counters of a cache.
+     *
+     * @param name  The cache label.
+     * @param cache The cache.
+     */
+    public void registerCache(String name, LruCache<?, ?> cache) {
+        caches.put(name, cache);
+    }
+
+    /**
+     * Attaches to every HikariCP pool behind the provider, including the primary and replica pools of a
+     * routing provider. A pool can report to only one registry.
+     *
+     * @param provider The connection provider.
+     */
+    public void registerDataSource(DataSourceProvider provider) {
+        if (provider instanceof RoutingDataSourceProvider) {
+            RoutingDataSourceProvider routing = (RoutingDataSourceProvider) provider;
+            registerDataSource(routing.getPrimary());
+            registerDataSource(routing.getReads());
+        } else if (provider instanceof ReplicaSetDataSourceProvider) {
+            ((ReplicaSetDataSourceProvider) provider).getReplicas().forEach(this::registerDataSource);
+        } else if (provider instanceof HikariDataSourceProvider) {
+            ((HikariDataSourceProvider) provider).getDataSource().setMetricsTrackerFactory(poolMetrics);
+        }
+    }
+
+    /**
+     * @return All metrics in the Prometheus text exposition format.
+     */
+    public String scrape() {
+        PrometheusWriter writer = new PrometheusWriter();
+        writeRoutes(writer);
+        writeExecutor(writer);
+        poolMetrics.writeTo(writer);
+        writeCaches(writer);
+        writeJvm(writer);
+        return writer.toString();
+    }
+
+    private void writeRoutes(PrometheusWriter writer) {
+        writer.family("exam_http_request_duration_seconds", "histogram",
+                "Time from receiving a request to completing its response, by route and status.");
+        for (RouteMetrics route : routes.values()) {
+            route.writeTo(writer, "exam_http_request_duration_seconds");
+        }
+    }
+
+    private void writeExecutor(PrometheusWriter writer) {
+        InstrumentedExecutor current = executor;
+        if (Objects.isNull(current)) {
+            return;
+        }
+        writer.family("exam_executor_queued_tasks", "gauge", "Requests waiting for a worker.")
+                .sample("exam_executor_queued_tasks", current.getQueuedCount());
+        writer.family("exam_executor_active_tasks", "gauge", "Requests being handled by a worker.")
+                .sample("exam_executor_active_tasks", current.getActiveCount());
+        writer.family("exam_executor_completed_tasks_total", "counter", "Requests handled by a worker.")
+                .sample("exam_executor_completed_tasks_total", current.getCompletedCount());
+        writer.family("exam_executor_queue_wait_seconds", "histogram", "Time requests waited for a worker.")
+                .histogram("exam_executor_queue_wait_seconds", current.getQueueWait().snapshot());
+    }
+
+    private void writeCaches(PrometheusWriter writer) {
+        writer.family("exam_cache_hits_total", "counter", "Cache lookups served from the cache.");
+        caches.forEach((name, cache) -> writer.sample("exam_cache_hits_total", cache.getHitCount(), "cache", name));
+        writer.family("exam_cache_misses_total", "counter", "Cache lookups that had to load the value.");
+        caches.forEach((name, cache) -> writer.sample("exam_cache_misses_total", cache.getMissCount(), "cache", name));
+        writer.family("exam_cache_evictions_total", "counter", "Entries evicted to stay within the capacity.");
+        caches.forEach((name, cache) -> writer.sample("exam_cache_evictions_total", cache.getEvictionCount(), "cache", name));
+        writer.family("exam_cache_hit_ratio", "gauge", "Hits divided by lookups since startup.");
+        caches.forEach((name, cache) -> {
+            long hits = cache.getHitCount();
+            long lookups = hits + cache.getMissCount();
+            writer.sample("exam_cache_hit_ratio", lookups == 0 ? 0 : (double) hits / lookups, "cache", name);
+        });
+        writer.family("exam_cache_size", "gauge", "Entries currently cached.");
+        caches.forEach((name, cache) -> writer.sample("exam_cache_size", cache.size(), "cache", name));
+    }
+
+    private static void writeJvm(PrometheusWriter writer) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        writer.family("jvm_memory_used_bytes", "gauge", "Used memory by area.")
+                .sample("jvm_memory_used_bytes", heap.getUsed(), "area", "heap")
+                .sample("jvm_memory_used_bytes", nonHeap.getUsed(), "area", "nonheap");
+        writer.family("jvm_memory_committed_bytes", "gauge", "Committed memory by area.")
+                .sample("jvm_memory_committed_bytes", heap.getCommitted(), "area", "heap")
+                .sample("jvm_memory_committed_bytes", nonHeap.getCommitted(), "area", "nonheap");
+        writer.family("jvm_memory_max_bytes", "gauge", "Maximum heap size, or -1 if undefined.")
+                .sample("jvm_memory_max_bytes", heap.getMax(), "area", "heap");
+
+        writer.family("jvm_gc_collections_total", "counter", "Garbage collections by collector.");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            writer.sample("jvm_gc_collections_total", Math.max(gc.getCollectionCount(), 0), "gc", gc.getName());
+        }
+        writer.family("jvm_gc_collection_seconds_total", "counter", "Time spent in garbage collection by collector.");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            writer.sample("jvm_gc_collection_seconds_total", Math.max(gc.getCollectionTime(), 0) / 1000.0, "gc", gc.getName());
+        }
+
+        writer.family("jvm_threads_live", "gauge", "Live platform threads.")
+                .sample("jvm_threads_live", ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+}
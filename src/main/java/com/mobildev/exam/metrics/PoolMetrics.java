@@ -0,0 +1,85 @@
+package com.mobildev.exam.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects HikariCP pool statistics through Hikari's metrics tracker hook: the time threads wait to
+ * acquire a connection, how long connections are held, acquisition timeouts, and the active, idle,
+ * total and pending counts of every pool it is attached to.
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+
+    private final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolName, poolStats);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    void writeTo(PrometheusWriter writer) {
+        writer.family("exam_db_pool_connections", "gauge", "Connections of the pool by state.");
+        trackers.forEach((pool, tracker) -> {
+            PoolStats stats = tracker.poolStats;
+            writer.sample("exam_db_pool_connections", stats.getActiveConnections(), "pool", pool, "state", "active");
+            writer.sample("exam_db_pool_connections", stats.getIdleConnections(), "pool", pool, "state", "idle");
+            writer.sample("exam_db_pool_connections", stats.getTotalConnections(), "pool", pool, "state", "total");
+        });
+        writer.family("exam_db_pool_max_connections", "gauge", "Maximum size of the pool.");
+        trackers.forEach((pool, tracker) ->
+                writer.sample("exam_db_pool_max_connections", tracker.poolStats.getMaxConnections(), "pool", pool));
+        writer.family("exam_db_pool_pending_threads", "gauge", "Threads waiting for a connection.");
+        trackers.forEach((pool, tracker) ->
+                writer.sample("exam_db_pool_pending_threads", tracker.poolStats.getPendingThreads(), "pool", pool));
+        writer.family("exam_db_pool_acquire_seconds", "histogram", "Time spent waiting for a connection.");
+        trackers.forEach((pool, tracker) ->
+                writer.histogram("exam_db_pool_acquire_seconds", tracker.acquire.snapshot(), "pool", pool));
+        writer.family("exam_db_pool_usage_seconds", "histogram", "Time a connection was held before it was returned.");
+        trackers.forEach((pool, tracker) ->
+                writer.histogram("exam_db_pool_usage_seconds", tracker.usage.snapshot(), "pool", pool));
+        writer.family("exam_db_pool_timeouts_total", "counter", "Connection requests that timed out.");
+        trackers.forEach((pool, tracker) ->
+                writer.sample("exam_db_pool_timeouts_total", tracker.timeouts.sum(), "pool", pool));
+    }
+
+    private final class Tracker implements IMetricsTracker {
+        private final String poolName;
+        private final PoolStats poolStats;
+        private final LatencyHistogram acquire = new LatencyHistogram();
+        private final LatencyHistogram usage = new LatencyHistogram();
+        private final LongAdder timeouts = new LongAdder();
+
+        private Tracker(String poolName, PoolStats poolStats) {
+            this.poolName = poolName;
+            this.poolStats = poolStats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquire.record(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usage.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        // Called when the pool shuts down.
+        @Override
+        public void close() {
+            trackers.remove(poolName, this);
+        }
+    }
+}
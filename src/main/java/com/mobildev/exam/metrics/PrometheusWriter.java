@@ -0,0 +1,124 @@
+package com.mobildev.exam.metrics;
+
+import java.util.Objects;
+
+/**
+ * Builds a scrape in the Prometheus text exposition format, version 0.0.4.
+ * Each metric family is started with {@link #family}, followed by its samples.
+ */
+public class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    // Histogram bucket bounds in seconds, from 0.5 ms to 10 s.
+    private static final double[] BUCKET_BOUNDS_SECONDS =
+            {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final StringBuilder out = new StringBuilder(16 * 1024);
+
+    /**
+     * Writes the HELP and TYPE lines of a metric family.
+     *
+     * @param name The metric name.
+     * @param type "counter", "gauge" or "histogram".
+     * @param help The description.
+     */
+    public PrometheusWriter family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Writes one sample.
+     *
+     * @param name   The metric name, including a suffix such as {@code _total}.
+     * @param value  The value.
+     * @param labels Alternating label names and values.
+     */
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        out.append(name);
+        appendLabels(labels, null);
+        out.append(' ').append(formatValue(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * Writes the cumulative buckets, the sum and the count of a latency histogram in seconds.
+     * The family must have been started with type "histogram".
+     *
+     * @param name      The metric name, without the {@code _bucket}, {@code _sum} and {@code _count} suffixes.
+     * @param histogram The histogram snapshot.
+     * @param labels    Alternating label names and values.
+     */
+    public PrometheusWriter histogram(String name, LatencyHistogram.Snapshot histogram, String... labels) {
+        for (double bound : BUCKET_BOUNDS_SECONDS) {
+            out.append(name).append("_bucket");
+            appendLabels(labels, formatValue(bound));
+            out.append(' ').append(histogram.countAtOrBelow((long) (bound * NANOS_PER_SECOND))).append('\n');
+        }
+        out.append(name).append("_bucket");
+        appendLabels(labels, "+Inf");
+        out.append(' ').append(histogram.getCount()).append('\n');
+        sample(name + "_sum", histogram.getSumNanos() / NANOS_PER_SECOND, labels);
+        sample(name + "_count", histogram.getCount(), labels);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void appendLabels(String[] labels, String le) {
+        if (labels.length == 0 && Objects.isNull(le)) {
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"");
+            appendEscaped(labels[i + 1]);
+            out.append('"');
+        }
+        if (Objects.nonNull(le)) {
+            if (labels.length > 0) {
+                out.append(',');
+            }
+            out.append("le=\"").append(le).append('"');
+        }
+        out.append('}');
+    }
+
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,49 @@
+package com.mobildev.exam.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The latency histograms of one route, one per response status code.
+ * Histograms are created on the first response with a status, without locking.
+ */
+public class RouteMetrics {
+
+    private static final int MAX_STATUS = 599;
+
+    private final String route;
+    private final AtomicReferenceArray<LatencyHistogram> byStatus = new AtomicReferenceArray<>(MAX_STATUS + 1);
+
+    RouteMetrics(String route) {
+        this.route = route;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param status       The response status; values outside 100-599 are recorded as 0.
+     * @param elapsedNanos The time from receiving the request to completing the response.
+     */
+    public void record(int status, long elapsedNanos) {
+        int index = status >= 100 && status <= MAX_STATUS ? status : 0;
+        LatencyHistogram histogram = byStatus.get(index);
+        if (Objects.isNull(histogram)) {
+            byStatus.compareAndSet(index, null, new LatencyHistogram());
+            histogram = byStatus.get(index);
+        }
+        histogram.record(elapsedNanos);
+    }
+
+    void writeTo(PrometheusWriter writer, String name) {
+        for (int status = 0; status <= MAX_STATUS; status++) {
+            LatencyHistogram histogram = byStatus.get(status);
+            if (Objects.nonNull(histogram)) {
+                writer.histogram(name, histogram.snapshot(), "route", route, "status", String.valueOf(status));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mobildev.exam.model;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The identity of the caller of an authenticated request, as carried by its JWT.
+ * Instances are immutable.
+ */
+public final class AuthenticatedUser {
+    public static final String ROLE_CANDIDATE = "CANDIDATE";
+    public static final String ROLE_ADMIN = "ADMIN";
+
+    private final int userId;
+    private final String username;
+    private final Set<String> roles;
+
+    public AuthenticatedUser(int userId, String username, Set<String> roles) {
+        this.userId = userId;
+        this.username = Objects.requireNonNull(username);
+        this.roles = Set.copyOf(roles);
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{userId=" + userId + ", username='" + username + "', roles=" + roles + "}";
+    }
+}
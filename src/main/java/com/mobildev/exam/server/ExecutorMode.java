@@ -0,0 +1,78 @@
+package com.mobildev.exam.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * The strategies available for running HTTP exchanges.
+ */
+public enum ExecutorMode {
+    /**
+     * A fixed pool of platform threads. Requests queue once every thread is busy.
+     */
+    FIXED,
+    /**
+     * A work-stealing fork/join pool sized to the given parallelism.
+     */
+    WORK_STEALING,
+    /**
+     * One virtual thread per request (JDK 21+). Blocking JDBC calls park the virtual thread
+     * instead of holding a platform thread, so thousands of slow requests can be in flight.
+     */
+    VIRTUAL;
+
+    private static final Logger LOGGER = Logger.getLogger(ExecutorMode.class.getName());
+
+    /**
+     * Parses a mode name such as "fixed", "work-stealing" or "virtual".
+     *
+     * @param value The mode name, case-insensitive.
+     * @return The matching mode.
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    public static ExecutorMode fromString(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /**
+     * Creates the executor for this mode.
+     *
+     * @param threads The pool size for FIXED, the parallelism for WORK_STEALING; ignored for VIRTUAL.
+     * @return A new executor.
+     */
+    public ExecutorService createExecutor(int threads) {
+        switch (this) {
+            case WORK_STEALING:
+                return Executors.newWorkStealingPool(threads);
+            case VIRTUAL:
+                ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+                if (virtualExecutor != null) {
+                    return virtualExecutor;
+                }
+                LOGGER.warning("Virtual threads require JDK 21 or newer. Falling back to a fixed thread pool of "
+                        + threads + " threads.");
+                return Executors.newFixedThreadPool(threads);
+            case FIXED:
+            default:
+                return Executors.newFixedThreadPool(threads);
+        }
+    }
+
+    /**
+     * The project targets Java 17, so the JDK 21 factory method is looked up reflectively.
+     *
+     * @return A virtual-thread-per-task executor, or null if the running JDK has no virtual threads.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor.", e);
+        }
+    }
+}
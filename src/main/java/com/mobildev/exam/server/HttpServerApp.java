@@ -1,46 +1,247 @@
 package com.mobildev.exam.server;
 
+import com.mobildev.exam.config.AppConfig;
 import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.dao.ExamFetchStrategy;
+import com.mobildev.exam.db.DataSourceProvider;
 import com.mobildev.exam.db.DatabaseManager;
+import com.mobildev.exam.handlers.ConcurrencyLimitHandler;
+import com.mobildev.exam.handlers.ExamSessionHandler;
 import com.mobildev.exam.handlers.ExamsHandler;
 import com.mobildev.exam.handlers.JwtAuthHandler;
 import com.mobildev.exam.handlers.LoginHandler;
+import com.mobildev.exam.handlers.MetricsHandler;
 import com.mobildev.exam.handlers.SubmitHandler;
+import com.mobildev.exam.handlers.TimedHandler;
+import com.mobildev.exam.handlers.TracesHandler;
+import com.mobildev.exam.logging.LogConfigurer;
+import com.mobildev.exam.logging.LogSampler;
+import com.mobildev.exam.metrics.MetricsRegistry;
+import com.mobildev.exam.service.AuthService;
 import com.mobildev.exam.service.ExamService;
 import com.mobildev.exam.service.SubmitService;
+import com.mobildev.exam.session.ExamSessionRepository;
+import com.mobildev.exam.session.ExamSessionService;
+import com.mobildev.exam.session.ExamSessionStore;
+import com.mobildev.exam.submission.SubmissionDeduplicator;
+import com.mobildev.exam.submission.SubmissionJournal;
+import com.mobildev.exam.submission.SubmissionParser;
+import com.mobildev.exam.submission.WriteBehindSubmissionWriter;
+import com.mobildev.exam.tracing.TraceCollector;
+import com.mobildev.exam.util.JsonUtil;
+import com.mobildev.exam.util.TokenVerifier;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.util.concurrent.Executors;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Logger;
 
 public class HttpServerApp {
     private static final Logger LOGGER = Logger.getLogger(HttpServerApp.class.getName());
 
     public static void main(String[] args) throws IOException {
-        int port = 8080;
-        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        LogConfigurer.configure(AppConfig.getInstance());
+        RunningServer runningServer = start(AppConfig.getInstance());
+        Runtime.getRuntime().addShutdownHook(new Thread(runningServer::stop));
+    }
+
+    /**
+     * Creates the connection provider selected by {@code exam.db.provider}, then the services and
+     * endpoints, and starts the server.
+     *
+     * @param config The configuration of the database, the server, the caches and the submission pipeline.
+     * @return A handle to the started server.
+     * @throws IOException if the server cannot bind its port.
+     */
+    public static RunningServer start(AppConfig config) throws IOException {
+        return start(config, DatabaseManager.createProvider(config));
+    }
+
+    /**
+     * Creates the services and endpoints on top of the given connection provider and starts the server.
+     *
+     * @param config             The configuration of the server, the caches and the submission pipeline.
+     * @param dataSourceProvider The provider of the database connections; the server closes it when stopped.
+     * @return A handle to the started server.
+     * @throws IOException if the server cannot bind its port.
+     */
+    public static RunningServer start(AppConfig config, DataSourceProvider dataSourceProvider) throws IOException {
+        int port = config.getServerPort();
+        ExecutorMode executorMode = ExecutorMode.fromString(config.getExecutorMode());
+        // By default size the worker pool to the connection pool so no pooled connection sits idle.
+        int threads = config.getExecutorThreads() > 0 ? config.getExecutorThreads() : dataSourceProvider.getMaximumPoolSize();
+        long dbPermitTimeoutMillis = config.getDbPermitTimeoutMillis();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), config.getServerBacklog());
+
+        // Always recorded; exam.metrics.enabled only controls the /metrics endpoint.
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.registerDataSource(dataSourceProvider);
+        // Null when tracing is disabled.
+        TraceCollector traceCollector = config.isTracingEnabled() ? TraceCollector.fromConfig(config) : null;
 
         // dependencies create
-        ExamDAO examDAO = new ExamDAO();
-        ExamService examService = new ExamService(examDAO);
-        SubmitService submitService = new SubmitService();
+        // Before anything that serializes JSON or keeps the JSON factory is created.
+        JsonUtil.configure(config.isJsonBlackbirdEnabled());
+        // High-volume debug events, such as one line per query, are sampled.
+        LogSampler debugSampler = new LogSampler(config.getLogDebugSampleRate());
+        ExamDAO examDAO = new ExamDAO(dataSourceProvider, ExamFetchStrategy.fromString(config.getExamFetchStrategy()),
+                debugSampler);
+        // At most one in-flight database-bound request per pooled connection.
+        Semaphore dbPermits = new Semaphore(dataSourceProvider.getMaximumPoolSize(), true);
+        // Exams are mostly served from memory, so the service takes a permit only to load one.
+        ExamService examService = new ExamService(examDAO, config.getExamCacheCapacity(), dbPermits, dbPermitTimeoutMillis);
+        WriteBehindSubmissionWriter submissionWriter = null;
+        if (config.isWriteBehindEnabled()) {
+            SubmissionJournal journal = new SubmissionJournal(Path.of(config.getSubmitJournalDir()), config.isSubmitJournalFsync());
+            submissionWriter = new WriteBehindSubmissionWriter(dataSourceProvider, journal, config.getSubmitBatchSize(),
+                    config.getSubmitQueueCapacity());
+            submissionWriter.start();
+        }
+        SubmitService submitService = new SubmitService(dataSourceProvider, submissionWriter, config.getAnswerKeyCacheCapacity(),
+                debugSampler);
+        // Answer keys are derived from the same exam content as the exam cache.
+        examService.addInvalidationListener(submitService::invalidateAnswerKey, submitService::invalidateAllAnswerKeys);
+
+        SubmissionParser submissionParser = new SubmissionParser(JsonUtil.getFactory(),
+                config.getSubmitMaxBodyBytes(), config.getSubmitMaxAnswers());
+        // Null when retries are only detected by the database.
+        SubmissionDeduplicator deduplicator = config.isSubmitIdempotencyEnabled()
+                ? new SubmissionDeduplicator(config.getSubmitIdempotencyCapacity(), config.getSubmitIdempotencyTtlMillis())
+                : null;
+        // Password hashing runs on its own bounded pool, off the HTTP worker threads.
+        AuthService authService = LoginHandler.createAuthService(config, dataSourceProvider);
+        // Shared by all protected endpoints so a session's token is verified once.
+        TokenVerifier tokenVerifier = new TokenVerifier(config.getTokenCacheCapacity());
+        // Null when exam sessions are disabled.
+        ExamSessionService sessionService = null;
+        ExamSessionHandler sessionHandler = null;
+        if (config.isSessionEnabled()) {
+            sessionService = new ExamSessionService(new ExamSessionRepository(dataSourceProvider), examService, submitService,
+                    new ExamSessionStore(config.getSessionLockStripes()), deduplicator, config.getSessionGraceMillis(),
+                    config.getSessionIdleEvictMillis());
+            sessionService.start(config.getSessionFlushIntervalMillis());
+            sessionHandler = new ExamSessionHandler(sessionService, submissionParser, dbPermits, dbPermitTimeoutMillis);
+        }
+        ExamsHandler examsHandler = new ExamsHandler(examService, config.getExamResponseCacheCapacity(), sessionHandler);
+
+        metrics.registerCache("exam", examService.getExamCache());
+        metrics.registerCache("exam_response", examsHandler.getResponseCache());
+        metrics.registerCache("answer_key", submitService.getAnswerKeyCache());
+        metrics.registerCache("token", tokenVerifier.getCache());
+        if (Objects.nonNull(deduplicator)) {
+            metrics.registerCache("idempotency", deduplicator.getCache());
+        }
 
         // define the endpoints
-        server.createContext("/login", new LoginHandler());
-        server.createContext("/exams", new JwtAuthHandler(new ExamsHandler(examService)));
-        server.createContext("/submit", new JwtAuthHandler(new SubmitHandler(submitService)));
+        createTimedContext(server, "/login", metrics, traceCollector,
+                new ConcurrencyLimitHandler(new LoginHandler(authService, config.getAdminUsernames()), dbPermits, dbPermitTimeoutMillis));
+        createTimedContext(server, "/exams", metrics, traceCollector, new JwtAuthHandler(examsHandler, tokenVerifier));
+        // The submit handler takes a permit only for new submissions, so retries answered from memory never wait.
+        createTimedContext(server, "/submit", metrics, traceCollector,
+                new JwtAuthHandler(new SubmitHandler(submitService, submissionParser, deduplicator, dbPermits, dbPermitTimeoutMillis), tokenVerifier));
+        if (Objects.nonNull(sessionHandler)) {
+            // Autosaves are served from memory, so only the session submit takes a database permit.
+            createTimedContext(server, "/sessions", metrics, traceCollector, new JwtAuthHandler(sessionHandler, tokenVerifier));
+        }
+        if (config.isMetricsEnabled()) {
+            server.createContext("/metrics", new MetricsHandler(metrics));
+        }
+        if (Objects.nonNull(traceCollector)) {
+            server.createContext("/admin/traces", new JwtAuthHandler(new TracesHandler(traceCollector), tokenVerifier));
+        }
 
-        server.setExecutor(Executors.newFixedThreadPool(10));
+        ExecutorService executor = executorMode.createExecutor(threads);
+        server.setExecutor(metrics.instrumentExecutor(executor));
         server.start();
 
-        LOGGER.info("Server started on port " + port);
+        LOGGER.info("Server started on port " + server.getAddress().getPort() + " with " + executorMode + " executor.");
+
+        return new RunningServer(server, executor, authService, submissionWriter, config.getSubmitDrainTimeoutMillis(),
+                sessionService, dataSourceProvider, metrics, traceCollector);
+    }
+
+    private static void createTimedContext(HttpServer server, String path, MetricsRegistry metrics,
+                                           TraceCollector traceCollector, HttpHandler handler) {
+        server.createContext(path, new TimedHandler(handler, path, metrics, traceCollector));
+    }
+
+    /**
+     * A started server together with the resources it owns.
+     */
+    public static final class RunningServer {
+        private final HttpServer server;
+        private final ExecutorService executor;
+        private final AuthService authService;
+        // Null when submissions are persisted synchronously.
+        private final WriteBehindSubmissionWriter submissionWriter;
+        private final long drainTimeoutMillis;
+        // Null when exam sessions are disabled.
+        private final ExamSessionService sessionService;
+        private final DataSourceProvider dataSourceProvider;
+        private final MetricsRegistry metrics;
+        // Null when tracing is disabled.
+        private final TraceCollector traceCollector;
+
+        private RunningServer(HttpServer server, ExecutorService executor, AuthService authService,
+                              WriteBehindSubmissionWriter submissionWriter, long drainTimeoutMillis,
+                              ExamSessionService sessionService, DataSourceProvider dataSourceProvider, MetricsRegistry metrics,
+                              TraceCollector traceCollector) {
+            this.server = server;
+            this.executor = executor;
+            this.authService = authService;
+            this.submissionWriter = submissionWriter;
+            this.drainTimeoutMillis = drainTimeoutMillis;
+            this.sessionService = sessionService;
+            this.dataSourceProvider = dataSourceProvider;
+            this.metrics = metrics;
+            this.traceCollector = traceCollector;
+        }
+
+        /**
+         * @return The metrics of the server, also served on {@code /metrics} when enabled.
+         */
+        public MetricsRegistry getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * @return The collector of the request traces, or null if tracing is disabled.
+         */
+        public TraceCollector getTraceCollector() {
+            return traceCollector;
+        }
+
+        /**
+         * @return The bound port, which differs from the configured one when that was 0.
+         */
+        public int getPort() {
+            return server.getAddress().getPort();
+        }
 
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        /**
+         * Stops the server, drains queued submissions, writes the autosaved answers and closes the connection pool.
+         */
+        public void stop() {
             LOGGER.info("Shutting down server and database connections...");
             server.stop(0);
-            DatabaseManager.shutdown();
+            executor.shutdown();
+            authService.shutdown();
+            if (submissionWriter != null) {
+                submissionWriter.shutdown(drainTimeoutMillis);
+            }
+            if (sessionService != null) {
+                sessionService.shutdown();
+            }
+            dataSourceProvider.close();
+            if (traceCollector != null) {
+                traceCollector.close();
+            }
             LOGGER.info("Shutdown complete.");
-        }));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package com.mobildev.exam.service;
+
+import com.mobildev.exam.model.QuestionType;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The compiled, immutable answer key of an exam.
+ * Questions are stored in parallel arrays sorted by question ID, so scoring a submission is
+ * a binary search and a primitive comparison per answer, without boxing or map lookups.
+ * Instances are safe to share between threads.
+ */
+public final class AnswerKey {
+
+    // Marks a multiple-choice question without a correct option.
+    private static final int NO_OPTION = Integer.MIN_VALUE;
+
+    private final int examId;
+    private final int[] questionIds;
+    private final QuestionType[] questionTypes;
+    private final int[] correctOptionIds;
+    private final String[] correctAnswerTexts;
+
+    private AnswerKey(int examId, int[] questionIds, QuestionType[] questionTypes, int[] correctOptionIds, String[] correctAnswerTexts) {
+        this.examId = examId;
+        this.questionIds = questionIds;
+        this.questionTypes = questionTypes;
+        this.correctOptionIds = correctOptionIds;
+        this.correctAnswerTexts = correctAnswerTexts;
+    }
+
+    public static Builder builder(int examId) {
+        return new Builder(examId);
+    }
+
+    public int getExamId() {
+        return examId;
+    }
+
+    /**
+     * @return The number of questions in the exam.
+     */
+    public int size() {
+        return questionIds.length;
+    }
+
+    /**
+     * Finds the position of a question in the key.
+     *
+     * @param questionId The question ID.
+     * @return The index of the question, or -1 if it does not belong to the exam.
+     */
+    public int indexOf(int questionId) {
+        int index = Arrays.binarySearch(questionIds, questionId);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Checks an answer against the key.
+     * Classic answers are compared case-insensitively; multiple-choice answers by option ID.
+     *
+     * @param index            The question index returned by {@link #indexOf(int)}.
+     * @param selectedOptionId The selected option, for multiple-choice questions. Can be null.
+     * @param answerText       The answer text, for classic questions. Can be null.
+     * @return true if the answer is correct.
+     */
+    public boolean isCorrect(int index, Integer selectedOptionId, String answerText) {
+        switch (questionTypes[index]) {
+            case CLASSIC:
+                String correctAnswerText = correctAnswerTexts[index];
+                return Objects.nonNull(answerText) && Objects.nonNull(correctAnswerText)
+                        && correctAnswerText.equalsIgnoreCase(answerText);
+            case MULTIPLE_CHOICE:
+                int correctOptionId = correctOptionIds[index];
+                return Objects.nonNull(selectedOptionId) && correctOptionId != NO_OPTION
+                        && correctOptionId == selectedOptionId;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Collects the rows of an answer key query and compiles them into an AnswerKey.
+     */
+    public static final class Builder {
+        private final int examId;
+        private final Map<Integer, QuestionType> types = new LinkedHashMap<>();
+        private final Map<Integer, Integer> correctOptions = new LinkedHashMap<>();
+        private final Map<Integer, String> correctTexts = new LinkedHashMap<>();
+
+        private Builder(int examId) {
+            this.examId = examId;
+        }
+
+        /**
+         * Registers a question. Registering the same question again is allowed and keeps the latest values.
+         *
+         * @param questionId        The question ID.
+         * @param questionType      The question type.
+         * @param correctAnswerText The correct answer of a classic question. Can be null.
+         * @return This builder.
+         */
+        public Builder addQuestion(int questionId, QuestionType questionType, String correctAnswerText) {
+            types.put(questionId, questionType);
+            if (questionType == QuestionType.CLASSIC) {
+                correctTexts.put(questionId, correctAnswerText);
+            }
+            return this;
+        }
+
+        /**
+         * Marks the correct option of a multiple-choice question.
+         *
+         * @param questionId The question ID.
+         * @param optionId   The ID of the correct option.
+         * @return This builder.
+         */
+        public Builder setCorrectOption(int questionId, int optionId) {
+            correctOptions.put(questionId, optionId);
+            return this;
+        }
+
+        public AnswerKey build() {
+            int[] questionIds = types.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            QuestionType[] questionTypes = new QuestionType[questionIds.length];
+            int[] correctOptionIds = new int[questionIds.length];
+            String[] correctAnswerTexts = new String[questionIds.length];
+            for (int i = 0; i < questionIds.length; i++) {
+                int questionId = questionIds[i];
+                questionTypes[i] = types.get(questionId);
+                correctOptionIds[i] = correctOptions.getOrDefault(questionId, NO_OPTION);
+                correctAnswerTexts[i] = correctTexts.get(questionId);
+            }
+            return new AnswerKey(examId, questionIds, questionTypes, correctOptionIds, correctAnswerTexts);
+        }
+    }
+}
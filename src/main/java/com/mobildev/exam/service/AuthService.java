@@ -0,0 +1,176 @@
+package com.mobildev.exam.service;
+
+import com.mobildev.exam.db.DataSourceProvider;
+import com.mobildev.exam.model.User;
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
+import com.mobildev.exam.util.PasswordHasher;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Verifies login credentials.
+ * The user row is read on the calling thread, but the password hash is checked on a dedicated,
+ * fixed-size pool with a bounded queue, so a burst of logins consumes at most that many cores
+ * and cannot occupy the HTTP worker threads serving other endpoints. When the queue is full
+ * the login is rejected immediately instead of waiting.
+ * Users still stored with a legacy plaintext password, or with a hash weaker than the current
+ * settings, are rehashed after a successful login.
+ */
+public class AuthService {
+
+    private static final Logger LOGGER = Logger.getLogger(AuthService.class.getName());
+
+    private static final String SQL_FIND_USER = "SELECT id, username, password FROM users WHERE username = ?";
+    // Only replaces the value that was verified, so a concurrent password change wins.
+    private static final String SQL_UPDATE_PASSWORD = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+
+    private final DataSourceProvider dataSourceProvider;
+    private final PasswordHasher passwordHasher;
+    private final ThreadPoolExecutor hashExecutor;
+    // Verified for unknown users, so they take as long to reject as wrong passwords.
+    private final String dummyHash;
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder rehashCount = new LongAdder();
+
+    /**
+     * @param dataSourceProvider The provider of the connections. Users are looked up on read connections.
+     * @param passwordHasher     The hasher for new and stored passwords.
+     * @param threads            The number of threads hashing passwords.
+     * @param queueCapacity      The number of logins allowed to wait for a hashing thread.
+     */
+    public AuthService(DataSourceProvider dataSourceProvider, PasswordHasher passwordHasher, int threads, int queueCapacity) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.passwordHasher = passwordHasher;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dummyHash = passwordHasher.hash("dummy-password");
+    }
+
+    /**
+     * Looks up a user and schedules the password check.
+     *
+     * @param username The username.
+     * @param password The plaintext password.
+     * @return A future completed on a hashing thread with the user, or with null if the
+     * credentials are invalid.
+     * @throws SQLException               if the user cannot be read.
+     * @throws RejectedExecutionException if too many logins are already waiting.
+     */
+    public CompletableFuture<User> authenticateAsync(String username, String password) throws SQLException {
+        User user = findUser(username);
+        try {
+            return CompletableFuture.supplyAsync(() -> verify(user, password), hashExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw e;
+        }
+    }
+
+    private User verify(User user, String password) {
+        if (Objects.isNull(user)) {
+            passwordHasher.verify(password, dummyHash);
+            return null;
+        }
+
+        String stored = user.getPassword();
+        if (!passwordHasher.verify(password, stored)) {
+            return null;
+        }
+        if (passwordHasher.needsRehash(stored)) {
+            rehash(user, password);
+        }
+        user.setPassword(null);
+        return user;
+    }
+
+    private void rehash(User user, String password) {
+        String newHash = passwordHasher.hash(password);
+        try (Connection conn = dataSourceProvider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_UPDATE_PASSWORD)) {
+            stmt.setString(1, newHash);
+            stmt.setInt(2, user.getId());
+            stmt.setString(3, user.getPassword());
+            if (stmt.executeUpdate() == 1) {
+                rehashCount.increment();
+                LOGGER.info("Upgraded the stored password hash of user " + user.getId() + ".");
+            }
+        } catch (SQLException e) {
+            // The login itself succeeded; the upgrade is retried on the next login.
+            LOGGER.warning("Could not upgrade the password hash of user " + user.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private User findUser(String username) throws SQLException {
+        try (Span span = Tracer.span("db.find-user");
+             Connection conn = dataSourceProvider.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL_FIND_USER)) {
+
+            stmt.setString(1, username);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    User user = new User();
+                    user.setId(rs.getInt("id"));
+                    user.setUsername(rs.getString("username"));
+                    user.setPassword(rs.getString("password"));
+                    return user;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The number of logins waiting for a hashing thread.
+     */
+    public int getQueueDepth() {
+        return hashExecutor.getQueue().size();
+    }
+
+    /**
+     * @return The number of logins currently being hashed.
+     */
+    public int getActiveCount() {
+        return hashExecutor.getActiveCount();
+    }
+
+    /**
+     * @return The number of logins rejected because the queue was full.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return The number of stored passwords upgraded on login.
+     */
+    public long getRehashCount() {
+        return rehashCount.sum();
+    }
+
+    /**
+     * Stops accepting logins and lets queued checks finish.
+     */
+    public void shutdown() {
+        hashExecutor.shutdown();
+    }
+}
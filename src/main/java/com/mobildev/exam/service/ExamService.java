@@ -1,133 +1,198 @@
 package com.mobildev.exam.service;
 
+import com.mobildev.exam.cache.LruCache;
 import com.mobildev.exam.dao.ExamDAO;
 import com.mobildev.exam.dto.ExamListResponseDTO;
 import com.mobildev.exam.dto.ExamResponseDTO;
 import com.mobildev.exam.dto.OptionResponseDTO;
 import com.mobildev.exam.dto.QuestionResponseDTO;
-import com.mobildev.exam.model.QuestionType;
+import com.mobildev.exam.model.Exam;
+import com.mobildev.exam.model.Option;
+import com.mobildev.exam.model.Question;
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class ExamService {
     private static final Logger LOGGER = Logger.getLogger(ExamService.class.getName());
+    private static final int DEFAULT_EXAM_CACHE_CAPACITY = 256;
+    // The only key of the exam list cache.
+    private static final int EXAM_LIST_KEY = 0;
+
     private final ExamDAO examDAO;
+    // Fully built exam graphs keyed by exam ID. Cached DTOs are shared between requests and must not be mutated.
+    private final LruCache<Integer, ExamResponseDTO> examCache;
+    // The exam list, without questions, under EXAM_LIST_KEY. Invalidated together with any exam.
+    private final LruCache<Integer, ExamListResponseDTO> examListCache = new LruCache<>(1);
+    // Notified with the exam ID whenever a cached exam is invalidated.
+    private final List<IntConsumer> invalidationListeners = new CopyOnWriteArrayList<>();
+    // Notified whenever every cached exam is invalidated.
+    private final List<Runnable> invalidateAllListeners = new CopyOnWriteArrayList<>();
+    // Null when the caller limits the concurrency instead.
+    private final Semaphore dbPermits;
+    private final long permitTimeoutMillis;
 
     public ExamService(ExamDAO examDAO) {
+        this(examDAO, DEFAULT_EXAM_CACHE_CAPACITY);
+    }
+
+    public ExamService(ExamDAO examDAO, int examCacheCapacity) {
+        this(examDAO, examCacheCapacity, null, 0);
+    }
+
+    /**
+     * @param examDAO             The data access for exams.
+     * @param examCacheCapacity   The number of exams kept in memory.
+     * @param dbPermits           The permits limiting concurrent database work, or null if the caller limits it.
+     *                            A permit is only held while an exam that is not cached is loaded.
+     * @param permitTimeoutMillis How long a load waits for a permit before {@link ServerBusyException} is thrown.
+     */
+    public ExamService(ExamDAO examDAO, int examCacheCapacity, Semaphore dbPermits, long permitTimeoutMillis) {
         this.examDAO = examDAO;
+        this.examCache = new LruCache<>(examCacheCapacity);
+        this.dbPermits = dbPermits;
+        this.permitTimeoutMillis = permitTimeoutMillis;
     }
 
     /**
-     * Retrieves a list of all exams, mapping the raw database data to a DTO list.
+     * Retrieves a list of all exams, mapping them to a DTO list.
+     * The list is served from memory until an exam is invalidated, and the same instance is returned
+     * until then. Concurrent requests while it is not cached share a single database round trip.
      *
      * @return An ExamListResponseDTO containing a list of ExamResponseDTOs.
+     * @throws SQLException        if the exams cannot be read; nothing is cached then.
+     * @throws ServerBusyException if the list is not cached and no database permit frees up in time.
+     */
+    public ExamListResponseDTO getAllExams() throws SQLException {
+        return examListCache.get(EXAM_LIST_KEY, key -> loadExamList());
+    }
+
+    /**
+     * Retrieves a specific exam and its details (questions, options) by ID.
+     * Exams are served from an in-memory cache; concurrent requests for an exam that is not cached yet
+     * share a single database round trip.
+     *
+     * @param examId The ID of the exam to retrieve.
+     * @return An ExamResponseDTO with nested questions and options, or null if the exam is not found.
+     * @throws ServerBusyException if the exam is not cached and no database permit frees up in time.
+     */
+    public ExamResponseDTO getExamResponseById(int examId) {
+        return examCache.get(examId, this::loadExamResponse);
+    }
+
+    /**
+     * Drops the cached copy of an exam so that the next request reloads it from the database.
+     * Must be called whenever an exam, its questions or its options are modified, and when an exam is added
+     * or removed, since the exam list is dropped as well.
+     *
+     * @param examId The ID of the modified exam.
+     */
+    public void invalidateExam(int examId) {
+        LOGGER.log(Level.INFO, "Invalidating cached exam with ID: {0}", examId);
+        examCache.invalidate(examId);
+        // The list shows the exam's title and duration.
+        examListCache.invalidateAll();
+        for (IntConsumer listener : invalidationListeners) {
+            listener.accept(examId);
+        }
+    }
+
+    /**
+     * Drops every cached exam and the exam list, e.g. after a bulk import.
      */
-    public ExamListResponseDTO getAllExams() {
-        LOGGER.log(Level.INFO, "Fetching all exams from the database.");
+    public void invalidateAllExams() {
+        LOGGER.info("Invalidating all cached exams.");
+        examCache.invalidateAll();
+        examListCache.invalidateAll();
+        for (Runnable listener : invalidateAllListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Registers callbacks for caches derived from exam content, such as compiled answer keys.
+     *
+     * @param listener    Receives the ID of every invalidated exam.
+     * @param allListener Called when every exam is invalidated.
+     */
+    public void addInvalidationListener(IntConsumer listener, Runnable allListener) {
+        invalidationListeners.add(listener);
+        invalidateAllListeners.add(allListener);
+    }
+
+    /**
+     * Exposes the exam cache for monitoring its hit, miss and eviction counters.
+     */
+    public LruCache<Integer, ExamResponseDTO> getExamCache() {
+        return examCache;
+    }
+
+    /**
+     * Loads the exam list from the database and converts it into the response DTOs.
+     */
+    private ExamListResponseDTO loadExamList() throws SQLException {
+        LOGGER.log(Level.FINE, "Fetching all exams from the database.");
+        acquirePermit();
         try {
-            List<Map<String, Object>> examRows = examDAO.getAllExams();
-
-            // Using a stream to map the raw data into DTOs for a more concise and readable approach.
-            List<ExamResponseDTO> exams = examRows.stream()
-                    .map(row -> new ExamResponseDTO(
-                            (int) row.get("exam_id"),
-                            (String) row.get("title"),
-                            (String) row.get("description"),
-                            (int) row.get("duration_minutes"),
-                            new ArrayList<>()
-                    ))
-                    .collect(Collectors.toList());
-
-            LOGGER.log(Level.INFO, "Successfully fetched {0} exams.", exams.size());
+            List<Exam> storedExams = examDAO.getAllExams();
+
+            List<ExamResponseDTO> exams = new ArrayList<>(storedExams.size());
+            for (Exam exam : storedExams) {
+                exams.add(new ExamResponseDTO(exam.getId(), exam.getTitle(), exam.getDescription(),
+                        exam.getDurationMinutes(), new ArrayList<>()));
+            }
+
+            LOGGER.log(Level.FINE, "Successfully fetched {0} exams.", exams.size());
             return new ExamListResponseDTO(exams);
 
         } catch (SQLException e) {
             // Log the full stack trace for better debugging.
             LOGGER.log(Level.SEVERE, "Database exception while fetching all exams.", e);
-            return new ExamListResponseDTO(new ArrayList<>());
+            throw e;
+        } finally {
+            releasePermit();
         }
     }
 
     /**
-     * Retrieves a specific exam and its details (questions, options) by ID.
-     * The method reconstructs the hierarchical data structure from the flat database result.
+     * Loads an exam graph from the database and converts it into the response DTOs.
      *
-     * @param examId The ID of the exam to retrieve.
-     * @return An ExamResponseDTO with nested questions and options, or null if the exam is not found.
+     * @param examId The ID of the exam to load.
+     * @return The assembled ExamResponseDTO, or null if the exam is not found.
      */
-    public ExamResponseDTO getExamResponseById(int examId) {
-        LOGGER.log(Level.INFO, "Fetching details for exam with ID: {0}", examId);
+    private ExamResponseDTO loadExamResponse(int examId) {
+        LOGGER.log(Level.FINE, "Fetching details for exam with ID: {0}", examId);
+        acquirePermit();
         try {
-            List<Map<String, Object>> examDetailsRows = examDAO.getExamDetails(examId);
+            Exam exam = examDAO.getExamDetails(examId);
 
-            if (examDetailsRows.isEmpty()) {
+            if (Objects.isNull(exam)) {
                 LOGGER.log(Level.WARNING, "No exam found with ID: {0}", examId);
                 return null;
             }
 
-            // Using maps to efficiently track and reconstruct the nested object hierarchy.
-            // This avoids nested loops and improves performance for larger datasets.
-            Map<Integer, QuestionResponseDTO> questionMap = new HashMap<>();
-            ExamResponseDTO exam = null;
-
-            for (Map<String, Object> row : examDetailsRows) {
-                // Initialize the exam DTO from the first row only.
-                if (Objects.isNull(exam)) {
-                    exam = new ExamResponseDTO(
-                            (int) row.get("exam_id"),
-                            (String) row.get("title"),
-                            (String) row.get("description"),
-                            (int) row.get("duration_minutes"),
-                            new ArrayList<>()
-                    );
-                }
-
-                Integer questionId = (Integer) row.get("question_id");
-                // A LEFT JOIN can return nulls, so we must check.
-                if (questionId == null) {
-                    continue;
-                }
-
-                QuestionResponseDTO question;
-                // Check if the question is already in our map.
-                if (questionMap.containsKey(questionId)) {
-                    question = questionMap.get(questionId);
-                } else {
-                    // If not, create a new QuestionResponseDTO and add it to the map and the exam list.
-                    QuestionType questionType = QuestionType.valueOf((String) row.get("question_type"));
-                    question = new QuestionResponseDTO(
-                            questionId,
-                            (int) row.get("exam_id"),
-                            (String) row.get("question_text"),
-                            questionType,
-                            new ArrayList<>()
-                    );
-                    questionMap.put(questionId, question);
-                    // Add the new question to the exam's question list.
-                    exam.getQuestions().add(question);
-
-                }
-
-                Integer optionId = (Integer) row.get("option_id");
-                if (Objects.nonNull(optionId)) {
-                    OptionResponseDTO option = new OptionResponseDTO(
-                            optionId,
-                            questionId,
-                            (String) row.get("option_text")
-                    );
-                    question.getOptions().add(option);
+            List<QuestionResponseDTO> questions = new ArrayList<>(exam.getQuestions().size());
+            for (Question question : exam.getQuestions()) {
+                List<OptionResponseDTO> options = new ArrayList<>(question.getOptions().size());
+                for (Option option : question.getOptions()) {
+                    options.add(new OptionResponseDTO(option.getId(), option.getQuestionId(), option.getOptionText()));
                 }
+                questions.add(new QuestionResponseDTO(question.getId(), question.getExamId(), question.getQuestionText(),
+                        question.getQuestionType(), options));
             }
 
-            LOGGER.log(Level.INFO, "Successfully mapped exam with ID: {0}", examId);
-            return exam;
+            LOGGER.log(Level.FINE, "Successfully mapped exam with ID: {0}", examId);
+            return new ExamResponseDTO(exam.getId(), exam.getTitle(), exam.getDescription(), exam.getDurationMinutes(),
+                    questions);
 
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Database exception while fetching exam details for ID: " + examId, e);
@@ -135,6 +200,38 @@ public class ExamService {
         } catch (IllegalArgumentException e) {
             LOGGER.log(Level.SEVERE, "Invalid question type encountered for exam ID: " + examId, e);
             return null;
+        } finally {
+            releasePermit();
+        }
+    }
+
+    private void acquirePermit() {
+        if (Objects.isNull(dbPermits)) {
+            return;
+        }
+        try (Span span = Tracer.span("db.permit-wait")) {
+            if (!dbPermits.tryAcquire(permitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServerBusyException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerBusyException();
+        }
+    }
+
+    private void releasePermit() {
+        if (Objects.nonNull(dbPermits)) {
+            dbPermits.release();
+        }
+    }
+
+    /**
+     * Signals that an exam had to be loaded from the database but no database permit freed up in time.
+     * Callers answer with 503 so the client retries.
+     */
+    public static class ServerBusyException extends RuntimeException {
+        public ServerBusyException() {
+            super("No database permit available.", null, false, false);
         }
     }
-}
\ No newline at end of file
+}
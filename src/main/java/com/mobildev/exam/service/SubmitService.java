@@ -1,11 +1,19 @@
 package com.mobildev.exam.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobildev.exam.cache.LruCache;
+import com.mobildev.exam.db.DataSourceProvider;
 import com.mobildev.exam.db.DatabaseManager;
 import com.mobildev.exam.dto.ExamResultDTO;
 import com.mobildev.exam.dto.ExamSubmissionDTO;
 import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.logging.LogSampler;
+import com.mobildev.exam.model.AuthenticatedUser;
 import com.mobildev.exam.model.QuestionType;
+import com.mobildev.exam.submission.PendingSubmission;
+import com.mobildev.exam.submission.WriteBehindSubmissionWriter;
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
+import com.mobildev.exam.util.JsonUtil;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -13,10 +21,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -24,177 +34,382 @@ import java.util.logging.Logger;
  * fetching correct answers, scoring, and saving to the database.
  * The core logic is to process a user's submitted answers, score them
  * against the correct answers from the database, and persist the results.
+ * Results are either written synchronously before responding or, when a
+ * write-behind writer is configured, journaled and written in the background.
+ * Each submission is logged as one summary line; answers are never logged individually,
+ * except for a sample of the unknown questions at FINE.
  */
 public class SubmitService {
 
     private static final Logger LOGGER = Logger.getLogger(SubmitService.class.getName());
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DataSourceProvider dataSourceProvider;
+    // Null when submissions are persisted synchronously.
+    private final WriteBehindSubmissionWriter writeBehindWriter;
+    // Compiled answer keys keyed by exam ID, shared across submissions.
+    private final LruCache<Integer, AnswerKey> answerKeyCache;
+    // Decides which debug events, such as unknown questions, are logged at FINE.
+    private final LogSampler debugSampler;
 
     // SQL queries
-    private static final String SQL_GET_USER_ID = "SELECT id FROM users WHERE username = ?";
     private static final String SQL_GET_CORRECT_ANSWERS =
             "SELECT q.id, q.question_type, q.correct_answer, o.id as option_id, o.is_correct " +
                     "FROM questions q LEFT JOIN options o ON q.id = o.question_id " +
                     "WHERE q.exam_id = ?";
     private static final String SQL_INSERT_ANSWER = "INSERT INTO user_answers (user_id, exam_id, question_id, selected_option_id, answer_text) VALUES (?, ?, ?, ?, ?)";
     private static final String SQL_INSERT_RESULT = "INSERT INTO results (user_id, exam_id, score) VALUES (?, ?, ?)";
+    private static final String SQL_INSERT_RESULT_WITH_KEY =
+            "INSERT INTO results (user_id, exam_id, score, idempotency_key) VALUES (?, ?, ?, ?)";
+    private static final String SQL_FIND_RESULT_BY_KEY = "SELECT score FROM results WHERE user_id = ? AND idempotency_key = ?";
 
     // Log messages and error messages
-    private static final String LOG_START_PROCESS = "Starting exam submission process for user: {} (Exam ID: {})";
-    private static final String LOG_USER_ID_FETCHED = "User ID fetched: {}";
-    private static final String LOG_CORRECT_ANSWERS_FETCHED = "{} correct answers fetched for exam ID: {}";
-    private static final String LOG_RAW_SCORE = "Raw score calculated: {} out of {} questions.";
-    private static final String LOG_FINAL_SCORE_SAVED = "Final score saved for user {}: {}";
-    private static final String LOG_PROCESSING_ANSWER = "Processing answer for question ID: {}";
-    private static final String LOG_CORRECT_ANSWER_NOT_FOUND = "Correct answer not found for question ID: {}. Skipping scoring for this question.";
-    private static final String LOG_CURRENT_SCORE = "Current score: {}";
+    private static final String LOG_CORRECT_ANSWERS_FETCHED = "{0} correct answers fetched for exam ID: {1,number,#}";
+    private static final String LOG_SUBMISSION_SUMMARY = "submission user={0} exam={1,number,#} answers={2,number,#} "
+            + "scored={3,number,#} score={4} persisted={5} durationMs={6,number,#.###} request={7}";
+    private static final String LOG_CORRECT_ANSWER_NOT_FOUND = "Correct answer not found for question ID: {0,number,#} "
+            + "in exam {1,number,#}. Skipping scoring for this question.";
+    private static final String PERSISTED_SYNC = "sync";
+    private static final String PERSISTED_DUPLICATE = "duplicate";
     private static final String MSG_SUBMISSION_SUCCESS = "Exam submitted and scored successfully.";
-    private static final String ERR_USERNAME_NOT_FOUND = "Username not found in '%s' database.";
 
     // Constants for scoring logic
     private static final double CORRECT_ANSWER_SCORE = 1.0;
     private static final double INCORRECT_ANSWER_SCORE = 0.0;
     private static final double TOTAL_SCORE_MULTIPLIER = 100.0;
     private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_UP;
+    private static final int DEFAULT_ANSWER_KEY_CACHE_CAPACITY = 256;
+
+    /**
+     * Creates a service that persists every submission before responding.
+     */
+    public SubmitService() {
+        this(DatabaseManager.getDefaultProvider(), null, DEFAULT_ANSWER_KEY_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates a service with the given persistence mode and answer key cache size.
+     *
+     * @param dataSourceProvider     The provider of the connections. Answer keys are loaded on read connections.
+     * @param writeBehindWriter      The writer persisting submissions asynchronously, or null to persist synchronously.
+     * @param answerKeyCacheCapacity The maximum number of exam answer keys kept in memory.
+     */
+    public SubmitService(DataSourceProvider dataSourceProvider, WriteBehindSubmissionWriter writeBehindWriter,
+                         int answerKeyCacheCapacity) {
+        this(dataSourceProvider, writeBehindWriter, answerKeyCacheCapacity, new LogSampler(LogSampler.DEFAULT_RATE));
+    }
+
+    /**
+     * Creates a service with the given persistence mode, answer key cache size and debug log sampling.
+     *
+     * @param dataSourceProvider     The provider of the connections. Answer keys are loaded on read connections.
+     * @param writeBehindWriter      The writer persisting submissions asynchronously, or null to persist synchronously.
+     * @param answerKeyCacheCapacity The maximum number of exam answer keys kept in memory.
+     * @param debugSampler           The sampler deciding which debug events are logged at FINE.
+     */
+    public SubmitService(DataSourceProvider dataSourceProvider, WriteBehindSubmissionWriter writeBehindWriter,
+                         int answerKeyCacheCapacity, LogSampler debugSampler) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.writeBehindWriter = writeBehindWriter;
+        this.answerKeyCache = new LruCache<>(answerKeyCacheCapacity);
+        this.debugSampler = debugSampler;
+    }
 
     /**
      * The main entry point for processing an exam submission.
-     * It orchestrates fetching user ID, retrieving correct answers,
-     * scoring the submission, and saving the final result.
+     * It orchestrates retrieving correct answers, scoring the submission,
+     * and saving the final result. The user ID comes from the caller's token.
+     * In synchronous mode the whole submission runs on one pooled connection in one transaction.
      *
-     * @param username   The username of the submitting user.
+     * @param principal  The authenticated user submitting the exam.
      * @param examId     The ID of the exam being submitted.
      * @param submission The DTO containing the user's answers.
      * @return A JSON string representing the exam result.
      * @throws SQLException If a database access error occurs.
      * @throws IOException  If an error occurs while serializing the response.
      */
-    public String processExamSubmission(String username, int examId, ExamSubmissionDTO submission)
+    public String processExamSubmission(AuthenticatedUser principal, int examId, ExamSubmissionDTO submission)
             throws SQLException, IOException {
+        return processExamSubmission(principal, examId, submission, null);
+    }
 
-        LOGGER.info(LOG_START_PROCESS.replace("{}", username).replace("{}", String.valueOf(examId)));
+    /**
+     * Processes an exam submission carrying a client-chosen idempotency key.
+     * In synchronous mode the key is saved with the result under a unique constraint on the user and the key,
+     * so a retry that reaches the database again, e.g. after a restart, returns the original score without
+     * saving anything. In write-behind mode the key is journaled with the submission and the background writer
+     * skips it if a result with the key is already saved; the retry is still acknowledged with its own score.
+     *
+     * @param principal      The authenticated user submitting the exam.
+     * @param examId         The ID of the exam being submitted.
+     * @param submission     The DTO containing the user's answers.
+     * @param idempotencyKey The idempotency key, or null if the client sent none.
+     * @return A JSON string representing the exam result.
+     * @throws SQLException If a database access error occurs.
+     * @throws IOException  If an error occurs while serializing the response.
+     */
+    public String processExamSubmission(AuthenticatedUser principal, int examId, ExamSubmissionDTO submission,
+                                        String idempotencyKey) throws SQLException, IOException {
+
+        long startNanos = System.nanoTime();
+        ExamResultDTO resultDto = Objects.nonNull(writeBehindWriter)
+                ? submitWriteBehind(principal, examId, submission, idempotencyKey, startNanos)
+                : submitSynchronously(principal, examId, submission, idempotencyKey, startNanos);
+
+        // Convert the result DTO to a JSON string
+        try (Span span = Tracer.span("submit.serialize")) {
+            return JsonUtil.getExamResultWriter().writeValueAsString(resultDto);
+        }
+    }
+
+    /**
+     * Scores and saves a submission on a single connection within one transaction.
+     */
+    private ExamResultDTO submitSynchronously(AuthenticatedUser principal, int examId, ExamSubmissionDTO submission,
+                                              String idempotencyKey, long startNanos) throws SQLException {
+        int userId = principal.getUserId();
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                AnswerKey answerKey = getAnswerKey(examId, id -> loadAnswerKey(conn, id));
 
-        // Get user ID from username
-        int userId = getUserIdFromUsername(username);
-        LOGGER.info(LOG_USER_ID_FETCHED.replace("{}", String.valueOf(userId)));
+                List<UserAnswerSubmissionDTO> scoredAnswers = new ArrayList<>(submission.getAnswers().size());
+                double finalScore = calculateFinalScore(submission.getAnswers(), answerKey, scoredAnswers);
 
-        try (Connection conn = DatabaseManager.getConnection()) {
-            double score = INCORRECT_ANSWER_SCORE;
-            int totalQuestions = submission.getAnswers().size();
+                // Save the final score and user answers before responding. The result goes first so a
+                // duplicate idempotency key fails before any answer is written.
+                saveResult(conn, userId, examId, finalScore, idempotencyKey);
+                saveUserAnswers(conn, userId, examId, scoredAnswers);
+                try (Span span = Tracer.span("submit.commit")) {
+                    conn.commit();
+                }
+                dataSourceProvider.markWritten(userId);
 
-            // Fetch correct answers for the exam from the database
-            Map<Integer, Map<String, Object>> correctAnswersMap = getCorrectAnswers(conn, examId);
-            LOGGER.info(LOG_CORRECT_ANSWERS_FETCHED.replace("{}", String.valueOf(correctAnswersMap.size())).replace("{}", String.valueOf(examId)));
+                BigDecimal roundedScore = new BigDecimal(finalScore).setScale(2, ROUNDING_MODE);
+                logSummary(principal, examId, submission.getAnswers().size(), scoredAnswers.size(), roundedScore,
+                        PERSISTED_SYNC, startNanos);
+                return new ExamResultDTO(MSG_SUBMISSION_SUCCESS, roundedScore);
+            } catch (SQLIntegrityConstraintViolationException e) {
+                conn.rollback();
+                BigDecimal savedScore = Objects.nonNull(idempotencyKey) ? findResultScore(conn, userId, idempotencyKey) : null;
+                if (Objects.isNull(savedScore)) {
+                    throw e;
+                }
+                logSummary(principal, examId, submission.getAnswers().size(), 0, savedScore, PERSISTED_DUPLICATE, startNanos);
+                return new ExamResultDTO(MSG_SUBMISSION_SUCCESS, savedScore);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
 
-            // Save user answers and calculate the score
-            score = saveUserAnswersAndScore(conn, userId, examId, submission.getAnswers(), correctAnswersMap);
-            LOGGER.info(LOG_RAW_SCORE.replace("{}", String.valueOf(score)).replace("{}", String.valueOf(totalQuestions)));
+    /**
+     * Scores a submission and hands it to the write-behind writer.
+     * A connection is borrowed only if the answer key is not cached yet.
+     */
+    private ExamResultDTO submitWriteBehind(AuthenticatedUser principal, int examId, ExamSubmissionDTO submission,
+                                            String idempotencyKey, long startNanos) throws SQLException, IOException {
+        AnswerKey answerKey = getAnswerKey(examId, this::loadAnswerKey);
 
-            // Calculate final score based on the total score and save it
-            double finalScore = totalQuestions > 0 ? (score / totalQuestions) * TOTAL_SCORE_MULTIPLIER : INCORRECT_ANSWER_SCORE;
-            saveResult(conn, userId, examId, finalScore);
-            LOGGER.info(LOG_FINAL_SCORE_SAVED.replace("{}", username).replace("{}", String.valueOf(finalScore)));
+        List<UserAnswerSubmissionDTO> scoredAnswers = new ArrayList<>(submission.getAnswers().size());
+        double finalScore = calculateFinalScore(submission.getAnswers(), answerKey, scoredAnswers);
+        BigDecimal roundedScore = new BigDecimal(finalScore).setScale(2, ROUNDING_MODE);
 
-            // Create the result DTO and convert it to a JSON string
-            ExamResultDTO resultDto = new ExamResultDTO(
-                    MSG_SUBMISSION_SUCCESS,
-                    new BigDecimal(finalScore).setScale(2, ROUNDING_MODE)
-            );
-            return objectMapper.writeValueAsString(resultDto);
+        // Journal the submission and let the background writer persist it
+        String submissionId = UUID.randomUUID().toString();
+        try (Span span = Tracer.span("submit.enqueue")) {
+            writeBehindWriter.submit(new PendingSubmission(submissionId, idempotencyKey, principal.getUserId(), examId,
+                    roundedScore, scoredAnswers));
         }
+        logSummary(principal, examId, submission.getAnswers().size(), scoredAnswers.size(), roundedScore,
+                submissionId, startNanos);
+        return new ExamResultDTO(MSG_SUBMISSION_SUCCESS, roundedScore, submissionId);
     }
 
     /**
-     * Gets the user ID from the username from the database.
+     * Reads the score saved by an earlier submission with the same idempotency key.
      *
-     * @param username The username to look up.
-     * @return The user ID.
-     * @throws SQLException             If a database access error occurs.
-     * @throws IllegalArgumentException If the username is not found.
+     * @return The score, or null if no result was saved with the key.
      */
-    private int getUserIdFromUsername(String username) throws SQLException {
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(SQL_GET_USER_ID)) {
-            stmt.setString(1, username);
+    private BigDecimal findResultScore(Connection conn, int userId, String idempotencyKey) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(SQL_FIND_RESULT_BY_KEY)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, idempotencyKey);
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("id");
-                }
+                return rs.next() ? rs.getBigDecimal(1) : null;
             }
         }
-        throw new IllegalArgumentException(String.format(ERR_USERNAME_NOT_FOUND, username));
+    }
+
+    private Connection getConnection() throws SQLException {
+        try (Span span = Tracer.span("db.get-connection")) {
+            return dataSourceProvider.getConnection();
+        }
+    }
+
+    // The span covers cache hits as well, so a slow load shows up next to the fast ones.
+    private AnswerKey getAnswerKey(int examId, LruCache.Loader<Integer, AnswerKey, SQLException> loader) throws SQLException {
+        try (Span span = Tracer.span("submit.answer-key")) {
+            // An empty key is not cached: the exam may not exist or may still be getting its questions,
+            // and unknown exam IDs must not evict the keys of real exams.
+            AnswerKey answerKey = answerKeyCache.get(examId, id -> {
+                AnswerKey loaded = loader.load(id);
+                return loaded.size() > 0 ? loaded : null;
+            });
+            return Objects.nonNull(answerKey) ? answerKey : AnswerKey.builder(examId).build();
+        }
+    }
+
+    /**
+     * Logs the one summary line of a submission. Arguments are only boxed when INFO is enabled.
+     *
+     * @param persisted {@code sync}, or the ID under which the submission was queued for the write-behind writer.
+     */
+    private static void logSummary(AuthenticatedUser principal, int examId, int answers, int scored,
+                                   BigDecimal score, String persisted, long startNanos) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, LOG_SUBMISSION_SUMMARY, new Object[]{principal.getUsername(), examId, answers,
+                    scored, score.toPlainString(), persisted, (System.nanoTime() - startNanos) / 1_000_000.0,
+                    Objects.requireNonNullElse(Tracer.currentRequestId(), "-")});
+        }
+    }
+
+    /**
+     * Drops the cached answer key of an exam so that the next submission reloads it.
+     * Must be called whenever the exam's questions or options are modified.
+     *
+     * @param examId The ID of the modified exam.
+     */
+    public void invalidateAnswerKey(int examId) {
+        answerKeyCache.invalidate(examId);
+    }
+
+    /**
+     * Drops every cached answer key.
+     */
+    public void invalidateAllAnswerKeys() {
+        answerKeyCache.invalidateAll();
+    }
+
+    /**
+     * Exposes the answer key cache for monitoring its hit, miss and eviction counters.
+     */
+    public LruCache<Integer, AnswerKey> getAnswerKeyCache() {
+        return answerKeyCache;
+    }
+
+    /**
+     * Fetches the correct answers for a given exam on a connection of its own.
+     *
+     * @param examId The ID of the exam.
+     * @return The compiled answer key of the exam.
+     * @throws SQLException If a database access error occurs.
+     */
+    private AnswerKey loadAnswerKey(int examId) throws SQLException {
+        try (Connection conn = dataSourceProvider.getReadConnection()) {
+            return loadAnswerKey(conn, examId);
+        }
     }
 
     /**
      * Fetches the correct answers for a given exam from the database.
      * The method handles different question types (Classic and Multiple Choice)
-     * and stores the relevant correct answer data in a map.
+     * and compiles the relevant correct answer data into an AnswerKey.
      *
      * @param conn   The active database connection.
      * @param examId The ID of the exam.
-     * @return A map where the key is the question ID and the value is a map
-     * containing the question type and the correct answer.
+     * @return The compiled answer key of the exam.
      * @throws SQLException If a database access error occurs.
      */
-    private Map<Integer, Map<String, Object>> getCorrectAnswers(Connection conn, int examId) throws SQLException {
-        Map<Integer, Map<String, Object>> correctAnswersMap = new HashMap<>();
+    private AnswerKey loadAnswerKey(Connection conn, int examId) throws SQLException {
+        AnswerKey.Builder builder = AnswerKey.builder(examId);
         try (PreparedStatement stmt = conn.prepareStatement(SQL_GET_CORRECT_ANSWERS)) {
             stmt.setInt(1, examId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     int questionId = rs.getInt("id");
-                    Map<String, Object> questionData = correctAnswersMap.computeIfAbsent(questionId, k -> new HashMap<>());
-                    String questionType = rs.getString("question_type");
-                    questionData.put("type", questionType);
-
-                    // Add the correct answer to the map based on the question type
-                    if (QuestionType.CLASSIC.name().equals(questionType)) {
-                        questionData.put("correctAnswerText", rs.getString("correct_answer"));
-                    } else if (QuestionType.MULTIPLE_CHOICE.name().equals(questionType)) {
-                        if (rs.getBoolean("is_correct")) {
-                            questionData.put("correctOptionId", rs.getInt("option_id"));
-                        }
+                    QuestionType questionType = QuestionType.valueOf(rs.getString("question_type"));
+                    builder.addQuestion(questionId, questionType, rs.getString("correct_answer"));
+
+                    // Record the correct option of multiple-choice questions
+                    if (questionType == QuestionType.MULTIPLE_CHOICE && rs.getBoolean("is_correct")) {
+                        builder.setCorrectOption(questionId, rs.getInt("option_id"));
                     }
                 }
             }
         }
-        return correctAnswersMap;
+        AnswerKey answerKey = builder.build();
+        LOGGER.log(Level.FINE, LOG_CORRECT_ANSWERS_FETCHED, new Object[]{answerKey.size(), examId});
+        return answerKey;
     }
 
     /**
-     * Saves user's answers to the database and calculates the score.
+     * Scores the answers and converts the raw score to a percentage of the answered questions.
+     *
+     * @param answers       A list of user's answers.
+     * @param answerKey     The answer key of the exam.
+     * @param scoredAnswers Receives the answers that belong to the exam and should be saved.
+     * @return The final score.
+     */
+    public double calculateFinalScore(List<UserAnswerSubmissionDTO> answers, AnswerKey answerKey,
+                                       List<UserAnswerSubmissionDTO> scoredAnswers) {
+        int totalQuestions = answers.size();
+        double score;
+        try (Span span = Tracer.span("submit.score")) {
+            score = scoreAnswers(answers, answerKey, scoredAnswers);
+        }
+        return totalQuestions > 0 ? (score / totalQuestions) * TOTAL_SCORE_MULTIPLIER : INCORRECT_ANSWER_SCORE;
+    }
+
+    /**
+     * Calculates the score of the user's answers.
      * This method iterates through each user answer, checks it against the
-     * correct answers map, and updates the score.
+     * compiled answer key, and updates the score.
      *
-     * @param conn              The active database connection.
-     * @param userId            The ID of the user.
-     * @param examId            The ID of the exam.
-     * @param answers           A list of user's answers.
-     * @param correctAnswersMap A map of correct answers for scoring.
+     * @param answers       A list of user's answers.
+     * @param answerKey     The answer key of the exam.
+     * @param scoredAnswers Receives the answers that belong to the exam and should be saved.
      * @return The total score.
-     * @throws SQLException If a database access error occurs.
      */
-    private double saveUserAnswersAndScore(Connection conn, int userId, int examId, List<UserAnswerSubmissionDTO> answers, Map<Integer, Map<String, Object>> correctAnswersMap) throws SQLException {
+    private double scoreAnswers(List<UserAnswerSubmissionDTO> answers, AnswerKey answerKey,
+                                List<UserAnswerSubmissionDTO> scoredAnswers) {
         double score = INCORRECT_ANSWER_SCORE;
-        try (PreparedStatement insertStmt = conn.prepareStatement(SQL_INSERT_ANSWER)) {
-            for (UserAnswerSubmissionDTO userAnswer : answers) {
-                int questionId = userAnswer.getQuestionId();
-                LOGGER.info(LOG_PROCESSING_ANSWER.replace("{}", String.valueOf(questionId)));
-
-                Map<String, Object> correctData = correctAnswersMap.get(questionId);
-                if (Objects.isNull(correctData)) {
-                    LOGGER.warning(LOG_CORRECT_ANSWER_NOT_FOUND.replace("{}", String.valueOf(questionId)));
-                    continue;
+        for (UserAnswerSubmissionDTO userAnswer : answers) {
+            int questionId = userAnswer.getQuestionId();
+            int index = answerKey.indexOf(questionId);
+            if (index < 0) {
+                // Counted in the summary line as answers - scored; a sample is logged for debugging.
+                if (debugSampler.isLoggable(LOGGER, Level.FINE)) {
+                    LOGGER.log(Level.FINE, LOG_CORRECT_ANSWER_NOT_FOUND, new Object[]{questionId, answerKey.getExamId()});
                 }
+                continue;
+            }
 
-                // Calculate the score based on the question type
-                score += calculateScoreForQuestion(userAnswer, correctData);
-                LOGGER.info(LOG_CURRENT_SCORE.replace("{}", String.valueOf(score)));
+            // Calculate the score based on the question type
+            score += answerKey.isCorrect(index, userAnswer.getSelectedOptionId(), userAnswer.getAnswerText())
+                    ? CORRECT_ANSWER_SCORE : INCORRECT_ANSWER_SCORE;
+            scoredAnswers.add(userAnswer);
+        }
+        return score;
+    }
 
-                // Save the answer to the database
+    /**
+     * Saves user's answers to the database in a single batch.
+     *
+     * @param conn    The active database connection.
+     * @param userId  The ID of the user.
+     * @param examId  The ID of the exam.
+     * @param answers The scored answers to save.
+     * @throws SQLException If a database access error occurs.
+     */
+    private void saveUserAnswers(Connection conn, int userId, int examId, List<UserAnswerSubmissionDTO> answers) throws SQLException {
+        try (Span span = Tracer.span("submit.save-answers");
+             PreparedStatement insertStmt = conn.prepareStatement(SQL_INSERT_ANSWER)) {
+            for (UserAnswerSubmissionDTO userAnswer : answers) {
                 insertStmt.setInt(1, userId);
                 insertStmt.setInt(2, examId);
-                insertStmt.setInt(3, questionId);
+                insertStmt.setInt(3, userAnswer.getQuestionId());
                 if (Objects.nonNull(userAnswer.getSelectedOptionId())) {
                     insertStmt.setInt(4, userAnswer.getSelectedOptionId());
                 } else {
@@ -205,66 +420,31 @@ public class SubmitService {
             }
             insertStmt.executeBatch();
         }
-        return score;
-    }
-
-    /**
-     * Calculates the score for a single question based on its type and correct answer.
-     * This helper method encapsulates the scoring logic for different question types.
-     *
-     * @param userAnswer  The user's submitted answer.
-     * @param correctData The correct answer data for the question.
-     * @return 1.0 if the answer is correct, otherwise 0.0.
-     */
-    private double calculateScoreForQuestion(UserAnswerSubmissionDTO userAnswer, Map<String, Object> correctData) {
-        String questionType = (String) correctData.get("type");
-        if (QuestionType.CLASSIC.name().equals(questionType)) {
-            return scoreClassicQuestion(userAnswer, (String) correctData.get("correctAnswerText"));
-        } else if (QuestionType.MULTIPLE_CHOICE.name().equals(questionType)) {
-            return scoreMultipleChoiceQuestion(userAnswer, (Integer) correctData.get("correctOptionId"));
-        }
-        return INCORRECT_ANSWER_SCORE;
     }
 
-    /**
-     * Scores a classic type question.
-     */
-    private double scoreClassicQuestion(UserAnswerSubmissionDTO userAnswer, String correctAnswerText) {
-        if (Objects.nonNull(userAnswer.getAnswerText()) &&
-                Objects.nonNull(correctAnswerText) &&
-                correctAnswerText.equalsIgnoreCase(userAnswer.getAnswerText())) {
-            return CORRECT_ANSWER_SCORE;
-        }
-        return INCORRECT_ANSWER_SCORE;
-    }
-
-    /**
-     * Scores a multiple-choice type question.
-     */
-    private double scoreMultipleChoiceQuestion(UserAnswerSubmissionDTO userAnswer, Integer correctOptionId) {
-        if (Objects.nonNull(userAnswer.getSelectedOptionId()) &&
-                Objects.nonNull(correctOptionId) &&
-                correctOptionId.equals(userAnswer.getSelectedOptionId())) {
-            return CORRECT_ANSWER_SCORE;
-        }
-        return INCORRECT_ANSWER_SCORE;
-    }
-
-
     /**
      * Saves the final score of the exam to the results table.
      *
-     * @param conn       The active database connection.
-     * @param userId     The ID of the user.
-     * @param examId     The ID of the exam.
-     * @param finalScore The final calculated score.
+     * @param conn           The active database connection.
+     * @param userId         The ID of the user.
+     * @param examId         The ID of the exam.
+     * @param finalScore     The final calculated score.
+     * @param idempotencyKey The client's idempotency key, or null.
+     * @throws SQLIntegrityConstraintViolationException If the user already saved a result with the key.
      * @throws SQLException If a database access error occurs.
      */
-    private void saveResult(Connection conn, int userId, int examId, double finalScore) throws SQLException {
-        try (PreparedStatement resultStmt = conn.prepareStatement(SQL_INSERT_RESULT)) {
+    private void saveResult(Connection conn, int userId, int examId, double finalScore, String idempotencyKey)
+            throws SQLException {
+        try (Span span = Tracer.span("submit.save-result");
+             // Submissions without a key keep working on databases without the idempotency_key column.
+             PreparedStatement resultStmt = conn.prepareStatement(
+                     Objects.isNull(idempotencyKey) ? SQL_INSERT_RESULT : SQL_INSERT_RESULT_WITH_KEY)) {
             resultStmt.setInt(1, userId);
             resultStmt.setInt(2, examId);
             resultStmt.setBigDecimal(3, new BigDecimal(finalScore).setScale(2, ROUNDING_MODE));
+            if (Objects.nonNull(idempotencyKey)) {
+                resultStmt.setString(4, idempotencyKey);
+            }
             resultStmt.executeUpdate();
         }
     }
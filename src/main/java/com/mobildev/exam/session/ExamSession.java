@@ -0,0 +1,209 @@
+package com.mobildev.exam.session;
+
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The server-side state of one candidate taking one exam: the deadline and the latest answer to each question.
+ * Instances are not thread-safe; they are only accessed under the stripe lock of their {@link ExamSessionStore}.
+ * Changes are tracked so that the periodic flush writes only what changed since the previous flush.
+ */
+public final class ExamSession {
+    /**
+     * The deadline of an exam without a duration.
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final String id;
+    private final int userId;
+    private final int examId;
+    private final long startedAtMillis;
+    private final long expiresAtMillis;
+    // Sorted IDs of the exam's questions, so answers to other questions are rejected without a lookup.
+    private final int[] questionIds;
+    private final Map<Integer, UserAnswerSubmissionDTO> answers = new HashMap<>();
+    private final Set<Integer> dirtyQuestionIds = new HashSet<>();
+    private SessionStatus status = SessionStatus.ACTIVE;
+    private boolean rowDirty;
+    private long lastAccessMillis;
+
+    ExamSession(String id, int userId, int examId, long startedAtMillis, long expiresAtMillis, int[] questionIds) {
+        this.id = id;
+        this.userId = userId;
+        this.examId = examId;
+        this.startedAtMillis = startedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.questionIds = questionIds.clone();
+        Arrays.sort(this.questionIds);
+        this.lastAccessMillis = startedAtMillis;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getExamId() {
+        return examId;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    /**
+     * @return The end of the exam's duration, or {@link #NO_DEADLINE}.
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public SessionStatus getStatus() {
+        return status;
+    }
+
+    boolean hasQuestion(int questionId) {
+        return Arrays.binarySearch(questionIds, questionId) >= 0;
+    }
+
+    /**
+     * Replaces the answer to a question and marks it for the next flush.
+     */
+    void putAnswer(UserAnswerSubmissionDTO answer) {
+        answers.put(answer.getQuestionId(), answer);
+        dirtyQuestionIds.add(answer.getQuestionId());
+    }
+
+    /**
+     * Restores an answer read from the database, without marking it for the next flush.
+     */
+    void loadAnswer(UserAnswerSubmissionDTO answer) {
+        answers.put(answer.getQuestionId(), answer);
+    }
+
+    /**
+     * @return A copy of the answers in question ID order.
+     */
+    List<UserAnswerSubmissionDTO> copyAnswers() {
+        List<UserAnswerSubmissionDTO> copy = new ArrayList<>(answers.values());
+        copy.sort((a, b) -> Integer.compare(a.getQuestionId(), b.getQuestionId()));
+        return copy;
+    }
+
+    void setStatus(SessionStatus status) {
+        this.status = status;
+        this.rowDirty = true;
+    }
+
+    /**
+     * Marks the session row for the next flush, e.g. because it was never written.
+     */
+    void markRowDirty() {
+        this.rowDirty = true;
+    }
+
+    boolean isDirty() {
+        return rowDirty || !dirtyQuestionIds.isEmpty();
+    }
+
+    void touch(long nowMillis) {
+        this.lastAccessMillis = nowMillis;
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /**
+     * Takes the changes since the previous flush and resets the change tracking.
+     */
+    Delta takeDelta() {
+        List<UserAnswerSubmissionDTO> changed = new ArrayList<>(dirtyQuestionIds.size());
+        for (Integer questionId : dirtyQuestionIds) {
+            changed.add(answers.get(questionId));
+        }
+        // A submission in progress is stored as active, so it can be retried after a crash.
+        SessionStatus storedStatus = status == SessionStatus.SUBMITTED ? SessionStatus.SUBMITTED : SessionStatus.ACTIVE;
+        Delta delta = new Delta(this, rowDirty, storedStatus, changed);
+        rowDirty = false;
+        dirtyQuestionIds.clear();
+        return delta;
+    }
+
+    /**
+     * Marks the changes of a delta that could not be written again, unless they were replaced meanwhile.
+     */
+    void restore(Delta delta) {
+        rowDirty |= delta.isRowChanged();
+        for (UserAnswerSubmissionDTO answer : delta.getAnswers()) {
+            dirtyQuestionIds.add(answer.getQuestionId());
+        }
+    }
+
+    /**
+     * The changes of one session taken by a flush.
+     */
+    static final class Delta {
+        private final String sessionId;
+        private final int userId;
+        private final int examId;
+        private final long startedAtMillis;
+        private final long expiresAtMillis;
+        private final boolean rowChanged;
+        private final SessionStatus status;
+        private final List<UserAnswerSubmissionDTO> answers;
+
+        private Delta(ExamSession session, boolean rowChanged, SessionStatus status,
+                      List<UserAnswerSubmissionDTO> answers) {
+            this.sessionId = session.id;
+            this.userId = session.userId;
+            this.examId = session.examId;
+            this.startedAtMillis = session.startedAtMillis;
+            this.expiresAtMillis = session.expiresAtMillis;
+            this.rowChanged = rowChanged;
+            this.status = status;
+            this.answers = answers;
+        }
+
+        String getSessionId() {
+            return sessionId;
+        }
+
+        int getUserId() {
+            return userId;
+        }
+
+        int getExamId() {
+            return examId;
+        }
+
+        long getStartedAtMillis() {
+            return startedAtMillis;
+        }
+
+        long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        boolean isRowChanged() {
+            return rowChanged;
+        }
+
+        SessionStatus getStatus() {
+            return status;
+        }
+
+        List<UserAnswerSubmissionDTO> getAnswers() {
+            return answers;
+        }
+    }
+}
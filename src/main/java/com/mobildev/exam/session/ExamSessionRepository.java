@@ -0,0 +1,172 @@
+package com.mobildev.exam.session;
+
+import com.mobildev.exam.db.DataSourceProvider;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Tracer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Reads and writes exam sessions and their saved answers. Sessions are read with
+ * {@link DataSourceProvider#getReadConnection(int)} for the requesting user: every flush marks its users
+ * as written, so a session flushed moments ago is read from the primary until the replicas have it.
+ * A session stays in memory for at least one flush after its last change, so reads never miss memory
+ * and a lagging replica at the same time.
+ */
+public class ExamSessionRepository {
+
+    private static final String SQL_UPSERT_SESSION =
+            "INSERT INTO exam_sessions (id, user_id, exam_id, started_at_ms, expires_at_ms, status) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE status = VALUES(status)";
+    private static final String SQL_UPSERT_ANSWER =
+            "INSERT INTO exam_session_answers (session_id, question_id, selected_option_id, answer_text) " +
+                    "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                    "selected_option_id = VALUES(selected_option_id), answer_text = VALUES(answer_text)";
+    private static final String SQL_FIND_SESSION =
+            "SELECT id, user_id, exam_id, started_at_ms, expires_at_ms, status FROM exam_sessions WHERE id = ?";
+    private static final String SQL_FIND_ACTIVE_SESSION =
+            "SELECT id, user_id, exam_id, started_at_ms, expires_at_ms, status FROM exam_sessions " +
+                    "WHERE user_id = ? AND exam_id = ? AND status = 'ACTIVE' ORDER BY started_at_ms DESC LIMIT 1";
+    private static final String SQL_FIND_ANSWERS =
+            "SELECT question_id, selected_option_id, answer_text FROM exam_session_answers WHERE session_id = ?";
+
+    private final DataSourceProvider dataSourceProvider;
+
+    public ExamSessionRepository(DataSourceProvider dataSourceProvider) {
+        this.dataSourceProvider = dataSourceProvider;
+    }
+
+    /**
+     * Writes the changes of many sessions in one transaction: the session rows first, then the answers.
+     *
+     * @param deltas The changes taken from the store.
+     * @throws SQLException if the changes could not be written; none of them are.
+     */
+    void write(List<ExamSession.Delta> deltas) throws SQLException {
+        try (Connection conn = dataSourceProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement sessionStmt = conn.prepareStatement(SQL_UPSERT_SESSION);
+                 PreparedStatement answerStmt = conn.prepareStatement(SQL_UPSERT_ANSWER)) {
+                boolean hasSessions = false;
+                boolean hasAnswers = false;
+                for (ExamSession.Delta delta : deltas) {
+                    if (delta.isRowChanged()) {
+                        sessionStmt.setString(1, delta.getSessionId());
+                        sessionStmt.setInt(2, delta.getUserId());
+                        sessionStmt.setInt(3, delta.getExamId());
+                        sessionStmt.setLong(4, delta.getStartedAtMillis());
+                        sessionStmt.setLong(5, delta.getExpiresAtMillis());
+                        sessionStmt.setString(6, delta.getStatus().name());
+                        sessionStmt.addBatch();
+                        hasSessions = true;
+                    }
+                    for (UserAnswerSubmissionDTO answer : delta.getAnswers()) {
+                        answerStmt.setString(1, delta.getSessionId());
+                        answerStmt.setInt(2, answer.getQuestionId());
+                        if (Objects.nonNull(answer.getSelectedOptionId())) {
+                            answerStmt.setInt(3, answer.getSelectedOptionId());
+                        } else {
+                            answerStmt.setNull(3, Types.INTEGER);
+                        }
+                        answerStmt.setString(4, answer.getAnswerText());
+                        answerStmt.addBatch();
+                        hasAnswers = true;
+                    }
+                }
+                if (hasSessions) {
+                    sessionStmt.executeBatch();
+                }
+                if (hasAnswers) {
+                    answerStmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        Set<Integer> userIds = new HashSet<>();
+        for (ExamSession.Delta delta : deltas) {
+            if (userIds.add(delta.getUserId())) {
+                dataSourceProvider.markWritten(delta.getUserId());
+            }
+        }
+    }
+
+    /**
+     * Loads a session with its saved answers.
+     *
+     * @param sessionId   The session ID.
+     * @param userId      The requesting user, whose recent writes must be visible.
+     * @param questionIds Returns the question IDs of an exam.
+     * @return The session, or null if it does not exist.
+     * @throws SQLException if a database access error occurs.
+     */
+    ExamSession findById(String sessionId, int userId, IntFunction<int[]> questionIds) throws SQLException {
+        try (Span span = Tracer.span("db.find-session");
+             Connection conn = dataSourceProvider.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(SQL_FIND_SESSION)) {
+            stmt.setString(1, sessionId);
+            return readSession(conn, stmt, questionIds);
+        }
+    }
+
+    /**
+     * Loads the latest session of a user for an exam that was not submitted yet, with its saved answers.
+     *
+     * @return The session, or null if there is none.
+     * @throws SQLException if a database access error occurs.
+     */
+    ExamSession findActive(int userId, int examId, IntFunction<int[]> questionIds) throws SQLException {
+        try (Span span = Tracer.span("db.find-active-session");
+             Connection conn = dataSourceProvider.getReadConnection(userId);
+             PreparedStatement stmt = conn.prepareStatement(SQL_FIND_ACTIVE_SESSION)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, examId);
+            return readSession(conn, stmt, questionIds);
+        }
+    }
+
+    private ExamSession readSession(Connection conn, PreparedStatement stmt, IntFunction<int[]> questionIds)
+            throws SQLException {
+        ExamSession session;
+        SessionStatus status;
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            int examId = rs.getInt(3);
+            session = new ExamSession(rs.getString(1), rs.getInt(2), examId, rs.getLong(4), rs.getLong(5),
+                    questionIds.apply(examId));
+            status = SessionStatus.valueOf(rs.getString(6));
+        }
+        if (status == SessionStatus.SUBMITTED) {
+            session.setStatus(status);
+            // Already stored; nothing to flush.
+            session.takeDelta();
+        }
+
+        try (PreparedStatement answerStmt = conn.prepareStatement(SQL_FIND_ANSWERS)) {
+            answerStmt.setString(1, session.getId());
+            try (ResultSet rs = answerStmt.executeQuery()) {
+                while (rs.next()) {
+                    int selectedOptionId = rs.getInt(2);
+                    Integer selected = rs.wasNull() ? null : selectedOptionId;
+                    session.loadAnswer(new UserAnswerSubmissionDTO(rs.getInt(1), selected, rs.getString(3)));
+                }
+            }
+        }
+        return session;
+    }
+}
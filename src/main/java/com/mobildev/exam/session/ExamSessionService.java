@@ -0,0 +1,423 @@
+package com.mobildev.exam.session;
+
+import com.mobildev.exam.dto.ExamResponseDTO;
+import com.mobildev.exam.dto.ExamSessionDTO;
+import com.mobildev.exam.dto.ExamSubmissionDTO;
+import com.mobildev.exam.dto.QuestionResponseDTO;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.service.ExamService;
+import com.mobildev.exam.service.SubmitService;
+import com.mobildev.exam.submission.SubmissionDeduplicator;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs timed exam sessions. A session is started once per exam, receives each answer as a small
+ * autosave while the candidate works, and is finally submitted without resending the answers:
+ * the server scores the answers it already holds.
+ * <p>
+ * Sessions live in an {@link ExamSessionStore}, so an autosave costs one stripe lock and no database
+ * round trip. A background thread writes the changed sessions and answers in one batched transaction
+ * per flush interval. Sessions that are not in memory, e.g. after a restart or an eviction, are
+ * reloaded from the database on their next use; at most the last flush interval of autosaves is lost
+ * in a crash.
+ * <p>
+ * The deadline is the start plus the exam's duration. Autosaves are accepted until the deadline plus
+ * a grace period for requests in flight; submitting is allowed at any time and scores what was saved.
+ * The session ID doubles as the idempotency key of the submit, so a retried submit returns the original result.
+ */
+public class ExamSessionService {
+
+    private static final Logger LOGGER = Logger.getLogger(ExamSessionService.class.getName());
+    private static final int START_LOCK_STRIPES = 64;
+    // Marks a session that is not in memory, as opposed to an action returning null.
+    private static final Object ABSENT = new Object();
+
+    private final ExamSessionRepository repository;
+    private final ExamService examService;
+    private final SubmitService submitService;
+    private final ExamSessionStore store;
+    // Null when submit retries are only detected by the database.
+    private final SubmissionDeduplicator deduplicator;
+    private final long graceMillis;
+    private final long idleEvictMillis;
+    // The current time in milliseconds; a parameter so tests can move past deadlines.
+    private final LongSupplier clock;
+    // Sessions not submitted yet, by user and exam, so starting an exam again resumes its session.
+    private final Map<Long, String> activeSessions = new ConcurrentHashMap<>();
+    // Serializes the starts of one user and exam, which may read the database, without holding a store stripe.
+    private final StripedLock startLocks = new StripedLock(START_LOCK_STRIPES);
+    private final ScheduledExecutorService flusher;
+    private final LongAdder flushedCount = new LongAdder();
+    private final LongAdder flushFailureCount = new LongAdder();
+
+    /**
+     * @param repository      The database access for sessions.
+     * @param examService     The source of exam durations and questions.
+     * @param submitService   The service scoring and saving the submitted answers.
+     * @param store           The in-memory sessions.
+     * @param deduplicator    The table of recent results by idempotency key, or null.
+     * @param graceMillis     How long after the deadline autosaves are still accepted.
+     * @param idleEvictMillis How long an active session stays in memory without requests.
+     */
+    public ExamSessionService(ExamSessionRepository repository, ExamService examService, SubmitService submitService,
+                              ExamSessionStore store, SubmissionDeduplicator deduplicator, long graceMillis,
+                              long idleEvictMillis) {
+        this(repository, examService, submitService, store, deduplicator, graceMillis, idleEvictMillis,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock Returns the current time in milliseconds, used for deadlines and idle eviction.
+     * @see #ExamSessionService(ExamSessionRepository, ExamService, SubmitService, ExamSessionStore,
+     * SubmissionDeduplicator, long, long)
+     */
+    public ExamSessionService(ExamSessionRepository repository, ExamService examService, SubmitService submitService,
+                              ExamSessionStore store, SubmissionDeduplicator deduplicator, long graceMillis,
+                              long idleEvictMillis, LongSupplier clock) {
+        this.repository = repository;
+        this.examService = examService;
+        this.submitService = submitService;
+        this.store = store;
+        this.deduplicator = deduplicator;
+        this.graceMillis = graceMillis;
+        this.idleEvictMillis = idleEvictMillis;
+        this.clock = clock;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the periodic flush.
+     *
+     * @param flushIntervalMillis The delay between two flushes.
+     */
+    public void start(long flushIntervalMillis) {
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a session for an exam, or resumes the user's session for it that was not submitted yet.
+     * A resumed session keeps its original deadline.
+     *
+     * @param principal The candidate.
+     * @param examId    The ID of the exam.
+     * @return The session, or null if the exam does not exist.
+     * @throws SQLException if the user's previous session cannot be looked up.
+     */
+    public ExamSessionDTO startSession(AuthenticatedUser principal, int examId) throws SQLException {
+        int userId = principal.getUserId();
+        long key = activeKey(userId, examId);
+        ReentrantLock lock = startLocks.get(key);
+        lock.lock();
+        try {
+            String existingId = activeSessions.get(key);
+            if (Objects.nonNull(existingId)) {
+                ExamSessionDTO existing = store.withSession(existingId, session ->
+                        Objects.nonNull(session) && session.getStatus() != SessionStatus.SUBMITTED
+                                ? toDto(session, clock.getAsLong()) : null);
+                if (Objects.nonNull(existing)) {
+                    return existing;
+                }
+                activeSessions.remove(key, existingId);
+            }
+
+            ExamResponseDTO exam = examService.getExamResponseById(examId);
+            if (Objects.isNull(exam)) {
+                return null;
+            }
+            ExamSessionDTO resumed = null;
+            ExamSession session = repository.findActive(userId, examId, this::getQuestionIds);
+            if (Objects.nonNull(session)) {
+                // The database lags behind memory until the next flush, so the session may be submitted already.
+                resumed = store.withSession(register(session).getId(), stored ->
+                        stored.getStatus() != SessionStatus.SUBMITTED ? toDto(stored, clock.getAsLong()) : null);
+            }
+            if (Objects.nonNull(resumed)) {
+                return resumed;
+            }
+
+            long now = clock.getAsLong();
+            long expiresAt = exam.getDurationMinutes() > 0
+                    ? now + TimeUnit.MINUTES.toMillis(exam.getDurationMinutes())
+                    : ExamSession.NO_DEADLINE;
+            session = new ExamSession(UUID.randomUUID().toString(), userId, examId, now, expiresAt, getQuestionIds(exam));
+            session.markRowDirty();
+            register(session);
+            return store.withSession(session.getId(), stored -> toDto(stored, now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param principal The candidate.
+     * @param sessionId The session ID.
+     * @return The session with its saved answers, or null if the candidate has no such session.
+     * @throws SQLException if the session has to be loaded and cannot be.
+     */
+    public ExamSessionDTO getSession(AuthenticatedUser principal, String sessionId) throws SQLException {
+        return withLoadedSession(principal, sessionId, session -> toDto(session, clock.getAsLong()));
+    }
+
+    /**
+     * Saves or replaces the answer to one question of an active session.
+     *
+     * @param principal The candidate.
+     * @param sessionId The session ID.
+     * @param answer    The answer, with the question ID set.
+     * @return false if the candidate has no such session.
+     * @throws IllegalArgumentException  if the question is not part of the exam.
+     * @throws SessionConflictException if the session was submitted or its time is over.
+     * @throws SQLException              if the session has to be loaded and cannot be.
+     */
+    public boolean saveAnswer(AuthenticatedUser principal, String sessionId, UserAnswerSubmissionDTO answer)
+            throws SQLException {
+        Boolean saved = withLoadedSession(principal, sessionId, session -> {
+            long now = clock.getAsLong();
+            if (!session.hasQuestion(answer.getQuestionId())) {
+                throw new IllegalArgumentException("Question " + answer.getQuestionId() + " is not part of exam "
+                        + session.getExamId() + ".");
+            }
+            if (session.getStatus() != SessionStatus.ACTIVE) {
+                throw new SessionConflictException("The session has already been submitted.");
+            }
+            // Subtracting avoids overflowing NO_DEADLINE.
+            if (now - graceMillis > session.getExpiresAtMillis()) {
+                throw new SessionConflictException("The time for this exam is over.");
+            }
+            session.putAnswer(answer);
+            session.touch(now);
+            return Boolean.TRUE;
+        });
+        return Objects.nonNull(saved);
+    }
+
+    /**
+     * Scores and saves the answers held for a session, then closes the session.
+     * Submitting a submitted session again returns the original result while it is remembered.
+     *
+     * @param principal The candidate.
+     * @param sessionId The session ID.
+     * @return The JSON result, or null if the candidate has no such session.
+     * @throws SessionConflictException if the session was already submitted or is being submitted.
+     * @throws SQLException              if the submission cannot be saved; the session stays active.
+     * @throws IOException               if the result cannot be serialized or journaled.
+     */
+    public String submitSession(AuthenticatedUser principal, String sessionId) throws SQLException, IOException {
+        if (Objects.nonNull(deduplicator) && isValidSessionId(sessionId)) {
+            String replay = deduplicator.getResult(principal.getUserId(), sessionId);
+            if (Objects.nonNull(replay)) {
+                return replay;
+            }
+        }
+        ExamSubmissionDTO submission = withLoadedSession(principal, sessionId, session -> {
+            if (session.getStatus() != SessionStatus.ACTIVE) {
+                throw new SessionConflictException(session.getStatus() == SessionStatus.SUBMITTED
+                        ? "The session has already been submitted." : "The session is being submitted.");
+            }
+            session.setStatus(SessionStatus.SUBMITTING);
+            return new ExamSubmissionDTO(session.getUserId(), session.getExamId(), session.copyAnswers());
+        });
+        if (Objects.isNull(submission)) {
+            return null;
+        }
+
+        boolean submitted = false;
+        try {
+            String result = Objects.isNull(deduplicator)
+                    ? submitService.processExamSubmission(principal, submission.getExamId(), submission, sessionId)
+                    : deduplicator.submit(principal.getUserId(), sessionId,
+                            SubmissionDeduplicator.fingerprint(submission.getExamId(), submission.getAnswers()),
+                            () -> submitService.processExamSubmission(principal, submission.getExamId(), submission,
+                                    sessionId)).getResultJson();
+            submitted = true;
+            return result;
+        } finally {
+            SessionStatus status = submitted ? SessionStatus.SUBMITTED : SessionStatus.ACTIVE;
+            store.withSession(sessionId, session -> {
+                if (Objects.nonNull(session)) {
+                    session.setStatus(status);
+                    session.touch(clock.getAsLong());
+                }
+                return null;
+            });
+            if (submitted) {
+                activeSessions.remove(activeKey(submission.getUserId(), submission.getExamId()), sessionId);
+            }
+        }
+    }
+
+    /**
+     * Runs an action on a session of the candidate, loading it from the database if it is not in memory.
+     *
+     * @return The result of the action, or null if the candidate has no such session.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T withLoadedSession(AuthenticatedUser principal, String sessionId, Function<ExamSession, T> action)
+            throws SQLException {
+        if (!isValidSessionId(sessionId)) {
+            return null;
+        }
+        // A session evicted between loading and use is loaded once more.
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Object result = store.withSession(sessionId, session -> {
+                if (Objects.isNull(session)) {
+                    return ABSENT;
+                }
+                // Other users' sessions are reported as missing, so their IDs cannot be probed.
+                return session.getUserId() == principal.getUserId() ? action.apply(session) : null;
+            });
+            if (result != ABSENT) {
+                return (T) result;
+            }
+            ExamSession loaded = repository.findById(sessionId, principal.getUserId(), this::getQuestionIds);
+            if (Objects.isNull(loaded)) {
+                return null;
+            }
+            register(loaded);
+        }
+        return null;
+    }
+
+    private ExamSession register(ExamSession session) {
+        // A session loaded from the database was just used, so the next flush must not evict it again.
+        session.touch(clock.getAsLong());
+        ExamSession stored = store.putIfAbsent(session);
+        if (stored.getStatus() != SessionStatus.SUBMITTED) {
+            activeSessions.putIfAbsent(activeKey(stored.getUserId(), stored.getExamId()), stored.getId());
+        }
+        return stored;
+    }
+
+    /**
+     * Writes the sessions and answers changed since the previous flush in one transaction, and evicts
+     * submitted and idle sessions whose changes are written. Failed changes are retried by the next flush.
+     */
+    public void flush() {
+        long now = clock.getAsLong();
+        List<ExamSession.Delta> deltas = store.drainChanges(session -> isEvictable(session, now), this::onEvicted);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            repository.write(deltas);
+            flushedCount.add(deltas.size());
+        } catch (SQLException | RuntimeException e) {
+            store.restore(deltas);
+            flushFailureCount.increment();
+            LOGGER.log(Level.WARNING, "Could not flush " + deltas.size() + " exam sessions; retrying with the next flush.", e);
+        }
+    }
+
+    private boolean isEvictable(ExamSession session, long now) {
+        return session.getStatus() == SessionStatus.SUBMITTED
+                || (session.getStatus() == SessionStatus.ACTIVE && now - session.getLastAccessMillis() > idleEvictMillis);
+    }
+
+    private void onEvicted(ExamSession session) {
+        activeSessions.remove(activeKey(session.getUserId(), session.getExamId()), session.getId());
+    }
+
+    private int[] getQuestionIds(int examId) {
+        ExamResponseDTO exam = examService.getExamResponseById(examId);
+        return Objects.isNull(exam) ? new int[0] : getQuestionIds(exam);
+    }
+
+    private static int[] getQuestionIds(ExamResponseDTO exam) {
+        List<QuestionResponseDTO> questions = exam.getQuestions();
+        int[] ids = new int[questions.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = questions.get(i).getId();
+        }
+        return ids;
+    }
+
+    private static ExamSessionDTO toDto(ExamSession session, long now) {
+        boolean timed = session.getExpiresAtMillis() != ExamSession.NO_DEADLINE;
+        return new ExamSessionDTO(session.getId(), session.getExamId(), session.getStatus().name(),
+                Instant.ofEpochMilli(session.getStartedAtMillis()).toString(),
+                timed ? Instant.ofEpochMilli(session.getExpiresAtMillis()).toString() : null,
+                timed ? Math.max(0, (session.getExpiresAtMillis() - now) / 1000) : null,
+                session.copyAnswers());
+    }
+
+    private static long activeKey(int userId, int examId) {
+        return ((long) userId << 32) | (examId & 0xFFFFFFFFL);
+    }
+
+    // Session IDs are UUIDs; anything else cannot exist and is not looked up.
+    private static boolean isValidSessionId(String sessionId) {
+        if (Objects.isNull(sessionId) || sessionId.length() != 36) {
+            return false;
+        }
+        try {
+            UUID.fromString(sessionId);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return The number of sessions in memory.
+     */
+    public int getSessionCount() {
+        return store.size();
+    }
+
+    /**
+     * @return The number of session changes written by the flushes.
+     */
+    public long getFlushedCount() {
+        return flushedCount.sum();
+    }
+
+    /**
+     * @return The number of flushes that failed and were retried.
+     */
+    public long getFlushFailureCount() {
+        return flushFailureCount.sum();
+    }
+
+    /**
+     * Stops the periodic flush and writes the remaining changes.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Signals a request that contradicts the state of the session, such as an autosave after the deadline.
+     */
+    public static class SessionConflictException extends RuntimeException {
+        public SessionConflictException(String message) {
+            super(message);
+        }
+    }
+}
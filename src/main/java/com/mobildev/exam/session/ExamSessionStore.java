@@ -0,0 +1,131 @@
+package com.mobildev.exam.session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the live exam sessions in memory, split into stripes that each own a lock and a map.
+ * Autosaves of sessions on different stripes never contend, and the flush holds one stripe
+ * at a time while it collects the changes, so it never stops all sessions at once.
+ */
+public class ExamSessionStore {
+
+    private final StripedLock locks;
+    private final List<Map<String, ExamSession>> stripes;
+
+    /**
+     * @param stripes The number of stripes, rounded up to a power of two.
+     */
+    public ExamSessionStore(int stripes) {
+        this.locks = new StripedLock(stripes);
+        this.stripes = new ArrayList<>(locks.size());
+        for (int i = 0; i < locks.size(); i++) {
+            this.stripes.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Runs an action on a session while holding its stripe lock.
+     *
+     * @param sessionId The session ID.
+     * @param action    Receives the session, or null if it is not in memory.
+     * @return The result of the action.
+     */
+    public <T> T withSession(String sessionId, Function<ExamSession, T> action) {
+        int index = locks.indexFor(sessionId);
+        ReentrantLock lock = locks.get(index);
+        lock.lock();
+        try {
+            return action.apply(stripes.get(index).get(sessionId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a session unless one with the same ID is already in memory.
+     *
+     * @return The session now in memory under the ID.
+     */
+    ExamSession putIfAbsent(ExamSession session) {
+        int index = locks.indexFor(session.getId());
+        ReentrantLock lock = locks.get(index);
+        lock.lock();
+        try {
+            ExamSession existing = stripes.get(index).putIfAbsent(session.getId(), session);
+            return Objects.nonNull(existing) ? existing : session;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the changes of all sessions and evicts sessions without pending changes that no longer need to stay
+     * in memory. Evicted sessions are reloaded from the database on their next use.
+     *
+     * @param evictable Decides whether a session without pending changes may be evicted.
+     * @param onEvicted Receives every evicted session.
+     * @return The changes, in no particular order.
+     */
+    List<ExamSession.Delta> drainChanges(Predicate<ExamSession> evictable, Consumer<ExamSession> onEvicted) {
+        List<ExamSession.Delta> deltas = new ArrayList<>();
+        for (int i = 0; i < stripes.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+            lock.lock();
+            try {
+                Iterator<ExamSession> sessions = stripes.get(i).values().iterator();
+                while (sessions.hasNext()) {
+                    ExamSession session = sessions.next();
+                    if (session.isDirty()) {
+                        deltas.add(session.takeDelta());
+                    } else if (evictable.test(session)) {
+                        sessions.remove();
+                        onEvicted.accept(session);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Marks the changes of deltas that could not be written for the next flush.
+     */
+    void restore(List<ExamSession.Delta> deltas) {
+        for (ExamSession.Delta delta : deltas) {
+            withSession(delta.getSessionId(), session -> {
+                if (Objects.nonNull(session)) {
+                    session.restore(delta);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * @return The number of sessions in memory.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < stripes.size(); i++) {
+            ReentrantLock lock = locks.get(i);
+            lock.lock();
+            try {
+                size += stripes.get(i).size();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return size;
+    }
+}
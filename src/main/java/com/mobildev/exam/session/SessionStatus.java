@@ -0,0 +1,19 @@
+package com.mobildev.exam.session;
+
+/**
+ * The lifecycle of an exam session.
+ */
+public enum SessionStatus {
+    /**
+     * Accepts answers until the deadline and can be submitted.
+     */
+    ACTIVE,
+    /**
+     * Being scored; neither answers nor another submission are accepted.
+     */
+    SUBMITTING,
+    /**
+     * Scored and saved as a result. A new session can be started for the exam.
+     */
+    SUBMITTED
+}
@@ -0,0 +1,42 @@
+package com.mobildev.exam.session;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by many keys. Keys hashing to different stripes never contend,
+ * while the number of lock objects stays constant however many keys there are.
+ */
+final class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param minStripes The minimum number of stripes, rounded up to a power of two.
+     */
+    StripedLock(int minStripes) {
+        int size = Integer.highestOneBit(Math.max(1, minStripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    int indexFor(Object key) {
+        int h = key.hashCode();
+        // Spread the high bits, as HashMap does, so similar keys land on different stripes.
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    ReentrantLock get(int index) {
+        return stripes[index];
+    }
+
+    ReentrantLock get(Object key) {
+        return stripes[indexFor(key)];
+    }
+
+    int size() {
+        return stripes.length;
+    }
+}
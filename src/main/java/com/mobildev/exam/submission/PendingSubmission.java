@@ -0,0 +1,98 @@
+package com.mobildev.exam.submission;
+
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A scored submission that has been accepted and journaled but not yet written to the database.
+ */
+public class PendingSubmission {
+    private long sequence;
+    private String submissionId;
+    private String idempotencyKey;
+    private int userId;
+    private int examId;
+    private BigDecimal score;
+    private List<UserAnswerSubmissionDTO> answers;
+
+    public PendingSubmission() {
+    }
+
+    public PendingSubmission(String submissionId, int userId, int examId, BigDecimal score, List<UserAnswerSubmissionDTO> answers) {
+        this(submissionId, null, userId, examId, score, answers);
+    }
+
+    public PendingSubmission(String submissionId, String idempotencyKey, int userId, int examId, BigDecimal score,
+                             List<UserAnswerSubmissionDTO> answers) {
+        this.submissionId = submissionId;
+        this.idempotencyKey = idempotencyKey;
+        this.userId = userId;
+        this.examId = examId;
+        this.score = score;
+        this.answers = answers;
+    }
+
+    /**
+     * @return The journal sequence number, assigned when the submission is appended to the journal.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getSubmissionId() {
+        return submissionId;
+    }
+
+    public void setSubmissionId(String submissionId) {
+        this.submissionId = submissionId;
+    }
+
+    /**
+     * @return The client's idempotency key, or null if the client sent none. Entries journaled before
+     * the key was recorded have none either.
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getExamId() {
+        return examId;
+    }
+
+    public void setExamId(int examId) {
+        this.examId = examId;
+    }
+
+    public BigDecimal getScore() {
+        return score;
+    }
+
+    public void setScore(BigDecimal score) {
+        this.score = score;
+    }
+
+    public List<UserAnswerSubmissionDTO> getAnswers() {
+        return answers;
+    }
+
+    public void setAnswers(List<UserAnswerSubmissionDTO> answers) {
+        this.answers = answers;
+    }
+}
@@ -0,0 +1,239 @@
+package com.mobildev.exam.submission;
+
+import com.mobildev.exam.cache.LruCache;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the results of recent submissions by their idempotency key, so a client retrying a
+ * submission, e.g. after a timeout, receives the original result instead of submitting twice.
+ * A replay costs one cache lookup: no database permit, connection or transaction.
+ * <p>
+ * Keys are scoped to the user. Concurrent requests with the same key are coalesced, so only the first
+ * one is processed and the others wait for its result. Failed submissions are not remembered and may be
+ * retried with the same key. A key reused for a different submission fails with a {@link KeyReuseException}.
+ * <p>
+ * Results are kept for a limited time and, when the table is full, the least recently used ones are
+ * dropped first. The table is local to this server; {@code SubmitService} additionally saves the key
+ * with the result, so a retry arriving after a restart is not saved twice. In synchronous mode such a
+ * retry receives the saved score; in write-behind mode it is acknowledged and skipped by the writer.
+ */
+public class SubmissionDeduplicator {
+    public static final int MAX_KEY_LENGTH = 64;
+    private static final byte NULL_MARKER = 0;
+    private static final byte VALUE_MARKER = 1;
+
+    private final LruCache<String, Entry> entries;
+    private final long ttlMillis;
+    private final LongAdder replayCount = new LongAdder();
+
+    /**
+     * Runs a submission that has not been seen before.
+     */
+    @FunctionalInterface
+    public interface Submission {
+        String submit() throws SQLException, IOException;
+    }
+
+    /**
+     * @param capacity  The number of results kept.
+     * @param ttlMillis How long a result is replayed.
+     */
+    public SubmissionDeduplicator(int capacity, long ttlMillis) {
+        this.entries = new LruCache<>(capacity);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns the result of an earlier submission with the same key, or runs the submission and remembers its result.
+     *
+     * @param userId      The ID of the submitting user.
+     * @param key         The idempotency key chosen by the client.
+     * @param fingerprint The {@link #fingerprint} of the submission.
+     * @param submission  The submission, run only if the key is new.
+     * @return The JSON result, and whether it was replayed.
+     * @throws KeyReuseException if the key was used for a different submission.
+     * @throws SQLException      if the submission fails.
+     * @throws IOException       if the submission fails.
+     */
+    public Outcome submit(int userId, String key, byte[] fingerprint, Submission submission)
+            throws SQLException, IOException {
+        String cacheKey = userId + ":" + key;
+        boolean[] executed = new boolean[1];
+        LruCache.Loader<String, Entry, Exception> loader = ignored -> {
+            executed[0] = true;
+            return new Entry(fingerprint, submission.submit(), System.currentTimeMillis() + ttlMillis);
+        };
+
+        Entry entry = load(cacheKey, loader);
+        if (!executed[0] && entry.isExpired(System.currentTimeMillis())) {
+            entries.invalidate(cacheKey);
+            entry = load(cacheKey, loader);
+        }
+        if (!Arrays.equals(entry.fingerprint, fingerprint)) {
+            throw new KeyReuseException(key);
+        }
+        if (!executed[0]) {
+            replayCount.increment();
+        }
+        return new Outcome(entry.resultJson, !executed[0]);
+    }
+
+    /**
+     * @param userId The ID of the submitting user.
+     * @param key    The idempotency key.
+     * @return The remembered JSON result, or null if the key is unknown or expired.
+     */
+    public String getResult(int userId, String key) {
+        Entry entry = entries.getIfPresent(userId + ":" + key);
+        if (Objects.isNull(entry) || entry.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        replayCount.increment();
+        return entry.resultJson;
+    }
+
+    private Entry load(String cacheKey, LruCache.Loader<String, Entry, Exception> loader)
+            throws SQLException, IOException {
+        try {
+            return entries.get(cacheKey, loader);
+        } catch (SQLException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Submission only throws the exceptions above.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Identifies the content of a submission, so a reused key can be told apart from a retry.
+     * The digest covers an unambiguous encoding of every field: counts and text lengths are written
+     * before the values and null values get a marker, so different submissions never encode alike.
+     *
+     * @param examId  The ID of the exam.
+     * @param answers The answers, in the submitted order.
+     * @return The SHA-256 digest of the exam and the answers.
+     */
+    public static byte[] fingerprint(int examId, List<UserAnswerSubmissionDTO> answers) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2);
+        digest.update(buffer.clear().putInt(examId).putInt(answers.size()).flip());
+        for (UserAnswerSubmissionDTO answer : answers) {
+            digest.update(buffer.clear().putInt(answer.getQuestionId()).flip());
+            updateNullable(digest, buffer, answer.getSelectedOptionId());
+            String answerText = answer.getAnswerText();
+            if (Objects.isNull(answerText)) {
+                digest.update(NULL_MARKER);
+            } else {
+                byte[] text = answerText.getBytes(StandardCharsets.UTF_8);
+                digest.update(VALUE_MARKER);
+                digest.update(buffer.clear().putInt(text.length).flip());
+                digest.update(text);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void updateNullable(MessageDigest digest, ByteBuffer buffer, Integer value) {
+        if (Objects.isNull(value)) {
+            digest.update(NULL_MARKER);
+        } else {
+            digest.update(VALUE_MARKER);
+            digest.update(buffer.clear().putInt(value).flip());
+        }
+    }
+
+    /**
+     * @param key The value of the {@code Idempotency-Key} header.
+     * @return Whether the key is 1 to {@value #MAX_KEY_LENGTH} visible ASCII characters.
+     */
+    public static boolean isValidKey(String key) {
+        if (Objects.isNull(key) || key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x21 || c > 0x7E) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of submissions answered from the table.
+     */
+    public long getReplayCount() {
+        return replayCount.sum();
+    }
+
+    /**
+     * Exposes the result table for monitoring its hit, miss and eviction counters.
+     */
+    public LruCache<String, Entry> getCache() {
+        return entries;
+    }
+
+    /**
+     * A remembered result.
+     */
+    public static final class Entry {
+        private final byte[] fingerprint;
+        private final String resultJson;
+        private final long expiresAtMillis;
+
+        private Entry(byte[] fingerprint, String resultJson, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.resultJson = resultJson;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAtMillis;
+        }
+    }
+
+    /**
+     * The result of a submission and whether it was replayed from an earlier request.
+     */
+    public static final class Outcome {
+        private final String resultJson;
+        private final boolean replayed;
+
+        private Outcome(String resultJson, boolean replayed) {
+            this.resultJson = resultJson;
+            this.replayed = replayed;
+        }
+
+        public String getResultJson() {
+            return resultJson;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    /**
+     * Signals an idempotency key that was already used for a different submission.
+     */
+    public static class KeyReuseException extends IllegalStateException {
+        public KeyReuseException(String key) {
+            super("Idempotency key '" + key + "' was already used for a different submission.");
+        }
+    }
+}
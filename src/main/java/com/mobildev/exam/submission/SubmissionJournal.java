@@ -0,0 +1,323 @@
+package com.mobildev.exam.submission;
+
+import com.mobildev.exam.util.JsonUtil;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An append-only local file of accepted submissions, one JSON document per line.
+ * A separate checkpoint file records the sequence number of the last submission that was
+ * committed to the database; entries after the checkpoint are replayed on startup.
+ * Once every journaled submission has been committed the journal file is truncated.
+ * <p>
+ * Appends are group-committed: concurrent appends are written one after another, and one
+ * {@code force} makes all of them durable, so a slow disk does not serialize the acknowledgements.
+ * Submissions the database rejects are moved to a dead-letter file next to the journal.
+ */
+public class SubmissionJournal implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(SubmissionJournal.class.getName());
+    private static final String JOURNAL_FILE = "submissions.journal";
+    private static final String CHECKPOINT_FILE = "submissions.checkpoint";
+    private static final String DEAD_LETTER_FILE = "submissions.deadletter";
+    private static final int TAIL_SCAN_BUFFER_SIZE = 8192;
+
+    private final Path journalPath;
+    private final Path checkpointPath;
+    private final Path deadLetterPath;
+    private final boolean fsync;
+    private final FileChannel channel;
+    private final List<PendingSubmission> uncommitted;
+    // Guards the writes to the journal and the checkpoint.
+    private final ReentrantLock lock = new ReentrantLock();
+    // Held while forcing the journal; appends waiting for it are usually covered by the force in progress.
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ReentrantLock deadLetterLock = new ReentrantLock();
+
+    // Guarded by 'lock'.
+    private long lastSequence;
+    private long checkpointSequence;
+    // Guarded by 'syncLock'.
+    private long syncedSequence;
+
+    /**
+     * Opens the journal in the given directory, creating it if necessary, and loads the uncommitted entries.
+     *
+     * @param directory The directory holding the journal and checkpoint files.
+     * @param fsync     Whether every append is forced to the storage device before it is acknowledged.
+     * @throws IOException if the files cannot be read or created.
+     */
+    public SubmissionJournal(Path directory, boolean fsync) throws IOException {
+        Files.createDirectories(directory);
+        this.journalPath = directory.resolve(JOURNAL_FILE);
+        this.checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        this.deadLetterPath = directory.resolve(DEAD_LETTER_FILE);
+        this.fsync = fsync;
+
+        this.checkpointSequence = readCheckpoint();
+        this.channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            truncateTornEntry();
+            this.uncommitted = readUncommitted();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        this.lastSequence = checkpointSequence;
+        for (PendingSubmission submission : uncommitted) {
+            lastSequence = Math.max(lastSequence, submission.getSequence());
+        }
+        this.syncedSequence = lastSequence;
+        channel.position(channel.size());
+        LOGGER.log(Level.INFO, "Opened submission journal {0} with {1} uncommitted entries.",
+                new Object[]{journalPath, uncommitted.size()});
+    }
+
+    /**
+     * @return The submissions that were journaled but not committed before the last shutdown.
+     */
+    public List<PendingSubmission> getUncommitted() {
+        return uncommitted;
+    }
+
+    /**
+     * Assigns the next sequence number to a submission and durably appends it.
+     *
+     * @param submission The submission to append.
+     * @throws IOException if the entry cannot be written.
+     */
+    public void append(PendingSubmission submission) throws IOException {
+        write(submission);
+        sync(submission.getSequence());
+    }
+
+    /**
+     * Assigns the next sequence number to a submission and writes it without waiting for the storage device.
+     * The entry is durable once {@link #sync(long)} returns for its sequence number.
+     *
+     * @param submission The submission to write.
+     * @throws IOException if the entry cannot be written.
+     */
+    public void write(PendingSubmission submission) throws IOException {
+        lock.lock();
+        try {
+            submission.setSequence(lastSequence + 1);
+            writeLine(channel, submission);
+            lastSequence = submission.getSequence();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the journal to the storage device up to at least the given sequence number, unless fsync is off.
+     * A caller that finds its entry forced by a concurrent call returns without forcing again.
+     *
+     * @param sequence The sequence number of the caller's entry.
+     * @throws IOException if the journal cannot be forced.
+     */
+    public void sync(long sequence) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (syncedSequence >= sequence) {
+                return;
+            }
+            long target;
+            lock.lock();
+            try {
+                target = lastSequence;
+            } finally {
+                lock.unlock();
+            }
+            channel.force(false);
+            syncedSequence = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Durably appends a submission the database rejected to the dead-letter file, so it can be inspected
+     * and corrected by hand. The submission still has to be checkpointed to leave the journal.
+     *
+     * @param submission The rejected submission.
+     * @throws IOException if the dead-letter file cannot be written.
+     */
+    public void deadLetter(PendingSubmission submission) throws IOException {
+        deadLetterLock.lock();
+        try (FileChannel deadLetters = FileChannel.open(deadLetterPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writeLine(deadLetters, submission);
+            deadLetters.force(false);
+        } finally {
+            deadLetterLock.unlock();
+        }
+    }
+
+    /**
+     * Records that every submission up to and including the given sequence number is in the database.
+     *
+     * @param sequence The sequence number of the last committed submission.
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    public void checkpoint(long sequence) throws IOException {
+        lock.lock();
+        try {
+            if (sequence <= checkpointSequence) {
+                return;
+            }
+            // The new checkpoint is on the device before the rename, and the rename before the journal
+            // is truncated; otherwise a crash could leave an empty checkpoint or a stale one and no entries.
+            Path tempPath = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel temp = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    temp.write(buffer);
+                }
+                temp.force(true);
+            }
+            Files.move(tempPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(checkpointPath.getParent());
+            checkpointSequence = sequence;
+
+            // Nothing left to replay: start the journal over instead of letting it grow.
+            if (checkpointSequence == lastSequence) {
+                channel.truncate(0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The sequence number of the last submission recorded as committed.
+     */
+    public long getCheckpointSequence() {
+        lock.lock();
+        try {
+            return checkpointSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes a rename within the directory durable. Platforms that cannot open a directory, such as Windows,
+     * make renames durable without it.
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        FileChannel dir;
+        try {
+            dir = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (AccessDeniedException e) {
+            return;
+        }
+        try (dir) {
+            dir.force(true);
+        }
+    }
+
+    private static void writeLine(FileChannel target, PendingSubmission submission) throws IOException {
+        byte[] json = JsonUtil.getPendingSubmissionWriter().writeValueAsBytes(submission);
+        ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /**
+     * Cuts off an entry torn by a crash in the middle of an append, i.e. everything after the last newline.
+     * The append was never acknowledged, and new entries must not be written onto the end of the torn one.
+     */
+    private void truncateTornEntry() throws IOException {
+        long size = channel.size();
+        long end = size;
+        ByteBuffer buffer = ByteBuffer.allocate(TAIL_SCAN_BUFFER_SIZE);
+        while (end > 0) {
+            long start = Math.max(0, end - TAIL_SCAN_BUFFER_SIZE);
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("Submission journal " + journalPath + " shrank while it was opened.");
+                }
+            }
+            for (int i = (int) (end - start) - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    truncate(size, start + i + 1);
+                    return;
+                }
+            }
+            end = start;
+        }
+        truncate(size, 0);
+    }
+
+    private void truncate(long size, long validSize) throws IOException {
+        if (validSize < size) {
+            LOGGER.log(Level.WARNING, "Truncating {0} bytes of a torn entry at the end of the submission journal.",
+                    size - validSize);
+            channel.truncate(validSize);
+            channel.force(false);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return 0L;
+        }
+        String value = Files.readString(checkpointPath, StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? 0L : Long.parseLong(value);
+    }
+
+    private List<PendingSubmission> readUncommitted() throws IOException {
+        List<PendingSubmission> entries = new ArrayList<>();
+        if (!Files.exists(journalPath)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    PendingSubmission submission = JsonUtil.getPendingSubmissionReader().readValue(line);
+                    if (submission.getSequence() > checkpointSequence) {
+                        entries.add(submission);
+                    }
+                } catch (IOException e) {
+                    // A torn last line is truncated before reading, so this entry was damaged otherwise.
+                    LOGGER.log(Level.WARNING, "Skipping unreadable submission journal entry.", e);
+                }
+            }
+        }
+        return entries;
+    }
+}
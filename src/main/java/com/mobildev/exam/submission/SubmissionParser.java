@@ -0,0 +1,255 @@
+package com.mobildev.exam.submission;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.InputCoercionException;
+import com.mobildev.exam.dto.ExamSubmissionDTO;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.util.JsonUtil;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads an exam submission from a request body with Jackson's streaming parser.
+ * Each answer is validated as soon as its tokens have been read, so an invalid, oversized or
+ * repetitive payload is rejected without reading the rest of the body or building an object tree.
+ * <ul>
+ *     <li>Malformed JSON fails with the parser's {@link com.fasterxml.jackson.core.JsonProcessingException}.</li>
+ *     <li>Well-formed JSON that is not a valid submission (wrong types, unknown fields, a missing
+ *     exam ID, duplicate questions or too many answers) fails with an {@link IllegalArgumentException}.</li>
+ *     <li>A body longer than the limit fails with a {@link PayloadTooLargeException}.</li>
+ * </ul>
+ * Instances are thread-safe.
+ */
+public class SubmissionParser {
+    public static final long DEFAULT_MAX_BODY_BYTES = 1024 * 1024;
+    public static final int DEFAULT_MAX_ANSWERS = 1000;
+
+    private final JsonFactory jsonFactory;
+    private final long maxBodyBytes;
+    private final int maxAnswers;
+
+    public SubmissionParser() {
+        this(JsonUtil.getFactory(), DEFAULT_MAX_BODY_BYTES, DEFAULT_MAX_ANSWERS);
+    }
+
+    /**
+     * @param jsonFactory  The factory creating the streaming parsers.
+     * @param maxBodyBytes The largest accepted request body, in bytes.
+     * @param maxAnswers   The largest accepted number of answers.
+     */
+    public SubmissionParser(JsonFactory jsonFactory, long maxBodyBytes, int maxAnswers) {
+        this.jsonFactory = jsonFactory;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxAnswers = maxAnswers;
+    }
+
+    public long getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    /**
+     * Parses and validates a submission.
+     *
+     * @param body The request body. It is not closed.
+     * @return The submission.
+     * @throws IOException              if the body cannot be read, is malformed or is too large.
+     * @throws IllegalArgumentException if the body is not a valid submission.
+     */
+    public ExamSubmissionDTO parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(new LimitedInputStream(body, maxBodyBytes))) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, "submission");
+
+            ExamSubmissionDTO submission = new ExamSubmissionDTO();
+            boolean hasExamId = false;
+            List<UserAnswerSubmissionDTO> answers = List.of();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "examId":
+                        submission.setExamId(readInt(parser, value, field));
+                        hasExamId = true;
+                        break;
+                    case "userId":
+                        // Ignored: the user is taken from the token. Accepted for older clients.
+                        readInt(parser, value, field);
+                        break;
+                    case "answers":
+                        answers = readAnswers(parser, value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown field '" + field + "'.");
+                }
+            }
+
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Unexpected content after the submission.");
+            }
+            if (!hasExamId) {
+                throw new IllegalArgumentException("Field 'examId' is required.");
+            }
+            submission.setAnswers(answers);
+            return submission;
+        }
+    }
+
+    private List<UserAnswerSubmissionDTO> readAnswers(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return List.of();
+        }
+        expect(value, JsonToken.START_ARRAY, "answers");
+
+        List<UserAnswerSubmissionDTO> answers = new ArrayList<>();
+        Set<Integer> questionIds = new HashSet<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (answers.size() == maxAnswers) {
+                throw new IllegalArgumentException("A submission can contain at most " + maxAnswers + " answers.");
+            }
+            UserAnswerSubmissionDTO answer = readAnswer(parser, parser.currentToken());
+            // A repeated question would be scored twice.
+            if (!questionIds.add(answer.getQuestionId())) {
+                throw new IllegalArgumentException("Question " + answer.getQuestionId() + " is answered more than once.");
+            }
+            answers.add(answer);
+        }
+        return answers;
+    }
+
+    /**
+     * Parses and validates a single answer, as autosaved for one question of an exam session.
+     * The question ID comes from the request path; the body may repeat it but not contradict it.
+     *
+     * @param body       The request body. It is not closed.
+     * @param questionId The ID of the answered question.
+     * @return The answer, with the question ID set.
+     * @throws IOException              if the body cannot be read, is malformed or is too large.
+     * @throws IllegalArgumentException if the body is not a valid answer.
+     */
+    public UserAnswerSubmissionDTO parseAnswer(InputStream body, int questionId) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(new LimitedInputStream(body, maxBodyBytes))) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, "answer");
+
+            UserAnswerSubmissionDTO answer = new UserAnswerSubmissionDTO();
+            if (readAnswerFields(parser, answer) && answer.getQuestionId() != questionId) {
+                throw new IllegalArgumentException("Field 'questionId' does not match the question in the path.");
+            }
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException("Unexpected content after the answer.");
+            }
+            answer.setQuestionId(questionId);
+            return answer;
+        }
+    }
+
+    private UserAnswerSubmissionDTO readAnswer(JsonParser parser, JsonToken value) throws IOException {
+        expect(value, JsonToken.START_OBJECT, "answer");
+
+        UserAnswerSubmissionDTO answer = new UserAnswerSubmissionDTO();
+        if (!readAnswerFields(parser, answer)) {
+            throw new IllegalArgumentException("Field 'questionId' is required for every answer.");
+        }
+        return answer;
+    }
+
+    // Reads the fields of an answer object up to its end; returns whether the question ID was present.
+    private boolean readAnswerFields(JsonParser parser, UserAnswerSubmissionDTO answer) throws IOException {
+        boolean hasQuestionId = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken fieldValue = parser.nextToken();
+            switch (field) {
+                case "questionId":
+                    answer.setQuestionId(readInt(parser, fieldValue, field));
+                    hasQuestionId = true;
+                    break;
+                case "selectedOptionId":
+                    answer.setSelectedOptionId(fieldValue == JsonToken.VALUE_NULL ? null : readInt(parser, fieldValue, field));
+                    break;
+                case "answerText":
+                    if (fieldValue != JsonToken.VALUE_NULL) {
+                        expect(fieldValue, JsonToken.VALUE_STRING, field);
+                        answer.setAnswerText(parser.getText());
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown answer field '" + field + "'.");
+            }
+        }
+        return hasQuestionId;
+    }
+
+    private static int readInt(JsonParser parser, JsonToken value, String field) throws IOException {
+        expect(value, JsonToken.VALUE_NUMBER_INT, field);
+        try {
+            return parser.getIntValue();
+        } catch (InputCoercionException e) {
+            throw new IllegalArgumentException("Field '" + field + "' is out of range.");
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, String field) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Invalid value for '" + field + "'.");
+        }
+    }
+
+    /**
+     * Signals a request body longer than the configured limit.
+     */
+    public static class PayloadTooLargeException extends IOException {
+        public PayloadTooLargeException(long maxBodyBytes) {
+            super("Request body exceeds " + maxBodyBytes + " bytes.");
+        }
+    }
+
+    // Fails as soon as more than the allowed number of bytes has been read.
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            // Read one byte past the limit so an exactly full body is still accepted.
+            int n = super.read(buffer, offset, (int) Math.min(length, remaining + 1));
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // The request body is owned by the exchange.
+        }
+
+        private void consume(int n) throws PayloadTooLargeException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new PayloadTooLargeException(limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.mobildev.exam.submission;
+
+import com.mobildev.exam.db.DataSourceProvider;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Accepts scored submissions, journals them and writes them to the database in the background.
+ * Callers are acknowledged as soon as the submission is in the local journal, so request latency
+ * does not depend on database write latency. A single writer thread drains the queue in batches
+ * and persists each batch with multi-row INSERT statements in one transaction.
+ * <p>
+ * Each result is saved with the client's idempotency key or, without one, the submission ID. A crash
+ * between a database commit and the following journal checkpoint replays that batch on the next startup;
+ * submissions whose key already has a saved result are skipped, so the replay writes nothing twice, and
+ * neither does a client retry that was journaled again after the server forgot the key.
+ * <p>
+ * A batch that fails because the database is unavailable is retried with backoff. A batch whose data
+ * the database rejects is split until the rejected submissions are isolated; those are moved to the
+ * journal's dead-letter file and the rest of the batch is written.
+ * <p>
+ * The number of queued submissions is bounded, so a long database outage cannot exhaust the heap.
+ * Once the queue is full, new submissions are refused with a {@link QueueFullException} until the
+ * writer catches up.
+ */
+public class WriteBehindSubmissionWriter {
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindSubmissionWriter.class.getName());
+
+    private static final String SQL_INSERT_ANSWERS_PREFIX =
+            "INSERT INTO user_answers (user_id, exam_id, question_id, selected_option_id, answer_text) VALUES ";
+    private static final String SQL_INSERT_ANSWERS_ROW = "(?, ?, ?, ?, ?)";
+    private static final String SQL_INSERT_RESULTS_PREFIX =
+            "INSERT INTO results (user_id, exam_id, score, idempotency_key) VALUES ";
+    private static final String SQL_INSERT_RESULTS_ROW = "(?, ?, ?, ?)";
+    private static final String SQL_FIND_RESULTS_PREFIX = "SELECT user_id, idempotency_key FROM results WHERE ";
+    private static final String SQL_FIND_RESULTS_ROW = "(user_id = ? AND idempotency_key = ?)";
+    // Upper bound on rows per INSERT statement, keeping statements well below max_allowed_packet.
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    private static final long POLL_INTERVAL_MILLIS = 500L;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 30000L;
+    private static final int DEFAULT_QUEUE_CAPACITY = 20000;
+
+    private final DataSourceProvider dataSourceProvider;
+    private final SubmissionJournal journal;
+    private final int batchSize;
+    private final int queueCapacity;
+    // Not bounded itself, so the entries replayed at startup always fit; submit() enforces the capacity.
+    private final BlockingQueue<PendingSubmission> queue = new LinkedBlockingQueue<>();
+    // Makes writing to the journal and queueing one step, so the queue stays in sequence order.
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final LongAdder deadLetterCount = new LongAdder();
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * @param dataSourceProvider The provider of the connections the batches are written on.
+     * @param journal            The journal that makes accepted submissions durable.
+     * @param batchSize          The maximum number of submissions written in one transaction.
+     */
+    public WriteBehindSubmissionWriter(DataSourceProvider dataSourceProvider, SubmissionJournal journal, int batchSize) {
+        this(dataSourceProvider, journal, batchSize, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param dataSourceProvider The provider of the connections the batches are written on.
+     * @param journal            The journal that makes accepted submissions durable.
+     * @param batchSize          The maximum number of submissions written in one transaction.
+     * @param queueCapacity      The maximum number of queued submissions before new ones are refused.
+     */
+    public WriteBehindSubmissionWriter(DataSourceProvider dataSourceProvider, SubmissionJournal journal, int batchSize,
+                                       int queueCapacity) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.journal = journal;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.writerThread = new Thread(this::drainLoop, "submission-writer");
+    }
+
+    /**
+     * Queues the submissions left over from the previous run and starts the writer thread.
+     */
+    public void start() {
+        List<PendingSubmission> recovered = journal.getUncommitted();
+        if (!recovered.isEmpty()) {
+            LOGGER.log(Level.INFO, "Replaying {0} journaled submissions.", recovered.size());
+            queue.addAll(recovered);
+        }
+        running = true;
+        writerThread.start();
+    }
+
+    /**
+     * Durably accepts a submission for asynchronous persistence.
+     *
+     * @param submission The scored submission.
+     * @throws QueueFullException if the queue is full; nothing was journaled.
+     * @throws IOException        if the submission cannot be journaled.
+     */
+    public void submit(PendingSubmission submission) throws IOException {
+        if (!running) {
+            throw new IllegalStateException("The submission writer is not running.");
+        }
+        // Writing and queueing under one lock keeps the queue in sequence order,
+        // which makes the last sequence of a committed batch a valid checkpoint.
+        appendLock.lock();
+        try {
+            // Checked before journaling, so a refused submission is not replayed later.
+            if (queue.size() >= queueCapacity) {
+                throw new QueueFullException(queueCapacity);
+            }
+            journal.write(submission);
+            queue.add(submission);
+        } finally {
+            appendLock.unlock();
+        }
+        // Forced outside the lock, so one force acknowledges every submission written in the meantime.
+        journal.sync(submission.getSequence());
+    }
+
+    /**
+     * @return The number of accepted submissions not yet written to the database.
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return The number of submissions the database rejected that were moved to the dead-letter file.
+     */
+    public long getDeadLetterCount() {
+        return deadLetterCount.sum();
+    }
+
+    /**
+     * Stops accepting submissions and waits for the queued ones to be written.
+     *
+     * @param timeoutMillis How long to wait for the queue to drain.
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            LOGGER.warning("Submission writer did not drain in time; remaining submissions will be replayed on restart.");
+            writerThread.interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not close the submission journal.", e);
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingSubmission> batch = new ArrayList<>(batchSize);
+        long backoffMillis = POLL_INTERVAL_MILLIS;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingSubmission first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (Objects.isNull(first)) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+
+                writeRange(batch, 0, batch.size());
+                batch.clear();
+                backoffMillis = POLL_INTERVAL_MILLIS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException | IOException e) {
+                // Keep the unfinished part of the batch and retry it; it stays in the journal until it is committed.
+                long checkpoint = journal.getCheckpointSequence();
+                batch.removeIf(submission -> submission.getSequence() <= checkpoint);
+                LOGGER.log(Level.SEVERE, "Failed to write a batch of " + batch.size() + " submissions. Retrying in "
+                        + backoffMillis + " ms.", e);
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Writes the submissions of the batch from index {@code from} to {@code to} (exclusive) and checkpoints them.
+     * Ranges are finished in order, so after a failure the checkpoint covers exactly the finished prefix.
+     */
+    private void writeRange(List<PendingSubmission> batch, int from, int to) throws SQLException, IOException {
+        try {
+            writeBatch(batch.subList(from, to));
+        } catch (SQLException e) {
+            if (!isRejectedData(e)) {
+                throw e;
+            }
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                writeRange(batch, from, middle);
+                writeRange(batch, middle, to);
+                return;
+            }
+            PendingSubmission rejected = batch.get(from);
+            journal.deadLetter(rejected);
+            deadLetterCount.increment();
+            LOGGER.log(Level.SEVERE, "The database rejected submission " + rejected.getSubmissionId() + " (sequence "
+                    + rejected.getSequence() + "); moved it to the dead-letter file.", e);
+        }
+        journal.checkpoint(batch.get(to - 1).getSequence());
+    }
+
+    // Data the database refuses, e.g. a value out of range, fails the same way on every retry.
+    // Anything else, such as a lost connection or a deadlock, may succeed later.
+    private static boolean isRejectedData(SQLException e) {
+        String sqlState = e.getSQLState();
+        return e instanceof SQLDataException || e instanceof SQLIntegrityConstraintViolationException
+                || (Objects.nonNull(sqlState) && (sqlState.startsWith("22") || sqlState.startsWith("23")));
+    }
+
+    private void writeBatch(List<PendingSubmission> batch) throws SQLException {
+        try (Connection conn = dataSourceProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<PendingSubmission> unwritten = removeWritten(conn, batch);
+                insertAnswers(conn, unwritten);
+                insertResults(conn, unwritten);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        for (PendingSubmission submission : batch) {
+            dataSourceProvider.markWritten(submission.getUserId());
+        }
+        LOGGER.log(Level.FINE, "Wrote a batch of {0} submissions.", batch.size());
+    }
+
+    /**
+     * Leaves out the submissions whose result is already saved, e.g. because the batch is replayed after a crash
+     * that followed its commit, and all but the first submission of the batch with the same key.
+     * Their answers were saved in the same transaction as the result.
+     */
+    private List<PendingSubmission> removeWritten(Connection conn, List<PendingSubmission> batch) throws SQLException {
+        Set<String> written = new HashSet<>();
+        for (int start = 0; start < batch.size(); start += MAX_ROWS_PER_STATEMENT) {
+            List<PendingSubmission> chunk = batch.subList(start, Math.min(start + MAX_ROWS_PER_STATEMENT, batch.size()));
+            try (PreparedStatement stmt = conn.prepareStatement(buildStatement(SQL_FIND_RESULTS_PREFIX, SQL_FIND_RESULTS_ROW, " OR ", chunk.size()))) {
+                int index = 1;
+                for (PendingSubmission submission : chunk) {
+                    stmt.setInt(index++, submission.getUserId());
+                    stmt.setString(index++, resultKey(submission));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        written.add(rs.getInt(1) + ":" + rs.getString(2));
+                    }
+                }
+            }
+        }
+        List<PendingSubmission> unwritten = new ArrayList<>(batch.size());
+        for (PendingSubmission submission : batch) {
+            // Adding the key also skips a later submission of the batch with the same key.
+            if (written.add(submission.getUserId() + ":" + resultKey(submission))) {
+                unwritten.add(submission);
+            }
+        }
+        if (unwritten.size() == batch.size()) {
+            return batch;
+        }
+        LOGGER.log(Level.INFO, "Skipped {0} submissions that were already written.", batch.size() - unwritten.size());
+        return unwritten;
+    }
+
+    private void insertAnswers(Connection conn, List<PendingSubmission> batch) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (PendingSubmission submission : batch) {
+            for (UserAnswerSubmissionDTO answer : submission.getAnswers()) {
+                rows.add(new Object[]{submission.getUserId(), submission.getExamId(), answer.getQuestionId(),
+                        answer.getSelectedOptionId(), answer.getAnswerText()});
+            }
+        }
+        for (int start = 0; start < rows.size(); start += MAX_ROWS_PER_STATEMENT) {
+            List<Object[]> chunk = rows.subList(start, Math.min(start + MAX_ROWS_PER_STATEMENT, rows.size()));
+            try (PreparedStatement stmt = conn.prepareStatement(buildStatement(SQL_INSERT_ANSWERS_PREFIX, SQL_INSERT_ANSWERS_ROW, ", ", chunk.size()))) {
+                int index = 1;
+                for (Object[] row : chunk) {
+                    stmt.setInt(index++, (int) row[0]);
+                    stmt.setInt(index++, (int) row[1]);
+                    stmt.setInt(index++, (int) row[2]);
+                    if (Objects.nonNull(row[3])) {
+                        stmt.setInt(index++, (int) row[3]);
+                    } else {
+                        stmt.setNull(index++, Types.INTEGER);
+                    }
+                    stmt.setString(index++, (String) row[4]);
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private void insertResults(Connection conn, List<PendingSubmission> batch) throws SQLException {
+        for (int start = 0; start < batch.size(); start += MAX_ROWS_PER_STATEMENT) {
+            List<PendingSubmission> chunk = batch.subList(start, Math.min(start + MAX_ROWS_PER_STATEMENT, batch.size()));
+            try (PreparedStatement stmt = conn.prepareStatement(buildStatement(SQL_INSERT_RESULTS_PREFIX, SQL_INSERT_RESULTS_ROW, ", ", chunk.size()))) {
+                int index = 1;
+                for (PendingSubmission submission : chunk) {
+                    stmt.setInt(index++, submission.getUserId());
+                    stmt.setInt(index++, submission.getExamId());
+                    stmt.setBigDecimal(index++, submission.getScore());
+                    stmt.setString(index++, resultKey(submission));
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    // The key the result is saved with; both kinds fit results.idempotency_key.
+    private static String resultKey(PendingSubmission submission) {
+        return Objects.nonNull(submission.getIdempotencyKey()) ? submission.getIdempotencyKey() : submission.getSubmissionId();
+    }
+
+    private static String buildStatement(String prefix, String row, String separator, int rowCount) {
+        StringBuilder sql = new StringBuilder(prefix.length() + (row.length() + separator.length()) * rowCount);
+        sql.append(prefix);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(separator);
+            }
+            sql.append(row);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Signals that the queue of unwritten submissions is full, e.g. because the database is down.
+     * Callers answer with 503 so the client retries.
+     */
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(int capacity) {
+            super("The queue of " + capacity + " unwritten submissions is full.", null, false, false);
+        }
+    }
+}
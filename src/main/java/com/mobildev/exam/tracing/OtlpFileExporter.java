@@ -0,0 +1,223 @@
+package com.mobildev.exam.tracing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mobildev.exam.util.JsonUtil;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Appends finished traces to a file in the OTLP/JSON format, one {@code ExportTraceServiceRequest} per line,
+ * as written by the OpenTelemetry file exporter, so the file can be replayed into any OTLP collector.
+ * The request becomes a server span with its stages as internal child spans.
+ * Traces are serialized and written on a background thread; when its queue is full they are dropped and counted.
+ */
+public class OtlpFileExporter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(OtlpFileExporter.class.getName());
+    private static final String SCOPE_NAME = "com.mobildev.exam.tracing";
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_SERVER = 2;
+    private static final int STATUS_CODE_ERROR = 2;
+    private static final int DRAIN_BATCH_SIZE = 64;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private final String serviceName;
+    private final long minDurationNanos;
+    private final BlockingQueue<Trace> queue;
+    private final BufferedWriter writer;
+    private final LongAdder droppedCount = new LongAdder();
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * @param file             The file to append to; it is created if missing.
+     * @param serviceName      The {@code service.name} resource attribute.
+     * @param minDurationNanos Traces faster than this are not exported.
+     * @param queueCapacity    The number of traces waiting to be written.
+     * @throws IOException if the file cannot be opened.
+     */
+    public OtlpFileExporter(Path file, String serviceName, long minDurationNanos, int queueCapacity) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (Objects.nonNull(parent)) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.serviceName = serviceName;
+        this.minDurationNanos = minDurationNanos;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::drainLoop, "trace-exporter");
+        worker.setDaemon(true);
+        worker.start();
+        LOGGER.info("Exporting request traces to " + file.toAbsolutePath() + ".");
+    }
+
+    /**
+     * Queues a finished trace for writing without blocking.
+     */
+    void export(Trace trace) {
+        if (closed || trace.getDurationNanos() < minDurationNanos) {
+            return;
+        }
+        if (!queue.offer(trace)) {
+            droppedCount.increment();
+        }
+    }
+
+    private void drainLoop() {
+        List<Trace> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Trace first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (Objects.isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                for (Trace trace : batch) {
+                    writer.write(toOtlpJson(trace));
+                    writer.newLine();
+                }
+                writer.flush();
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not export " + batch.size() + " traces.", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Serializes a trace as a single-line OTLP/JSON export request.
+     */
+    String toOtlpJson(Trace trace) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Span> spans = trace.getSpans();
+        String rootSpanId = TraceCollector.toHex(random.nextLong());
+        String[] spanIds = new String[spans.size()];
+        for (int i = 0; i < spanIds.length; i++) {
+            spanIds[i] = TraceCollector.toHex(random.nextLong());
+        }
+        long startUnixNanos = trace.getStartEpochMillis() * 1_000_000L;
+
+        StringWriter out = new StringWriter(512 + spans.size() * 256);
+        try (JsonGenerator json = JsonUtil.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("resourceSpans");
+            json.writeStartObject();
+            json.writeObjectFieldStart("resource");
+            json.writeArrayFieldStart("attributes");
+            writeAttribute(json, "service.name", serviceName);
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeArrayFieldStart("scopeSpans");
+            json.writeStartObject();
+            json.writeObjectFieldStart("scope");
+            json.writeStringField("name", SCOPE_NAME);
+            json.writeEndObject();
+            json.writeArrayFieldStart("spans");
+
+            json.writeStartObject();
+            json.writeStringField("traceId", trace.getTraceId());
+            json.writeStringField("spanId", rootSpanId);
+            json.writeStringField("name", trace.getMethod() + " " + trace.getRoute());
+            json.writeNumberField("kind", SPAN_KIND_SERVER);
+            json.writeStringField("startTimeUnixNano", Long.toString(startUnixNanos));
+            json.writeStringField("endTimeUnixNano", Long.toString(startUnixNanos + trace.getDurationNanos()));
+            json.writeArrayFieldStart("attributes");
+            writeAttribute(json, "http.request.method", trace.getMethod());
+            writeAttribute(json, "http.route", trace.getRoute());
+            json.writeStartObject();
+            json.writeStringField("key", "http.response.status_code");
+            json.writeObjectFieldStart("value");
+            json.writeStringField("intValue", Integer.toString(trace.getStatus()));
+            json.writeEndObject();
+            json.writeEndObject();
+            writeAttribute(json, "request.id", trace.getRequestId());
+            json.writeEndArray();
+            if (trace.getStatus() >= 500) {
+                json.writeObjectFieldStart("status");
+                json.writeNumberField("code", STATUS_CODE_ERROR);
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+
+            for (Span span : spans) {
+                json.writeStartObject();
+                json.writeStringField("traceId", trace.getTraceId());
+                json.writeStringField("spanId", spanIds[span.getIndex()]);
+                json.writeStringField("parentSpanId",
+                        span.getParentIndex() < 0 ? rootSpanId : spanIds[span.getParentIndex()]);
+                json.writeStringField("name", span.getName());
+                json.writeNumberField("kind", SPAN_KIND_INTERNAL);
+                json.writeStringField("startTimeUnixNano",
+                        Long.toString(startUnixNanos + span.getStartNanos() - trace.getStartNanos()));
+                json.writeStringField("endTimeUnixNano",
+                        Long.toString(startUnixNanos + trace.getEndNanos(span) - trace.getStartNanos()));
+                json.writeEndObject();
+            }
+
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    private static void writeAttribute(JsonGenerator json, String key, String value) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("key", key);
+        json.writeObjectFieldStart("value");
+        json.writeStringField("stringValue", value);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    /**
+     * @return The number of traces dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Writes the queued traces and closes the file.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            worker.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker.interrupt();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not close the trace export file.", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mobildev.exam.tracing;
+
+import java.util.Objects;
+
+/**
+ * One timed stage of a request, opened with {@link Tracer#span(String)} and ended by {@link #close()},
+ * usually through try-with-resources. Spans opened while another span of the same request is open
+ * become its children.
+ */
+public final class Span implements AutoCloseable {
+
+    // Returned when the current thread is not tracing a request, so instrumented code never checks.
+    static final Span NOOP = new Span(null, null, -1, -1, 0);
+
+    private final Trace trace;
+    private final String name;
+    private final int index;
+    private final int parentIndex;
+    private final long startNanos;
+    private volatile long endNanos;
+
+    Span(Trace trace, String name, int index, int parentIndex, long startNanos) {
+        this.trace = trace;
+        this.name = name;
+        this.index = index;
+        this.parentIndex = parentIndex;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Ends the span and makes its parent the current span again. Closing a span twice has no effect.
+     */
+    @Override
+    public void close() {
+        if (Objects.isNull(trace) || endNanos != 0) {
+            return;
+        }
+        endNanos = System.nanoTime();
+        trace.setActiveSpan(parentIndex);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The position of the span in its trace.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The index of the enclosing span, or -1 for a stage directly below the request.
+     */
+    public int getParentIndex() {
+        return parentIndex;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} at which the span ended, or 0 if it is still open.
+     */
+    public long getEndNanos() {
+        return endNanos;
+    }
+}
@@ -0,0 +1,128 @@
+package com.mobildev.exam.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The spans recorded for one request. Spans are opened on the thread handling the request; the
+ * trace may be finished on another thread when the response is completed asynchronously, after
+ * which further spans are ignored.
+ */
+public final class Trace {
+    // Bounds the memory of a request that opens spans in a loop.
+    private static final int MAX_SPANS = 256;
+
+    private final String traceId;
+    private final String requestId;
+    private final String method;
+    private final String route;
+    private final long startEpochMillis;
+    private final long startNanos;
+    private final List<Span> spans = new ArrayList<>();
+    // Only touched by the thread handling the request.
+    private int activeSpan = -1;
+    private boolean finished;
+    private volatile int status;
+    private volatile long durationNanos;
+
+    Trace(String traceId, String requestId, String method, String route) {
+        this.traceId = traceId;
+        this.requestId = requestId;
+        this.method = method;
+        this.route = route;
+        this.startEpochMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    Span openSpan(String name) {
+        synchronized (this) {
+            if (finished || spans.size() >= MAX_SPANS) {
+                return Span.NOOP;
+            }
+            Span span = new Span(this, name, spans.size(), activeSpan, System.nanoTime());
+            spans.add(span);
+            activeSpan = span.getIndex();
+            return span;
+        }
+    }
+
+    void setActiveSpan(int index) {
+        activeSpan = index;
+    }
+
+    /**
+     * Ends the trace. Spans still open keep their start; they are reported as ending with the request.
+     *
+     * @return false if the trace was already finished.
+     */
+    boolean finish(int status, long durationNanos) {
+        synchronized (this) {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+        }
+        this.status = status;
+        this.durationNanos = durationNanos;
+        return true;
+    }
+
+    /**
+     * @return The 32 hex digit trace ID used for the export.
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * @return The ID sent back in the {@code X-Request-Id} header; the trace ID unless the client sent one.
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return The route label, e.g. {@code /exams/{id}}.
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @param span A span of this trace.
+     * @return The {@link System#nanoTime()} at which the span ended; spans left open end with the request.
+     */
+    public long getEndNanos(Span span) {
+        long end = span.getEndNanos();
+        return end != 0 ? end : startNanos + durationNanos;
+    }
+
+    /**
+     * @return A copy of the spans in the order they were opened.
+     */
+    public List<Span> getSpans() {
+        synchronized (this) {
+            return new ArrayList<>(spans);
+        }
+    }
+}
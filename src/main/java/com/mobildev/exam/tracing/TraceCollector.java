@@ -0,0 +1,154 @@
+package com.mobildev.exam.tracing;
+
+import com.mobildev.exam.config.AppConfig;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Starts and finishes the traces of requests, keeps the slowest ones for inspection and hands
+ * every finished trace to an optional {@link OtlpFileExporter}.
+ * Finished traces faster than the fastest kept one are discarded without taking the lock.
+ */
+public class TraceCollector implements AutoCloseable {
+    // Client-supplied request IDs are echoed in headers and logs, so only a safe subset is accepted.
+    private static final Pattern REQUEST_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final Comparator<Trace> BY_DURATION = Comparator.comparingLong(Trace::getDurationNanos);
+
+    private final int slowestCapacity;
+    // Min-heap: the head is the fastest of the slowest traces, replaced first.
+    private final PriorityQueue<Trace> slowest;
+    // Null when traces are not exported.
+    private final OtlpFileExporter exporter;
+    private volatile long admissionNanos;
+
+    /**
+     * @param slowestCapacity The number of slowest traces kept.
+     * @param exporter        The exporter of finished traces, or null.
+     */
+    public TraceCollector(int slowestCapacity, OtlpFileExporter exporter) {
+        this.slowestCapacity = slowestCapacity;
+        this.slowest = new PriorityQueue<>(slowestCapacity + 1, BY_DURATION);
+        this.exporter = exporter;
+    }
+
+    /**
+     * Creates a collector keeping {@code exam.tracing.slowest-capacity} traces, exporting them to
+     * {@code exam.tracing.export.file} when it is set.
+     *
+     * @param config The configuration.
+     * @return The collector.
+     * @throws IOException if the export file cannot be opened.
+     */
+    public static TraceCollector fromConfig(AppConfig config) throws IOException {
+        OtlpFileExporter exporter = null;
+        String exportFile = config.getTracingExportFile();
+        if (Objects.nonNull(exportFile)) {
+            exporter = new OtlpFileExporter(Path.of(exportFile), config.getTracingServiceName(),
+                    config.getTracingExportMinDurationMillis() * 1_000_000L, config.getTracingExportQueueCapacity());
+        }
+        return new TraceCollector(config.getTracingSlowestCapacity(), exporter);
+    }
+
+    /**
+     * Starts the trace of a request and makes it the current trace of the calling thread.
+     *
+     * @param requestId The request ID sent by the client, or null. Invalid IDs are replaced by the trace ID.
+     * @param method    The HTTP method.
+     * @param route     The route label.
+     * @return The trace, to be finished when the response is complete.
+     */
+    public Trace begin(String requestId, String method, String route) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String traceId = toHex(random.nextLong()) + toHex(random.nextLong());
+        boolean valid = Objects.nonNull(requestId) && REQUEST_ID_PATTERN.matcher(requestId).matches();
+        Trace trace = new Trace(traceId, valid ? requestId : traceId, method, route);
+        Tracer.attach(trace);
+        return trace;
+    }
+
+    /**
+     * Clears the current trace of the calling thread once it stops handling the request.
+     * The trace itself stays open until {@link #finish(Trace, int)}.
+     */
+    public void detach() {
+        Tracer.detach();
+    }
+
+    /**
+     * Ends a trace when its response is complete, possibly on another thread.
+     *
+     * @param trace  The trace returned by {@link #begin}.
+     * @param status The response status.
+     */
+    public void finish(Trace trace, int status) {
+        if (!trace.finish(status, System.nanoTime() - trace.getStartNanos())) {
+            return;
+        }
+        if (Objects.nonNull(exporter)) {
+            exporter.export(trace);
+        }
+        if (slowestCapacity <= 0 || trace.getDurationNanos() <= admissionNanos) {
+            return;
+        }
+        synchronized (slowest) {
+            slowest.add(trace);
+            if (slowest.size() > slowestCapacity) {
+                slowest.poll();
+            }
+            if (slowest.size() == slowestCapacity) {
+                admissionNanos = slowest.peek().getDurationNanos();
+            }
+        }
+    }
+
+    /**
+     * @return The slowest finished traces, slowest first.
+     */
+    public List<Trace> getSlowest() {
+        List<Trace> traces;
+        synchronized (slowest) {
+            traces = new ArrayList<>(slowest);
+        }
+        traces.sort(BY_DURATION.reversed());
+        return traces;
+    }
+
+    /**
+     * Forgets the kept traces, e.g. after a slow period has been investigated.
+     */
+    public void clear() {
+        synchronized (slowest) {
+            slowest.clear();
+            admissionNanos = 0;
+        }
+    }
+
+    /**
+     * @return The number of traces not exported because the export queue was full.
+     */
+    public long getDroppedExportCount() {
+        return Objects.nonNull(exporter) ? exporter.getDroppedCount() : 0;
+    }
+
+    /**
+     * Writes the traces still queued for export and closes the export file.
+     */
+    @Override
+    public void close() {
+        if (Objects.nonNull(exporter)) {
+            exporter.close();
+        }
+    }
+
+    static String toHex(long value) {
+        String hex = Long.toHexString(value);
+        return hex.length() == 16 ? hex : "0".repeat(16 - hex.length()) + hex;
+    }
+}
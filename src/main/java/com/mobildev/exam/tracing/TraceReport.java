@@ -0,0 +1,64 @@
+package com.mobildev.exam.tracing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mobildev.exam.util.JsonUtil;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Renders traces as JSON for the admin endpoint. Each span carries its offset from the start of the
+ * request, its duration and its parent, which is enough to draw the request as a flame graph.
+ */
+public final class TraceReport {
+
+    private TraceReport() {
+    }
+
+    /**
+     * @param traces The traces, in the order they should be listed.
+     * @return The UTF-8 encoded JSON document.
+     * @throws IOException if the JSON cannot be generated.
+     */
+    public static byte[] toJson(List<Trace> traces) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024 * Math.max(1, traces.size()));
+        try (JsonGenerator json = JsonUtil.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("traces");
+            for (Trace trace : traces) {
+                writeTrace(json, trace);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeTrace(JsonGenerator json, Trace trace) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("requestId", trace.getRequestId());
+        json.writeStringField("traceId", trace.getTraceId());
+        json.writeStringField("method", trace.getMethod());
+        json.writeStringField("route", trace.getRoute());
+        json.writeNumberField("status", trace.getStatus());
+        json.writeStringField("start", Instant.ofEpochMilli(trace.getStartEpochMillis()).toString());
+        json.writeNumberField("durationMs", toMillis(trace.getDurationNanos()));
+        json.writeArrayFieldStart("spans");
+        for (Span span : trace.getSpans()) {
+            json.writeStartObject();
+            json.writeNumberField("id", span.getIndex());
+            json.writeNumberField("parentId", span.getParentIndex());
+            json.writeStringField("name", span.getName());
+            json.writeNumberField("offsetMs", toMillis(span.getStartNanos() - trace.getStartNanos()));
+            json.writeNumberField("durationMs", toMillis(trace.getEndNanos(span) - span.getStartNanos()));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
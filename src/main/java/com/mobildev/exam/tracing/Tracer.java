@@ -0,0 +1,48 @@
+package com.mobildev.exam.tracing;
+
+import java.util.Objects;
+
+/**
+ * Entry point for instrumented code. The trace of the request handled by the current thread is kept
+ * in a thread local, so services and DAOs open spans without the exchange being passed down:
+ * <pre>{@code
+ * try (Span span = Tracer.span("submit.score")) {
+ *     ...
+ * }
+ * }</pre>
+ * Outside a traced request, e.g. on background threads, spans cost one thread-local lookup.
+ */
+public final class Tracer {
+
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private Tracer() {
+    }
+
+    /**
+     * Opens a span in the current request's trace.
+     *
+     * @param name The stage name, e.g. {@code submit.save-answers}.
+     * @return The open span, to be closed when the stage ends.
+     */
+    public static Span span(String name) {
+        Trace trace = CURRENT.get();
+        return Objects.isNull(trace) ? Span.NOOP : trace.openSpan(name);
+    }
+
+    /**
+     * @return The request ID of the request handled by the current thread, or null if it is not traced.
+     */
+    public static String currentRequestId() {
+        Trace trace = CURRENT.get();
+        return Objects.isNull(trace) ? null : trace.getRequestId();
+    }
+
+    static void attach(Trace trace) {
+        CURRENT.set(trace);
+    }
+
+    static void detach() {
+        CURRENT.remove();
+    }
+}
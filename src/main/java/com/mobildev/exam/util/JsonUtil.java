@@ -0,0 +1,144 @@
+package com.mobildev.exam.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.mobildev.exam.dto.ExamListResponseDTO;
+import com.mobildev.exam.dto.ExamResponseDTO;
+import com.mobildev.exam.dto.ExamResultDTO;
+import com.mobildev.exam.dto.ExamSessionDTO;
+import com.mobildev.exam.submission.PendingSubmission;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * The application's single, pre-configured Jackson setup.
+ * Sharing one ObjectMapper means serializers and type introspection are built once per type
+ * instead of once per component. The writers and readers below are resolved for their root
+ * type when the mapper is created, so the first request after a deploy does not pay for it.
+ * They are immutable and safe to share between threads.
+ * The server calls {@link #configure(boolean)} with its configuration before it serves anything;
+ * until then the mapper is created with {@link #DEFAULT_BLACKBIRD}. With Blackbird enabled,
+ * generated lambdas replace reflective property access.
+ */
+public final class JsonUtil {
+    private static final Logger LOGGER = Logger.getLogger(JsonUtil.class.getName());
+    public static final boolean DEFAULT_BLACKBIRD = true;
+
+    // Replaced as a whole, so the writers and readers always belong to the current mapper.
+    private static volatile Json json;
+
+    private JsonUtil() {
+    }
+
+    /**
+     * Creates the shared mapper with the given settings, unless it already uses them.
+     * Components that keep the factory, such as the submission parser, must be created afterwards.
+     *
+     * @param blackbird Whether to register the Blackbird module.
+     */
+    public static synchronized void configure(boolean blackbird) {
+        if (Objects.isNull(json) || json.blackbird != blackbird) {
+            json = new Json(blackbird);
+        }
+    }
+
+    /**
+     * Creates an ObjectMapper with the application's settings.
+     *
+     * @param blackbird Whether to register the Blackbird module.
+     */
+    public static ObjectMapper createMapper(boolean blackbird) {
+        ObjectMapper mapper = new ObjectMapper();
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+            LOGGER.info("Blackbird JSON acceleration enabled.");
+        }
+        return mapper;
+    }
+
+    /**
+     * @return The shared mapper, for types without a dedicated writer or reader.
+     */
+    public static ObjectMapper getMapper() {
+        return json().mapper;
+    }
+
+    /**
+     * @return The shared factory for streaming parsers and generators.
+     */
+    public static JsonFactory getFactory() {
+        return json().mapper.getFactory();
+    }
+
+    public static ObjectWriter getExamResponseWriter() {
+        return json().examResponseWriter;
+    }
+
+    public static ObjectWriter getExamListResponseWriter() {
+        return json().examListResponseWriter;
+    }
+
+    public static ObjectWriter getExamResultWriter() {
+        return json().examResultWriter;
+    }
+
+    public static ObjectWriter getExamSessionWriter() {
+        return json().examSessionWriter;
+    }
+
+    public static ObjectWriter getMessageWriter() {
+        return json().messageWriter;
+    }
+
+    public static ObjectWriter getPendingSubmissionWriter() {
+        return json().pendingSubmissionWriter;
+    }
+
+    public static ObjectReader getPendingSubmissionReader() {
+        return json().pendingSubmissionReader;
+    }
+
+    private static Json json() {
+        Json current = json;
+        if (Objects.isNull(current)) {
+            synchronized (JsonUtil.class) {
+                if (Objects.isNull(json)) {
+                    json = new Json(DEFAULT_BLACKBIRD);
+                }
+                current = json;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * A mapper with the writers and readers resolved from it.
+     */
+    private static final class Json {
+        private final boolean blackbird;
+        private final ObjectMapper mapper;
+        private final ObjectWriter examResponseWriter;
+        private final ObjectWriter examListResponseWriter;
+        private final ObjectWriter examResultWriter;
+        private final ObjectWriter examSessionWriter;
+        private final ObjectWriter messageWriter;
+        private final ObjectWriter pendingSubmissionWriter;
+        private final ObjectReader pendingSubmissionReader;
+
+        private Json(boolean blackbird) {
+            this.blackbird = blackbird;
+            this.mapper = createMapper(blackbird);
+            this.examResponseWriter = mapper.writerFor(ExamResponseDTO.class);
+            this.examListResponseWriter = mapper.writerFor(ExamListResponseDTO.class);
+            this.examResultWriter = mapper.writerFor(ExamResultDTO.class);
+            this.examSessionWriter = mapper.writerFor(ExamSessionDTO.class);
+            this.messageWriter = mapper.writerFor(Map.class);
+            this.pendingSubmissionWriter = mapper.writerFor(PendingSubmission.class);
+            this.pendingSubmissionReader = mapper.readerFor(PendingSubmission.class);
+        }
+    }
+}
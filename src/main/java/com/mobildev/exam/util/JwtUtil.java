@@ -1,34 +1,85 @@
 package com.mobildev.exam.util;
 
+import com.mobildev.exam.model.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 
 public class JwtUtil {
 
     private static final Key SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    // Parsers are immutable and thread-safe, so one instance serves every request.
+    private static final JwtParser PARSER = Jwts.parserBuilder()
+            .setSigningKey(SECRET_KEY)
+            .build();
+
+    // Names of the claims carrying the numeric user ID and the user's roles.
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
+    private static final long TOKEN_TTL_MILLIS = 900000; // 15 minutes
 
     // JWT token oluşturma
-    public static String generateToken(String username) {
+    public static String generateToken(AuthenticatedUser user) {
+        return generateToken(user, TOKEN_TTL_MILLIS);
+    }
+
+    /**
+     * Issues a token that expires after the given time. The expiration is stored in whole seconds.
+     *
+     * @param user      The user the token identifies.
+     * @param ttlMillis How long the token is valid.
+     * @return The compact JWT.
+     */
+    public static String generateToken(AuthenticatedUser user, long ttlMillis) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 900000)) // 15 minutes
+                .setSubject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getUserId())
+                .claim(CLAIM_ROLES, new ArrayList<>(user.getRoles()))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlMillis))
                 .signWith(SECRET_KEY)
                 .compact();
     }
 
+    /**
+     * Builds the typed principal from the claims of a verified token.
+     *
+     * @param claims The verified claims.
+     * @return The authenticated user.
+     * @throws IllegalArgumentException if the token lacks the subject or the user ID claim.
+     */
+    public static AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        String username = claims.getSubject();
+        Integer userId = claims.get(CLAIM_USER_ID, Integer.class);
+        if (Objects.isNull(username) || Objects.isNull(userId)) {
+            throw new IllegalArgumentException("Token does not identify a user.");
+        }
+        Set<String> roles = new HashSet<>();
+        Object rolesClaim = claims.get(CLAIM_ROLES);
+        if (rolesClaim instanceof Collection) {
+            for (Object role : (Collection<?>) rolesClaim) {
+                roles.add(String.valueOf(role));
+            }
+        }
+        return new AuthenticatedUser(userId, username, roles);
+    }
+
     public static Jws<Claims> parseToken(String token) throws ExpiredJwtException, UnsupportedJwtException, MalformedJwtException, io.jsonwebtoken.security.SignatureException, IllegalArgumentException {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token);
+        return PARSER.parseClaimsJws(token);
     }
 }
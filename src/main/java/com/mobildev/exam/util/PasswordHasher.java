@@ -0,0 +1,124 @@
+package com.mobildev.exam.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import java.util.Objects;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hashes and verifies passwords with PBKDF2-HMAC-SHA256.
+ * Hashes are stored as {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} with Base64 salt and hash,
+ * so the work factor can be raised later without invalidating existing rows. Stored values
+ * without that prefix are legacy plaintext passwords; they still verify, and
+ * {@link #needsRehash(String)} reports them so they can be upgraded on the next login.
+ * Hashing is deliberately CPU-expensive and should not run on the HTTP worker threads.
+ */
+public class PasswordHasher {
+    public static final int DEFAULT_ITERATIONS = 310000;
+
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * @param iterations The PBKDF2 iteration count used for new hashes.
+     */
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Hashes a password with a fresh random salt.
+     *
+     * @param password The plaintext password.
+     * @return The encoded hash, suitable for storing in the users table.
+     */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Checks a password against a stored value, in constant time with respect to the stored value.
+     *
+     * @param password The plaintext password.
+     * @param stored   The stored hash, or a legacy plaintext password.
+     * @return true if the password matches.
+     */
+    public boolean verify(String password, String stored) {
+        if (Objects.isNull(password) || Objects.isNull(stored)) {
+            return false;
+        }
+        if (isLegacy(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            // Corrupt stored value; NumberFormatException is an IllegalArgumentException.
+            return false;
+        }
+    }
+
+    /**
+     * @param stored The stored value.
+     * @return true if the value is legacy plaintext or was hashed with fewer iterations than configured.
+     */
+    public boolean needsRehash(String stored) {
+        if (Objects.isNull(stored) || isLegacy(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    private static boolean isLegacy(String stored) {
+        return !stored.startsWith(PREFIX + "$");
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available.", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -1,17 +1,215 @@
 package com.mobildev.exam.util;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mobildev.exam.cache.CachedResponse;
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
 
 public class ResponseUtil {
+    private static final DateTimeFormatter HTTP_DATE_FORMAT = DateTimeFormatter.RFC_1123_DATE_TIME;
+    // Longer strings are encoded straight into the response body instead of into a byte array first.
+    private static final int STREAM_ENCODE_MIN_LENGTH = 8192;
+
+    /**
+     * Sends a string as a UTF-8 body with a fixed Content-Length.
+     * Short messages are encoded in one step; long ones are measured first and then encoded
+     * into the response body, so no second copy of the whole body is made.
+     */
     public static void sendResponse(HttpExchange exchange, int statusCode, String response) throws IOException {
-        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        if (response.length() < STREAM_ENCODE_MIN_LENGTH) {
+            sendResponse(exchange, statusCode, response.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, utf8Length(response));
+        try (Writer writer = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+            writer.write(response);
+        }
+    }
+
+    public static void sendResponse(HttpExchange exchange, int statusCode, byte[] bytes) throws IOException {
         exchange.getResponseHeaders().set("Content-Type", "application/json");
         exchange.sendResponseHeaders(statusCode, bytes.length);
         try (OutputStream os = exchange.getResponseBody()) {
             os.write(bytes);
         }
     }
+
+    /**
+     * Serializes a value straight into the response body with chunked transfer encoding, so the
+     * JSON never exists as a String or byte array. The body is gzip encoded when the client accepts it.
+     * Once this method has started writing, the status can no longer change; a serialization
+     * failure aborts the response instead.
+     *
+     * @param writer The writer for the value's type, e.g. one of {@link JsonUtil}'s writers.
+     */
+    public static void sendJson(HttpExchange exchange, int statusCode, ObjectWriter writer, Object value) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/json");
+        headers.set("Vary", "Accept-Encoding");
+        boolean gzip = acceptsGzip(exchange);
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+        }
+
+        // A length of 0 selects chunked transfer encoding.
+        exchange.sendResponseHeaders(statusCode, 0);
+        try (OutputStream os = gzip ? new GZIPOutputStream(exchange.getResponseBody()) : exchange.getResponseBody()) {
+            writer.writeValue(os, value);
+        }
+    }
+
+    /**
+     * Sends a pre-encoded response with its validators, using the gzip variant when the client accepts it.
+     * Each variant carries its own strong ETag. A 200 response is replaced by a bodiless 304 Not Modified
+     * when the request's If-None-Match or If-Modified-Since header shows the client already has this content.
+     */
+    public static void sendCachedResponse(HttpExchange exchange, int statusCode, CachedResponse response) throws IOException {
+        boolean gzip = Objects.nonNull(response.getGzipBody()) && acceptsGzip(exchange);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", gzip ? response.getGzipEtag() : response.getEtag());
+        headers.set("Last-Modified", HTTP_DATE_FORMAT.format(response.getLastModified().atOffset(ZoneOffset.UTC)));
+        headers.set("Vary", "Accept-Encoding");
+
+        if (statusCode == 200 && isNotModified(exchange, response)) {
+            sendNotModified(exchange);
+            return;
+        }
+
+        byte[] body = response.getBody();
+        if (gzip) {
+            headers.set("Content-Encoding", "gzip");
+            body = response.getGzipBody();
+        }
+        sendResponse(exchange, statusCode, body);
+    }
+
+    /**
+     * Sends a 304 Not Modified response. Validator headers must already be set.
+     */
+    public static void sendNotModified(HttpExchange exchange) throws IOException {
+        // A 304 response never carries a body.
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+    }
+
+    /**
+     * Evaluates the request's conditional headers against a cached response.
+     * If-None-Match takes precedence over If-Modified-Since, as required by RFC 7232.
+     *
+     * @return true if the client's cached copy is still current.
+     */
+    public static boolean isNotModified(HttpExchange exchange, CachedResponse response) {
+        Headers requestHeaders = exchange.getRequestHeaders();
+        if (Objects.isNull(requestHeaders)) {
+            return false;
+        }
+
+        String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+        if (Objects.nonNull(ifNoneMatch)) {
+            // Both variants have the same content, so a client holding either one is up to date.
+            return etagMatches(ifNoneMatch, response.getEtag(), response.getGzipEtag());
+        }
+
+        String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+        if (Objects.nonNull(ifModifiedSince)) {
+            try {
+                Instant since = ZonedDateTime.parse(ifModifiedSince.trim(), HTTP_DATE_FORMAT).toInstant();
+                return !response.getLastModified().isAfter(since);
+            } catch (DateTimeParseException e) {
+                // An invalid date must be ignored.
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares an If-None-Match header with the ETags of a response's variants using the weak comparison function.
+     *
+     * @param gzipEtag The ETag of the gzip variant, or null if there is none.
+     */
+    private static boolean etagMatches(String ifNoneMatch, String etag, String gzipEtag) {
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the request's Accept-Encoding header allows a gzip encoded response.
+     */
+    public static boolean acceptsGzip(HttpExchange exchange) {
+        Headers requestHeaders = exchange.getRequestHeaders();
+        if (Objects.isNull(requestHeaders)) {
+            return false;
+        }
+        String acceptEncoding = requestHeaders.getFirst("Accept-Encoding");
+        if (Objects.isNull(acceptEncoding)) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || hasPositiveQuality(parts[1].trim());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the bytes of a string's UTF-8 encoding without encoding it.
+     * An unpaired surrogate is encoded as a single {@code ?}, as the encoder replaces it.
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                length += 1;
+            } else if (!Character.isSurrogate(c)) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // Two chars, four bytes.
+                length += 2;
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static boolean hasPositiveQuality(String parameter) {
+        if (!parameter.startsWith("q=")) {
+            return true;
+        }
+        try {
+            return Double.parseDouble(parameter.substring(2)) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,142 @@
+package com.mobildev.exam.util;
+
+import com.mobildev.exam.cache.LruCache;
+import com.mobildev.exam.model.AuthenticatedUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verifies bearer tokens and remembers the ones that passed.
+ * A session sends the same token on every request, so after the first verification the
+ * principal is served from a bounded cache keyed by the SHA-256 hash of the token, skipping
+ * the HMAC check and the claim parsing. Entries are honored only until the token's own
+ * expiration time, after which the token is verified (and rejected) again.
+ */
+public class TokenVerifier {
+    private static final int DEFAULT_CACHE_CAPACITY = 10000;
+
+    private final LruCache<TokenHash, VerifiedToken> cache;
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public TokenVerifier() {
+        this(DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * @param cacheCapacity The maximum number of verified tokens remembered.
+     */
+    public TokenVerifier(int cacheCapacity) {
+        this.cache = new LruCache<>(cacheCapacity);
+    }
+
+    /**
+     * Returns the principal of a valid token.
+     *
+     * @param token The compact JWT.
+     * @return The authenticated user.
+     * @throws JwtException             if the token is expired, malformed or its signature is invalid.
+     * @throws IllegalArgumentException if the token is empty or does not identify a user.
+     */
+    public AuthenticatedUser verify(String token) {
+        TokenHash key = TokenHash.of(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (Objects.nonNull(cached)) {
+            if (System.currentTimeMillis() < cached.expiresAtMillis) {
+                return cached.principal;
+            }
+            cache.invalidate(key);
+        }
+
+        verifications.increment();
+        try {
+            Claims claims = JwtUtil.parseToken(token).getBody();
+            AuthenticatedUser principal = JwtUtil.toAuthenticatedUser(claims);
+            Date expiration = claims.getExpiration();
+            // Tokens without an expiration are never cached, so they are always verified.
+            if (Objects.nonNull(expiration)) {
+                cache.put(key, new VerifiedToken(principal, expiration.getTime()));
+            }
+            return principal;
+        } catch (JwtException | IllegalArgumentException e) {
+            rejections.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of requests authenticated from the cache.
+     */
+    public long getCacheHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * @return The number of full signature verifications performed.
+     */
+    public long getVerificationCount() {
+        return verifications.sum();
+    }
+
+    /**
+     * @return The number of tokens rejected as expired, malformed or forged.
+     */
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    public LruCache<TokenHash, VerifiedToken> getCache() {
+        return cache;
+    }
+
+    /**
+     * The SHA-256 digest of a token, so raw bearer tokens are not retained in memory.
+     */
+    public static final class TokenHash {
+        private final byte[] digest;
+        private final int hashCode;
+
+        private TokenHash(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        static TokenHash of(String token) {
+            try {
+                return new TokenHash(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available.", e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TokenHash && Arrays.equals(digest, ((TokenHash) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A principal together with the expiration time of the token it was verified from.
+     */
+    public static final class VerifiedToken {
+        private final AuthenticatedUser principal;
+        private final long expiresAtMillis;
+
+        private VerifiedToken(AuthenticatedUser principal, long expiresAtMillis) {
+            this.principal = principal;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
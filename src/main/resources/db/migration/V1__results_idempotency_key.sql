@@ -0,0 +1,4 @@
+-- Stores the Idempotency-Key of synchronously written submissions, so a retry that reaches the
+-- database again returns the saved score instead of saving a second result. NULLs do not collide.
+ALTER TABLE results ADD COLUMN idempotency_key VARCHAR(64) NULL;
+ALTER TABLE results ADD CONSTRAINT uk_results_user_idempotency_key UNIQUE (user_id, idempotency_key);
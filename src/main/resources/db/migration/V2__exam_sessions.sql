@@ -0,0 +1,20 @@
+-- Stores the timed exam sessions and their autosaved answers. Required before exam.session.enabled
+-- is turned on; the sessions are flushed to these tables and reloaded from them after a restart.
+CREATE TABLE exam_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    user_id INT NOT NULL,
+    exam_id INT NOT NULL,
+    started_at_ms BIGINT NOT NULL,
+    expires_at_ms BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL
+);
+
+CREATE INDEX idx_exam_sessions_user_exam ON exam_sessions (user_id, exam_id, status);
+
+CREATE TABLE exam_session_answers (
+    session_id VARCHAR(36) NOT NULL,
+    question_id INT NOT NULL,
+    selected_option_id INT,
+    answer_text TEXT,
+    PRIMARY KEY (session_id, question_id)
+);
@@ -0,0 +1,5 @@
+-- Widens users.password for PBKDF2 hashes, which are stored as
+-- pbkdf2-sha256$<iterations>$<salt>$<hash> and take about 90 characters. Must run before the
+-- first login on a database whose column is shorter than 100 characters, or upgrading the
+-- hash of a legacy plaintext password fails and is retried on every login.
+ALTER TABLE users MODIFY password VARCHAR(255) NOT NULL;
@@ -0,0 +1,72 @@
+-- Schema of a new database. MySQL syntax, also accepted by H2 in MySQL mode.
+-- Existing databases are brought up to date with the scripts in db/migration instead.
+
+CREATE TABLE users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE exams (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    duration_minutes INT NOT NULL
+);
+
+CREATE TABLE questions (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    exam_id INT NOT NULL,
+    question_text TEXT NOT NULL,
+    question_type VARCHAR(20) NOT NULL,
+    correct_answer VARCHAR(255),
+    FOREIGN KEY (exam_id) REFERENCES exams (id)
+);
+
+CREATE TABLE options (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    question_id INT NOT NULL,
+    option_text VARCHAR(255) NOT NULL,
+    is_correct BOOLEAN NOT NULL DEFAULT FALSE,
+    FOREIGN KEY (question_id) REFERENCES questions (id)
+);
+
+CREATE TABLE user_answers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    exam_id INT NOT NULL,
+    question_id INT NOT NULL,
+    selected_option_id INT,
+    answer_text TEXT
+);
+
+CREATE TABLE results (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id INT NOT NULL,
+    exam_id INT NOT NULL,
+    score DECIMAL(5, 2) NOT NULL,
+    submitted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- The Idempotency-Key of the submission, or the submission ID in write-behind mode. NULLs do not collide.
+    idempotency_key VARCHAR(64),
+    CONSTRAINT uk_results_user_idempotency_key UNIQUE (user_id, idempotency_key)
+);
+
+CREATE TABLE exam_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    user_id INT NOT NULL,
+    exam_id INT NOT NULL,
+    started_at_ms BIGINT NOT NULL,
+    expires_at_ms BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL
+);
+
+CREATE INDEX idx_exam_sessions_user_exam ON exam_sessions (user_id, exam_id, status);
+
+CREATE TABLE exam_session_answers (
+    session_id VARCHAR(36) NOT NULL,
+    question_id INT NOT NULL,
+    selected_option_id INT,
+    answer_text TEXT,
+    PRIMARY KEY (session_id, question_id)
+);
@@ -0,0 +1,134 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.model.QuestionType;
+import com.mobildev.exam.service.AnswerKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the compiled answer key scores every answer like the map based scoring it replaced.
+ */
+public class AnswerKeyTest {
+
+    private AnswerKey answerKey;
+    // The correct answers in the form SubmitService used to read them into.
+    private Map<Integer, Map<String, Object>> correctAnswersMap;
+
+    @BeforeEach
+    void setUp() {
+        answerKey = AnswerKey.builder(1)
+                .addQuestion(30, QuestionType.CLASSIC, "Ankara")
+                .addQuestion(10, QuestionType.MULTIPLE_CHOICE, null)
+                .setCorrectOption(10, 101)
+                .addQuestion(20, QuestionType.MULTIPLE_CHOICE, null)
+                .addQuestion(40, QuestionType.CLASSIC, null)
+                .build();
+
+        correctAnswersMap = new HashMap<>();
+        correctAnswersMap.put(30, Map.of("type", "CLASSIC", "correctAnswerText", "Ankara"));
+        correctAnswersMap.put(10, Map.of("type", "MULTIPLE_CHOICE", "correctOptionId", 101));
+        correctAnswersMap.put(20, Map.of("type", "MULTIPLE_CHOICE"));
+        correctAnswersMap.put(40, Map.of("type", "CLASSIC"));
+    }
+
+    @Test
+    void testIsCorrect_multipleChoice_shouldMatchMapScoring() {
+        assertSameScores(List.of(
+                answer(10, 101, null),
+                answer(10, 102, null),
+                answer(10, null, null),
+                answer(10, null, "101"),
+                // A question without a correct option
+                answer(20, 101, null),
+                answer(20, Integer.MIN_VALUE, null)));
+    }
+
+    @Test
+    void testIsCorrect_classic_shouldMatchMapScoring() {
+        assertSameScores(List.of(
+                answer(30, null, "Ankara"),
+                answer(30, null, "Istanbul"),
+                answer(30, null, null),
+                answer(30, 101, null),
+                // A question without a correct answer
+                answer(40, null, "Ankara"),
+                answer(40, null, null)));
+    }
+
+    @Test
+    void testIsCorrect_caseAndWhitespace_shouldMatchMapScoring() {
+        // Case is ignored, surrounding whitespace is not.
+        assertSameScores(List.of(
+                answer(30, null, "ankara"),
+                answer(30, null, "ANKARA"),
+                answer(30, null, " Ankara"),
+                answer(30, null, "Ankara "),
+                answer(30, null, "")));
+        assertEquals(1, score(List.of(answer(30, null, "aNKARA"))));
+        assertEquals(0, score(List.of(answer(30, null, "Ankara\n"))));
+    }
+
+    @Test
+    void testIndexOf_unknownQuestion_shouldBeSkippedLikeMapScoring() {
+        assertEquals(-1, answerKey.indexOf(99));
+        assertEquals(-1, answerKey.indexOf(Integer.MIN_VALUE));
+        assertEquals(4, answerKey.size());
+        assertSameScores(List.of(
+                answer(99, 101, null),
+                answer(10, 101, null),
+                answer(0, null, "Ankara")));
+    }
+
+    /**
+     * Scores the answers one by one with both implementations, so a mismatch names the answer.
+     */
+    private void assertSameScores(List<UserAnswerSubmissionDTO> answers) {
+        for (UserAnswerSubmissionDTO answer : answers) {
+            assertEquals(legacyScore(answer), score(List.of(answer)),
+                    () -> "question " + answer.getQuestionId() + ", option " + answer.getSelectedOptionId()
+                            + ", text '" + answer.getAnswerText() + "'");
+        }
+    }
+
+    private int score(List<UserAnswerSubmissionDTO> answers) {
+        int score = 0;
+        for (UserAnswerSubmissionDTO answer : answers) {
+            int index = answerKey.indexOf(answer.getQuestionId());
+            if (index >= 0 && answerKey.isCorrect(index, answer.getSelectedOptionId(), answer.getAnswerText())) {
+                score++;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * The scoring SubmitService used before the answer key was compiled.
+     */
+    private int legacyScore(UserAnswerSubmissionDTO userAnswer) {
+        Map<String, Object> correctData = correctAnswersMap.get(userAnswer.getQuestionId());
+        if (Objects.isNull(correctData)) {
+            return 0;
+        }
+        String questionType = (String) correctData.get("type");
+        if (QuestionType.CLASSIC.name().equals(questionType)) {
+            String correctAnswerText = (String) correctData.get("correctAnswerText");
+            return Objects.nonNull(userAnswer.getAnswerText()) && Objects.nonNull(correctAnswerText)
+                    && correctAnswerText.equalsIgnoreCase(userAnswer.getAnswerText()) ? 1 : 0;
+        } else if (QuestionType.MULTIPLE_CHOICE.name().equals(questionType)) {
+            Integer correctOptionId = (Integer) correctData.get("correctOptionId");
+            return Objects.nonNull(userAnswer.getSelectedOptionId()) && Objects.nonNull(correctOptionId)
+                    && correctOptionId.equals(userAnswer.getSelectedOptionId()) ? 1 : 0;
+        }
+        return 0;
+    }
+
+    private static UserAnswerSubmissionDTO answer(int questionId, Integer selectedOptionId, String answerText) {
+        return new UserAnswerSubmissionDTO(questionId, selectedOptionId, answerText);
+    }
+}
@@ -0,0 +1,122 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.logging.AsyncLogHandler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class AsyncLogHandlerTest {
+
+    @Test
+    void testClose_warningsPublishedWhileClosing_shouldAllBeWritten() throws Exception {
+        List<LogRecord> written = Collections.synchronizedList(new ArrayList<>());
+        AsyncLogHandler handler = new AsyncLogHandler(new CapturingHandler(written), 4);
+        int threads = 4;
+        int recordsPerThread = 2000;
+        CountDownLatch started = new CountDownLatch(threads);
+
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread publisher = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < recordsPerThread; i++) {
+                    handler.publish(new LogRecord(Level.WARNING, "record " + i));
+                }
+            });
+            publisher.start();
+            publishers.add(publisher);
+        }
+        started.await();
+        handler.close();
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        assertEquals(threads * recordsPerThread, written.size());
+        assertEquals(0, handler.getQueueDepth());
+    }
+
+    @Test
+    void testClose_writerStuckPastTimeout_shouldWriteQueuedRecords() throws Exception {
+        List<LogRecord> written = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch writing = new CountDownLatch(1);
+        // The delegate blocks until close() gives up waiting and interrupts the writer thread.
+        AsyncLogHandler handler = new AsyncLogHandler(new CapturingHandler(written) {
+            @Override
+            public void publish(LogRecord record) {
+                if (Thread.currentThread().getName().equals("async-log-writer") && writing.getCount() > 0) {
+                    writing.countDown();
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.publish(record);
+            }
+        }, 4);
+
+        handler.publish(new LogRecord(Level.SEVERE, "first"));
+        writing.await();
+        handler.publish(new LogRecord(Level.SEVERE, "second"));
+        handler.close();
+
+        assertEquals(List.of("first", "second"), written.stream().map(LogRecord::getMessage).sorted().toList());
+    }
+
+    @Test
+    void testPublish_fullQueue_shouldDropOnlyRecordsBelowWarning() throws Exception {
+        List<LogRecord> written = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        // The delegate blocks the writer thread, so the queue fills up.
+        AsyncLogHandler handler = new AsyncLogHandler(new CapturingHandler(written) {
+            @Override
+            public void publish(LogRecord record) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.publish(record);
+            }
+        }, 2);
+
+        for (int i = 0; i < 10; i++) {
+            handler.publish(new LogRecord(Level.INFO, "info " + i));
+        }
+        release.countDown();
+        handler.close();
+
+        assertTrue(handler.getDroppedCount() > 0);
+        assertEquals(10 - handler.getDroppedCount(),
+                written.stream().filter(record -> record.getLevel() == Level.INFO).count());
+    }
+
+    private static class CapturingHandler extends Handler {
+        private final List<LogRecord> written;
+
+        CapturingHandler(List<LogRecord> written) {
+            this.written = written;
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            written.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.db.SqlScript;
+import com.mobildev.exam.handlers.LoginHandler;
+import com.mobildev.exam.model.User;
+import com.mobildev.exam.service.AuthService;
+import com.mobildev.exam.util.PasswordHasher;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AuthServiceTest {
+
+    private static final int ITERATIONS = 1000;
+
+    private H2DataSourceProvider provider;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = TestDatabase.create();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (authService != null) {
+            authService.shutdown();
+        }
+        provider.close();
+    }
+
+    @Test
+    void testAuthenticate_legacyPassword_shouldRehashOnceTheColumnIsWideEnough() throws Exception {
+        // A database created before V3__users_password_hash.sql
+        TestDatabase.execute(provider,
+                "ALTER TABLE users MODIFY password VARCHAR(50) NOT NULL",
+                "INSERT INTO users (id, username, password) VALUES (1, 'alice', 'secret')");
+        authService = new AuthService(provider, new PasswordHasher(ITERATIONS), 1, 4);
+
+        // The login succeeds even though the upgraded hash does not fit.
+        User user = authService.authenticateAsync("alice", "secret").get(10, TimeUnit.SECONDS);
+        assertNotNull(user);
+        assertNull(user.getPassword());
+        assertEquals(0, authService.getRehashCount());
+        assertEquals("secret", storedPassword());
+
+        try (Connection conn = provider.getConnection()) {
+            SqlScript.execute(conn, "db/migration/V3__users_password_hash.sql");
+        }
+        assertNotNull(authService.authenticateAsync("alice", "secret").get(10, TimeUnit.SECONDS));
+        assertEquals(1, authService.getRehashCount());
+        assertTrue(storedPassword().startsWith("pbkdf2-sha256$" + ITERATIONS + "$"));
+
+        // The upgraded hash verifies and is not upgraded again.
+        assertNotNull(authService.authenticateAsync("alice", "secret").get(10, TimeUnit.SECONDS));
+        assertNull(authService.authenticateAsync("alice", "wrong").get(10, TimeUnit.SECONDS));
+        assertEquals(1, authService.getRehashCount());
+    }
+
+    @Test
+    void testAuthenticate_unknownUser_shouldVerifyAgainstDummyHash() throws Exception {
+        PasswordHasher hasher = spy(new PasswordHasher(ITERATIONS));
+        authService = new AuthService(provider, hasher, 1, 4);
+        ArgumentCaptor<String> dummyPassword = ArgumentCaptor.forClass(String.class);
+        verify(hasher).hash(dummyPassword.capture());
+
+        assertNull(authService.authenticateAsync("nobody", "guess").get(10, TimeUnit.SECONDS));
+
+        // An unknown user costs a full hash check, so it cannot be told apart from a wrong password by timing.
+        ArgumentCaptor<String> checkedHash = ArgumentCaptor.forClass(String.class);
+        verify(hasher).verify(eq("guess"), checkedHash.capture());
+        assertTrue(checkedHash.getValue().startsWith("pbkdf2-sha256$" + ITERATIONS + "$"));
+        assertTrue(hasher.verify(dummyPassword.getValue(), checkedHash.getValue()));
+    }
+
+    @Test
+    void testLogin_hashingPoolSaturated_shouldReturn503() throws Exception {
+        PasswordHasher hasher = spy(new PasswordHasher(ITERATIONS));
+        authService = new AuthService(provider, hasher, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(hasher).verify(anyString(), anyString());
+        LoginHandler loginHandler = new LoginHandler(authService, Set.of());
+
+        // One login is hashed and one waits in the queue.
+        HttpExchange hashing = login();
+        loginHandler.handle(hashing);
+        HttpExchange queued = login();
+        loginHandler.handle(queued);
+        assertEquals(1, authService.getQueueDepth());
+
+        HttpExchange rejected = login();
+        loginHandler.handle(rejected);
+        String message = "Server is busy. Please retry.";
+        verify(rejected).sendResponseHeaders(503, message.length());
+        assertEquals("1", rejected.getResponseHeaders().getFirst("Retry-After"));
+        assertEquals(1, authService.getRejectedCount());
+
+        release.countDown();
+        verify(hashing, timeout(10000)).sendResponseHeaders(eq(401), eq((long) "Invalid credentials".length()));
+        verify(queued, timeout(10000)).sendResponseHeaders(eq(401), eq((long) "Invalid credentials".length()));
+    }
+
+    private String storedPassword() throws Exception {
+        try (Connection conn = provider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT password FROM users WHERE id = 1");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static HttpExchange login() {
+        Headers requestHeaders = new Headers();
+        requestHeaders.set("Authorization", "Basic "
+                + Base64.getEncoder().encodeToString("nobody:guess".getBytes(StandardCharsets.UTF_8)));
+        HttpExchange exchange = mock(HttpExchange.class);
+        when(exchange.getRequestMethod()).thenReturn("POST");
+        when(exchange.getRequestHeaders()).thenReturn(requestHeaders);
+        when(exchange.getResponseHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
+        return exchange;
+    }
+}
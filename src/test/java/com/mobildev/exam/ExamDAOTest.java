@@ -0,0 +1,85 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.dao.ExamFetchStrategy;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.model.Exam;
+import com.mobildev.exam.model.Question;
+import com.mobildev.exam.model.QuestionType;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ExamDAOTest {
+
+    private H2DataSourceProvider provider;
+    private ExamDAO examDAO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = TestDatabase.create();
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (1, 'Exam', NULL, 60)",
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (2, 'Empty', 'No questions yet', 30)",
+                // A classic question without a correct answer, so it has NULL option columns in the join too.
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (10, 1, 'Explain', 'CLASSIC', NULL)",
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (11, 1, 'Pick one', 'MULTIPLE_CHOICE', NULL)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (110, 11, 'Right', TRUE)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (111, 11, 'Wrong', FALSE)");
+        examDAO = new ExamDAO(provider);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testGetExamDetails_nullColumns_shouldBePreservedByBothStrategies() throws Exception {
+        for (ExamFetchStrategy strategy : ExamFetchStrategy.values()) {
+            Exam exam = examDAO.getExamDetails(1, strategy);
+
+            assertNull(exam.getDescription(), strategy.name());
+            List<Question> questions = exam.getQuestions();
+            assertEquals(2, questions.size(), strategy.name());
+
+            // The NULL option columns of the classic question do not become an option with ID 0.
+            Question classic = questions.get(0);
+            assertEquals(10, classic.getId());
+            assertEquals(QuestionType.CLASSIC, classic.getQuestionType());
+            assertNull(classic.getCorrectAnswer());
+            assertTrue(classic.getOptions().isEmpty(), strategy.name());
+
+            Question multipleChoice = questions.get(1);
+            assertEquals(2, multipleChoice.getOptions().size(), strategy.name());
+            assertEquals(110, multipleChoice.getOptions().get(0).getId());
+            assertEquals("Wrong", multipleChoice.getOptions().get(1).getOptionText());
+        }
+    }
+
+    @Test
+    void testGetExamDetails_examWithoutQuestions_shouldHaveNoQuestionWithIdZero() throws Exception {
+        for (ExamFetchStrategy strategy : ExamFetchStrategy.values()) {
+            Exam exam = examDAO.getExamDetails(2, strategy);
+
+            assertEquals("No questions yet", exam.getDescription());
+            assertTrue(exam.getQuestions().isEmpty(), strategy.name());
+            assertNull(examDAO.getExamDetails(3, strategy), strategy.name());
+        }
+    }
+
+    @Test
+    void testGetAllExams_nullDescription_shouldStayNull() throws Exception {
+        List<Exam> exams = examDAO.getAllExams();
+
+        assertEquals(2, exams.size());
+        assertNull(exams.get(0).getDescription());
+        assertEquals("No questions yet", exams.get(1).getDescription());
+    }
+}
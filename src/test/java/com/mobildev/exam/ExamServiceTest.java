@@ -0,0 +1,101 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.dto.ExamListResponseDTO;
+import com.mobildev.exam.dto.ExamResponseDTO;
+import com.mobildev.exam.service.ExamService;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ExamServiceTest {
+
+    private H2DataSourceProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = TestDatabase.create();
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (1, 'Exam', NULL, 60)",
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (2, 'Other', NULL, 30)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testGetExamResponseById_cachedExam_shouldNotWaitForPermit() {
+        Semaphore dbPermits = new Semaphore(1);
+        ExamService examService = new ExamService(new ExamDAO(provider), 16, dbPermits, 10);
+        assertNotNull(examService.getExamResponseById(1));
+        assertEquals(1, dbPermits.availablePermits());
+
+        // Every permit is taken, e.g. by slow submissions.
+        dbPermits.acquireUninterruptibly();
+
+        assertNotNull(examService.getExamResponseById(1));
+        assertThrows(ExamService.ServerBusyException.class, () -> examService.getExamResponseById(2));
+        assertThrows(ExamService.ServerBusyException.class, examService::getAllExams);
+
+        dbPermits.release();
+        assertNotNull(examService.getExamResponseById(2));
+        assertEquals(1, dbPermits.availablePermits());
+    }
+
+    @Test
+    void testGetAllExams_cachedList_shouldBeReusedUntilInvalidated() throws Exception {
+        Semaphore dbPermits = new Semaphore(1);
+        ExamService examService = new ExamService(new ExamDAO(provider), 16, dbPermits, 10);
+        ExamListResponseDTO first = examService.getAllExams();
+        assertEquals(2, first.getExams().size());
+
+        dbPermits.acquireUninterruptibly();
+        assertSame(first, examService.getAllExams());
+        dbPermits.release();
+
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (3, 'New', NULL, 10)");
+        examService.invalidateExam(3);
+        ExamListResponseDTO reloaded = examService.getAllExams();
+        assertNotSame(first, reloaded);
+        assertEquals(3, reloaded.getExams().size());
+    }
+
+    @Test
+    void testGetAllExams_databaseFailure_shouldThrowInsteadOfEmptyList() throws Exception {
+        ExamService examService = new ExamService(new ExamDAO(provider));
+        TestDatabase.execute(provider, "ALTER TABLE exams RENAME TO exams_moved");
+
+        assertThrows(SQLException.class, examService::getAllExams);
+
+        TestDatabase.execute(provider, "ALTER TABLE exams_moved RENAME TO exams");
+        assertEquals(2, examService.getAllExams().getExams().size());
+    }
+
+    @Test
+    void testInvalidateAllExams_cachedExams_shouldReloadAndNotifyListeners() throws Exception {
+        ExamService examService = new ExamService(new ExamDAO(provider));
+        List<Integer> invalidated = new ArrayList<>();
+        examService.addInvalidationListener(invalidated::add, () -> invalidated.add(-1));
+        ExamListResponseDTO list = examService.getAllExams();
+        ExamResponseDTO exam = examService.getExamResponseById(1);
+
+        examService.invalidateAllExams();
+
+        assertEquals(List.of(-1), invalidated);
+        assertNotSame(list, examService.getAllExams());
+        assertNotSame(exam, examService.getExamResponseById(1));
+    }
+}
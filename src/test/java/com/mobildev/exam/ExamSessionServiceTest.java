@@ -0,0 +1,178 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.dto.ExamSessionDTO;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.service.ExamService;
+import com.mobildev.exam.service.SubmitService;
+import com.mobildev.exam.session.ExamSessionRepository;
+import com.mobildev.exam.session.ExamSessionService;
+import com.mobildev.exam.session.ExamSessionStore;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ExamSessionServiceTest {
+
+    private static final AuthenticatedUser PRINCIPAL =
+            new AuthenticatedUser(7, "candidate", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
+    private static final long DURATION_MILLIS = 60000;
+    private static final long GRACE_MILLIS = 5000;
+    private static final long IDLE_EVICT_MILLIS = 120000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private H2DataSourceProvider provider;
+    private ExamService examService;
+    private ExamSessionService sessionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = TestDatabase.create();
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (1, 'Exam', NULL, 1)",
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (10, 1, 'Pick one', 'MULTIPLE_CHOICE', NULL)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (100, 10, 'Right', TRUE)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (101, 10, 'Wrong', FALSE)");
+        examService = new ExamService(new ExamDAO(provider));
+        sessionService = newSessionService(new SubmitService(provider, null, 16));
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testSaveAnswer_afterDeadline_shouldAcceptOnlyWithinGracePeriod() throws Exception {
+        String sessionId = sessionService.startSession(PRINCIPAL, 1).getSessionId();
+
+        clock.addAndGet(DURATION_MILLIS + GRACE_MILLIS);
+        assertTrue(sessionService.saveAnswer(PRINCIPAL, sessionId, answer(100)));
+
+        clock.incrementAndGet();
+        assertThrows(ExamSessionService.SessionConflictException.class,
+                () -> sessionService.saveAnswer(PRINCIPAL, sessionId, answer(101)));
+
+        // Submitting is allowed after the deadline and scores what was saved in time.
+        assertTrue(sessionService.submitSession(PRINCIPAL, sessionId).contains("100.00"));
+        assertEquals(0L, sessionService.getSession(PRINCIPAL, sessionId).getRemainingSeconds());
+    }
+
+    @Test
+    void testStartSession_unsubmittedSession_shouldResumeWithOriginalDeadline() throws Exception {
+        ExamSessionDTO started = sessionService.startSession(PRINCIPAL, 1);
+        sessionService.saveAnswer(PRINCIPAL, started.getSessionId(), answer(101));
+        clock.addAndGet(10000);
+
+        ExamSessionDTO resumed = sessionService.startSession(PRINCIPAL, 1);
+        assertEquals(started.getSessionId(), resumed.getSessionId());
+        assertEquals(started.getExpiresAt(), resumed.getExpiresAt());
+        assertEquals(50L, resumed.getRemainingSeconds());
+
+        // After a restart the session is resumed from the database.
+        sessionService.flush();
+        ExamSessionService restarted = newSessionService(new SubmitService(provider, null, 16));
+        ExamSessionDTO reloaded = restarted.startSession(PRINCIPAL, 1);
+        assertEquals(started.getSessionId(), reloaded.getSessionId());
+        assertEquals(started.getExpiresAt(), reloaded.getExpiresAt());
+        assertEquals(101, reloaded.getAnswers().get(0).getSelectedOptionId());
+    }
+
+    @Test
+    void testFlush_failedWrite_shouldRetryChangesWithNextFlush() throws Exception {
+        String sessionId = sessionService.startSession(PRINCIPAL, 1).getSessionId();
+        sessionService.saveAnswer(PRINCIPAL, sessionId, answer(100));
+        TestDatabase.execute(provider, "ALTER TABLE exam_session_answers RENAME TO exam_session_answers_moved");
+
+        sessionService.flush();
+        assertEquals(1, sessionService.getFlushFailureCount());
+        // The transaction is rolled back, so the session row is not written without its answers.
+        assertEquals(0, TestDatabase.count(provider, "exam_sessions"));
+
+        // An autosave between the flushes must win over the restored change.
+        sessionService.saveAnswer(PRINCIPAL, sessionId, answer(101));
+        TestDatabase.execute(provider, "ALTER TABLE exam_session_answers_moved RENAME TO exam_session_answers");
+        sessionService.flush();
+
+        assertEquals(1, sessionService.getFlushedCount());
+        assertEquals(1, TestDatabase.count(provider, "exam_sessions"));
+        assertEquals(1, TestDatabase.count(provider, "exam_session_answers"));
+        ExamSessionService restarted = newSessionService(new SubmitService(provider, null, 16));
+        assertEquals(101, restarted.getSession(PRINCIPAL, sessionId).getAnswers().get(0).getSelectedOptionId());
+    }
+
+    @Test
+    void testFlush_idleSession_shouldBeEvictedAndReloadedOnNextUse() throws Exception {
+        String sessionId = sessionService.startSession(PRINCIPAL, 1).getSessionId();
+        sessionService.saveAnswer(PRINCIPAL, sessionId, answer(100));
+
+        // Sessions with pending changes are written before they can be evicted.
+        clock.addAndGet(IDLE_EVICT_MILLIS + 1);
+        sessionService.flush();
+        assertEquals(1, sessionService.getSessionCount());
+        sessionService.flush();
+        assertEquals(0, sessionService.getSessionCount());
+
+        ExamSessionDTO reloaded = sessionService.getSession(PRINCIPAL, sessionId);
+        assertEquals(1, sessionService.getSessionCount());
+        assertEquals(100, reloaded.getAnswers().get(0).getSelectedOptionId());
+        // A reloaded session counts as used and survives the next flush.
+        sessionService.flush();
+        assertEquals(1, sessionService.getSessionCount());
+    }
+
+    @Test
+    void testFlush_submittedSession_shouldBeEvictedAndNotResumed() throws Exception {
+        String sessionId = sessionService.startSession(PRINCIPAL, 1).getSessionId();
+        sessionService.submitSession(PRINCIPAL, sessionId);
+
+        sessionService.flush();
+        sessionService.flush();
+        assertEquals(0, sessionService.getSessionCount());
+
+        assertEquals("SUBMITTED", sessionService.getSession(PRINCIPAL, sessionId).getStatus());
+        assertNotEquals(sessionId, sessionService.startSession(PRINCIPAL, 1).getSessionId());
+    }
+
+    @Test
+    void testSubmitSession_failedSubmission_shouldRollBackToActive() throws Exception {
+        SubmitService failingSubmitService = mock(SubmitService.class);
+        when(failingSubmitService.processExamSubmission(any(), anyInt(), any(), anyString()))
+                .thenThrow(new SQLException("connection lost"))
+                .thenReturn("{\"finalScore\":0.00}");
+        ExamSessionService service = newSessionService(failingSubmitService);
+        String sessionId = service.startSession(PRINCIPAL, 1).getSessionId();
+
+        assertThrows(SQLException.class, () -> service.submitSession(PRINCIPAL, sessionId));
+
+        assertEquals("ACTIVE", service.getSession(PRINCIPAL, sessionId).getStatus());
+        assertTrue(service.saveAnswer(PRINCIPAL, sessionId, answer(101)));
+        assertNotNull(service.submitSession(PRINCIPAL, sessionId));
+        assertEquals("SUBMITTED", service.getSession(PRINCIPAL, sessionId).getStatus());
+    }
+
+    private ExamSessionService newSessionService(SubmitService submitService) {
+        return new ExamSessionService(new ExamSessionRepository(provider), examService, submitService,
+                new ExamSessionStore(4), null, GRACE_MILLIS, IDLE_EVICT_MILLIS, clock::get);
+    }
+
+    private static UserAnswerSubmissionDTO answer(int selectedOptionId) {
+        return new UserAnswerSubmissionDTO(10, selectedOptionId, null);
+    }
+}
@@ -0,0 +1,178 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.handlers.ExamsHandler;
+import com.mobildev.exam.service.ExamService;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ExamsHandlerTest {
+
+    private H2DataSourceProvider provider;
+    private ExamService examService;
+    private ExamsHandler examsHandler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = TestDatabase.create();
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (1, 'Exam', NULL, 60)",
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (10, 1, 'Pick one', 'MULTIPLE_CHOICE', NULL)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (100, 10, 'Right', TRUE)");
+        examService = new ExamService(new ExamDAO(provider));
+        examsHandler = new ExamsHandler(examService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testHandle_matchingIfNoneMatch_shouldReturn304WithValidators() throws Exception {
+        for (String path : new String[]{"/exams", "/exams/1"}) {
+            HttpExchange first = exchange(path, new Headers());
+            examsHandler.handle(first);
+            verify(first).sendResponseHeaders(eq(200), anyLong());
+            String etag = first.getResponseHeaders().getFirst("ETag");
+            assertNotNull(etag);
+
+            Headers requestHeaders = new Headers();
+            requestHeaders.set("If-None-Match", "\"other\", W/" + etag);
+            HttpExchange second = exchange(path, requestHeaders);
+            examsHandler.handle(second);
+
+            verify(second).sendResponseHeaders(304, -1);
+            assertEquals(0, ((ByteArrayOutputStream) second.getResponseBody()).size());
+            assertEquals(etag, second.getResponseHeaders().getFirst("ETag"));
+            assertEquals(first.getResponseHeaders().getFirst("Last-Modified"),
+                    second.getResponseHeaders().getFirst("Last-Modified"));
+            assertEquals("Accept-Encoding", second.getResponseHeaders().getFirst("Vary"));
+        }
+    }
+
+    @Test
+    void testHandle_staleIfNoneMatch_shouldTakePrecedenceOverIfModifiedSince() throws Exception {
+        Headers requestHeaders = new Headers();
+        requestHeaders.set("If-None-Match", "\"stale\"");
+        requestHeaders.set("If-Modified-Since", httpDate(ZonedDateTime.now(ZoneOffset.UTC).plusDays(1)));
+        HttpExchange exchange = exchange("/exams/1", requestHeaders);
+
+        examsHandler.handle(exchange);
+
+        verify(exchange).sendResponseHeaders(eq(200), anyLong());
+        assertTrue(exchange.getResponseBody().toString().contains("Pick one"));
+    }
+
+    @Test
+    void testHandle_ifModifiedSince_shouldReturn304OnlyIfNotModifiedSince() throws Exception {
+        Headers current = new Headers();
+        current.set("If-Modified-Since", httpDate(ZonedDateTime.now(ZoneOffset.UTC).plusDays(1)));
+        HttpExchange notModified = exchange("/exams", current);
+        examsHandler.handle(notModified);
+        verify(notModified).sendResponseHeaders(304, -1);
+
+        Headers outdated = new Headers();
+        outdated.set("If-Modified-Since", httpDate(ZonedDateTime.now(ZoneOffset.UTC).minusDays(1)));
+        HttpExchange modified = exchange("/exams", outdated);
+        examsHandler.handle(modified);
+        verify(modified).sendResponseHeaders(eq(200), anyLong());
+    }
+
+    @Test
+    void testHandle_examListChanged_shouldReturnNewEtag() throws Exception {
+        HttpExchange first = exchange("/exams", new Headers());
+        examsHandler.handle(first);
+        String etag = first.getResponseHeaders().getFirst("ETag");
+
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (2, 'Other', NULL, 30)");
+        examService.invalidateExam(2);
+
+        Headers requestHeaders = new Headers();
+        requestHeaders.set("If-None-Match", etag);
+        HttpExchange second = exchange("/exams", requestHeaders);
+        examsHandler.handle(second);
+
+        verify(second).sendResponseHeaders(eq(200), anyLong());
+        assertNotEquals(etag, second.getResponseHeaders().getFirst("ETag"));
+        assertTrue(second.getResponseBody().toString().contains("Other"));
+    }
+
+    @Test
+    void testHandle_gzipVariant_shouldHaveDistinctEtagAndMatchEitherForm() throws Exception {
+        TestDatabase.execute(provider, "INSERT INTO exams (id, title, description, duration_minutes) "
+                + "VALUES (2, 'Long', '" + "Read every question carefully. ".repeat(40) + "', 60)");
+        Headers acceptGzip = new Headers();
+        acceptGzip.set("Accept-Encoding", "gzip");
+        HttpExchange gzip = exchange("/exams/2", acceptGzip);
+        examsHandler.handle(gzip);
+        HttpExchange identity = exchange("/exams/2", new Headers());
+        examsHandler.handle(identity);
+
+        String gzipEtag = gzip.getResponseHeaders().getFirst("ETag");
+        String identityEtag = identity.getResponseHeaders().getFirst("ETag");
+        assertEquals("gzip", gzip.getResponseHeaders().getFirst("Content-Encoding"));
+        assertNull(identity.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals(identityEtag.substring(0, identityEtag.length() - 1) + "-gz\"", gzipEtag);
+
+        // A client that switched encodings still has the current content.
+        Headers requestHeaders = new Headers();
+        requestHeaders.set("If-None-Match", gzipEtag);
+        HttpExchange revalidated = exchange("/exams/2", requestHeaders);
+        examsHandler.handle(revalidated);
+        verify(revalidated).sendResponseHeaders(304, -1);
+        assertEquals(identityEtag, revalidated.getResponseHeaders().getFirst("ETag"));
+    }
+
+    @Test
+    void testHandle_examListUnreadable_shouldReturn500WithoutEtag() throws Exception {
+        TestDatabase.execute(provider, "ALTER TABLE exams RENAME TO exams_moved");
+        HttpExchange failed = exchange("/exams", new Headers());
+        examsHandler.handle(failed);
+
+        verify(failed).sendResponseHeaders(eq(500), anyLong());
+        assertNull(failed.getResponseHeaders().getFirst("ETag"));
+
+        // The failure is not cached.
+        TestDatabase.execute(provider, "ALTER TABLE exams_moved RENAME TO exams");
+        HttpExchange recovered = exchange("/exams", new Headers());
+        examsHandler.handle(recovered);
+        verify(recovered).sendResponseHeaders(eq(200), anyLong());
+        assertTrue(recovered.getResponseBody().toString().contains("Exam"));
+    }
+
+    private static HttpExchange exchange(String path, Headers requestHeaders) {
+        HttpExchange exchange = mock(HttpExchange.class);
+        when(exchange.getRequestMethod()).thenReturn("GET");
+        when(exchange.getRequestURI()).thenReturn(URI.create(path));
+        when(exchange.getRequestHeaders()).thenReturn(requestHeaders);
+        when(exchange.getResponseHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
+        return exchange;
+    }
+
+    private static String httpDate(ZonedDateTime time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(time);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dto.ExamResponseDTO;
+import com.mobildev.exam.util.JsonUtil;
+import java.util.ArrayList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class JsonUtilTest {
+
+    @AfterEach
+    void tearDown() {
+        JsonUtil.configure(JsonUtil.DEFAULT_BLACKBIRD);
+    }
+
+    @Test
+    void testConfigure_blackbirdSetting_shouldReplaceMapperAndWriters() throws Exception {
+        ExamResponseDTO exam = new ExamResponseDTO(1, "Exam", null, 60, new ArrayList<>());
+        JsonUtil.configure(true);
+        byte[] accelerated = JsonUtil.getExamResponseWriter().writeValueAsBytes(exam);
+        assertTrue(JsonUtil.getMapper().getRegisteredModuleIds().stream().anyMatch(id -> id.toString().contains("Blackbird")));
+
+        JsonUtil.configure(false);
+        assertTrue(JsonUtil.getMapper().getRegisteredModuleIds().isEmpty());
+        assertSame(JsonUtil.getMapper().getFactory(), JsonUtil.getFactory());
+        // The output does not depend on the setting.
+        assertArrayEquals(accelerated, JsonUtil.getExamResponseWriter().writeValueAsBytes(exam));
+
+        // The same setting keeps the mapper, so components holding its factory stay current.
+        Object mapper = JsonUtil.getMapper();
+        JsonUtil.configure(false);
+        assertSame(mapper, JsonUtil.getMapper());
+        JsonUtil.configure(true);
+        assertNotSame(mapper, JsonUtil.getMapper());
+        assertFalse(JsonUtil.getMapper().getRegisteredModuleIds().isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.metrics.LatencyHistogram;
+import com.mobildev.exam.metrics.PrometheusWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void testPercentile_shouldBeWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        long p99 = snapshot.getValueAtPercentile(99);
+
+        assertEquals(100, snapshot.getCount());
+        assertTrue(p99 >= TimeUnit.MILLISECONDS.toNanos(99), "p99 was " + p99);
+        assertTrue(p99 <= TimeUnit.MILLISECONDS.toNanos(99) * 107 / 100, "p99 was " + p99);
+    }
+
+    @Test
+    void testCountAtOrBelow_shouldNotCountValuesAboveTheBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(4));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(6));
+        histogram.record(TimeUnit.HOURS.toNanos(2));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1, snapshot.countAtOrBelow(TimeUnit.MILLISECONDS.toNanos(5)));
+        assertEquals(2, snapshot.countAtOrBelow(TimeUnit.SECONDS.toNanos(10)));
+        assertEquals(3, snapshot.getCount());
+    }
+
+    @Test
+    void testRecord_concurrently_shouldCountEveryValue() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i * 1000L);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(40_000, histogram.snapshot().getCount());
+    }
+
+    @Test
+    void testWriteHistogram_shouldWriteCumulativeBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(30));
+
+        String text = new PrometheusWriter()
+                .family("latency_seconds", "histogram", "Test latency.")
+                .histogram("latency_seconds", histogram.snapshot(), "route", "/exams")
+                .toString();
+
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/exams\",le=\"0.0025\"} 0\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/exams\",le=\"0.005\"} 1\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/exams\",le=\"0.05\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{route=\"/exams\",le=\"+Inf\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_count{route=\"/exams\"} 2\n"), text);
+    }
+}
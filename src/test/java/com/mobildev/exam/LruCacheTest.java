@@ -0,0 +1,87 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.cache.LruCache;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+public class LruCacheTest {
+
+    @Test
+    void testGet_repeatedKey_shouldLoadOnce() {
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, key -> "exam-" + loads.incrementAndGet());
+        String value = cache.get(1, key -> "exam-" + loads.incrementAndGet());
+
+        assertEquals("exam-1", value);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testPut_overCapacity_shouldEvictLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>(2);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.getIfPresent(1);
+        cache.put(3, "c");
+
+        assertNull(cache.getIfPresent(2));
+        assertEquals("a", cache.getIfPresent(1));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void testInvalidate_shouldReloadOnNextGet() {
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        cache.get(1, key -> "old");
+        cache.invalidate(1);
+
+        assertEquals("new", cache.get(1, key -> "new"));
+    }
+
+    @Test
+    void testGet_concurrentMisses_shouldShareSingleLoad() throws Exception {
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(1, key -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                releaseLoader.await();
+                return "exam";
+            })));
+            loaderStarted.await(5, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> cache.get(1, key -> {
+                    loads.incrementAndGet();
+                    return "exam";
+                })));
+            }
+            releaseLoader.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("exam", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.util.PasswordHasher;
+import java.util.Base64;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class PasswordHasherTest {
+
+    @Test
+    void testHash_defaultParameters_shouldStorePbkdf2Sha256WithSaltAndIterations() {
+        PasswordHasher hasher = new PasswordHasher();
+        String stored = hasher.hash("secret");
+
+        String[] parts = stored.split("\\$");
+        assertEquals(4, parts.length);
+        assertEquals("pbkdf2-sha256", parts[0]);
+        assertEquals(String.valueOf(PasswordHasher.DEFAULT_ITERATIONS), parts[1]);
+        assertEquals(16, Base64.getDecoder().decode(parts[2]).length);
+        assertEquals(32, Base64.getDecoder().decode(parts[3]).length);
+        // Fits the users.password column as widened by V3__users_password_hash.sql.
+        assertTrue(stored.length() < 100, stored);
+
+        assertTrue(hasher.verify("secret", stored));
+        assertFalse(hasher.verify("Secret", stored));
+        assertFalse(hasher.needsRehash(stored));
+    }
+
+    @Test
+    void testHash_samePassword_shouldUseFreshSalt() {
+        PasswordHasher hasher = new PasswordHasher(1000);
+        String first = hasher.hash("secret");
+        String second = hasher.hash("secret");
+
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("secret", first));
+        assertTrue(hasher.verify("secret", second));
+    }
+
+    @Test
+    void testNeedsRehash_legacyOrWeakerHash_shouldBeUpgraded() {
+        PasswordHasher weak = new PasswordHasher(1000);
+        PasswordHasher strong = new PasswordHasher(2000);
+        String weakHash = weak.hash("secret");
+
+        // Stored hashes verify with their own iteration count.
+        assertTrue(strong.verify("secret", weakHash));
+        assertTrue(strong.needsRehash(weakHash));
+        assertFalse(weak.needsRehash(weakHash));
+
+        // Legacy plaintext passwords still verify, and are always upgraded.
+        assertTrue(strong.verify("secret", "secret"));
+        assertFalse(strong.verify("secret", "Secret"));
+        assertTrue(strong.needsRehash("secret"));
+
+        // Corrupt values never verify.
+        assertFalse(strong.verify("secret", "pbkdf2-sha256$x$AAAA$AAAA"));
+        assertFalse(strong.verify("secret", "pbkdf2-sha256$1000$AAAA"));
+        assertTrue(strong.needsRehash("pbkdf2-sha256$x$AAAA$AAAA"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.db.HikariDataSourceProvider;
+import com.mobildev.exam.db.ReplicaSelection;
+import com.mobildev.exam.db.ReplicaSetDataSourceProvider;
+import com.zaxxer.hikari.HikariConfig;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class ReplicaSetDataSourceProviderTest {
+
+    private static final long HEALTH_CHECK_INTERVAL_MILLIS = 50;
+
+    @Test
+    void testGetConnection_exhaustedPool_shouldKeepReplicaHealthy() throws Exception {
+        try (ReplicaSetDataSourceProvider replicas = new ReplicaSetDataSourceProvider(
+                List.of(replica(H2DataSourceProvider.url("replica-" + UUID.randomUUID()))),
+                ReplicaSelection.ROUND_ROBIN, HEALTH_CHECK_INTERVAL_MILLIS);
+             Connection held = replicas.getConnection()) {
+
+            assertThrows(SQLTransientConnectionException.class, replicas::getConnection);
+            assertEquals(1, replicas.getBusyCount());
+
+            // The health check does not queue on the saturated pool.
+            Thread.sleep(HEALTH_CHECK_INTERVAL_MILLIS * 5);
+            assertEquals(1, replicas.getHealthyCount());
+        }
+    }
+
+    @Test
+    void testCheckHealth_unreachableReplica_shouldBeSkipped() throws Exception {
+        try (ReplicaSetDataSourceProvider replicas = new ReplicaSetDataSourceProvider(
+                List.of(replica(H2DataSourceProvider.url("replica-" + UUID.randomUUID())), replica("jdbc:h2:tcp://localhost:1/unreachable")),
+                ReplicaSelection.ROUND_ROBIN, HEALTH_CHECK_INTERVAL_MILLIS)) {
+
+            // Connecting to the unreachable replica may take a few retries until it fails.
+            long deadline = System.currentTimeMillis() + 10000;
+            while (replicas.getHealthyCount() > 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(HEALTH_CHECK_INTERVAL_MILLIS);
+            }
+            assertEquals(1, replicas.getHealthyCount());
+            for (int i = 0; i < 4; i++) {
+                try (Connection conn = replicas.getConnection()) {
+                    assertTrue(conn.isValid(1));
+                }
+            }
+        }
+    }
+
+    private static HikariDataSourceProvider replica(String url) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(1);
+        config.setConnectionTimeout(250);
+        config.setInitializationFailTimeout(-1);
+        config.setReadOnly(true);
+        return new HikariDataSourceProvider(config);
+    }
+}
@@ -0,0 +1,62 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dto.ExamResponseDTO;
+import com.mobildev.exam.util.JsonUtil;
+import com.mobildev.exam.util.ResponseUtil;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResponseUtilTest {
+
+    @Test
+    void testSendResponse_longNonAsciiString_shouldSendExactUtf8Length() throws Exception {
+        // Two-, three- and four-byte characters and an unpaired surrogate, past the streaming threshold.
+        String response = "{\"text\":\"" + "Sınav ₺ 😀 \uD800 ".repeat(1000) + "\"}";
+        byte[] expected = response.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpExchange exchange = exchange(new Headers(), body);
+
+        ResponseUtil.sendResponse(exchange, 200, response);
+
+        verify(exchange).sendResponseHeaders(200, expected.length);
+        assertArrayEquals(expected, body.toByteArray());
+    }
+
+    @Test
+    void testSendJson_clientAcceptsGzip_shouldStreamCompressedBody() throws Exception {
+        ExamResponseDTO exam = new ExamResponseDTO(1, "Exam", "Description", 60, new ArrayList<>());
+        Headers requestHeaders = new Headers();
+        requestHeaders.set("Accept-Encoding", "br, gzip;q=0.5");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HttpExchange exchange = exchange(requestHeaders, body);
+
+        ResponseUtil.sendJson(exchange, 200, JsonUtil.getExamResponseWriter(), exam);
+
+        // A length of 0 selects chunked transfer encoding.
+        verify(exchange).sendResponseHeaders(200, 0);
+        assertEquals("gzip", exchange.getResponseHeaders().getFirst("Content-Encoding"));
+        assertEquals("Accept-Encoding", exchange.getResponseHeaders().getFirst("Vary"));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertArrayEquals(JsonUtil.getExamResponseWriter().writeValueAsBytes(exam), in.readAllBytes());
+        }
+    }
+
+    private static HttpExchange exchange(Headers requestHeaders, ByteArrayOutputStream body) {
+        HttpExchange exchange = mock(HttpExchange.class);
+        when(exchange.getRequestHeaders()).thenReturn(requestHeaders);
+        when(exchange.getResponseHeaders()).thenReturn(new Headers());
+        when(exchange.getResponseBody()).thenReturn(body);
+        return exchange;
+    }
+}
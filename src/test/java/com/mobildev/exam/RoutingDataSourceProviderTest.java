@@ -0,0 +1,85 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dao.ExamDAO;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.db.ReadYourWritesTracker;
+import com.mobildev.exam.db.RoutingDataSourceProvider;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.service.ExamService;
+import com.mobildev.exam.session.ExamSessionRepository;
+import com.mobildev.exam.session.ExamSessionService;
+import com.mobildev.exam.session.ExamSessionStore;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RoutingDataSourceProviderTest {
+
+    private static final AuthenticatedUser PRINCIPAL =
+            new AuthenticatedUser(7, "candidate", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
+
+    private H2DataSourceProvider primary;
+    // A replica that has not received any rows yet.
+    private H2DataSourceProvider replica;
+    private RoutingDataSourceProvider router;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = TestDatabase.create();
+        TestDatabase.execute(primary,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (1, 'Exam', NULL, 60)",
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (10, 1, 'Pick one', 'MULTIPLE_CHOICE', NULL)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (100, 10, 'Right', TRUE)");
+        replica = TestDatabase.create();
+        router = new RoutingDataSourceProvider(primary, replica, new ReadYourWritesTracker(60000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+    }
+
+    @Test
+    void testGetReadConnection_afterUserWrote_shouldReadFromPrimary() throws Exception {
+        router.markWritten(7);
+
+        assertTrue(isPrimary(router.getReadConnection(7)));
+        assertFalse(isPrimary(router.getReadConnection(8)));
+        assertEquals(1, router.getReadYourWritesCount());
+    }
+
+    @Test
+    void testGetSession_reloadedRightAfterFlush_shouldReadOwnWriteFromPrimary() throws Exception {
+        AtomicLong clock = new AtomicLong(1_000_000);
+        ExamSessionService sessionService = new ExamSessionService(new ExamSessionRepository(router),
+                new ExamService(new ExamDAO(primary)), null, new ExamSessionStore(4), null, 0, 1000, clock::get);
+        String sessionId = sessionService.startSession(PRINCIPAL, 1).getSessionId();
+        sessionService.saveAnswer(PRINCIPAL, sessionId, new UserAnswerSubmissionDTO(10, 100, null));
+
+        // Written and then evicted, so the next request reloads the session.
+        sessionService.flush();
+        clock.addAndGet(1001);
+        sessionService.flush();
+        assertEquals(0, sessionService.getSessionCount());
+
+        assertEquals(100, sessionService.getSession(PRINCIPAL, sessionId).getAnswers().get(0).getSelectedOptionId());
+    }
+
+    // Only the primary has the exam.
+    private static boolean isPrimary(Connection conn) throws Exception {
+        try (conn; Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM exams")) {
+            rs.next();
+            return rs.getInt(1) > 0;
+        }
+    }
+}
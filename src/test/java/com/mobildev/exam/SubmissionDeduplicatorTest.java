@@ -0,0 +1,78 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.submission.SubmissionDeduplicator;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class SubmissionDeduplicatorTest {
+
+    private static final byte[] FINGERPRINT = fingerprint(100, null);
+
+    @Test
+    void testSubmit_retryWithSameKey_shouldReplayFirstResult() throws Exception {
+        SubmissionDeduplicator deduplicator = new SubmissionDeduplicator(10, 60000);
+        AtomicInteger submissions = new AtomicInteger();
+
+        SubmissionDeduplicator.Outcome first = deduplicator.submit(7, "key-1", FINGERPRINT,
+                () -> "result-" + submissions.incrementAndGet());
+        SubmissionDeduplicator.Outcome retry = deduplicator.submit(7, "key-1", FINGERPRINT,
+                () -> "result-" + submissions.incrementAndGet());
+        SubmissionDeduplicator.Outcome otherUser = deduplicator.submit(8, "key-1", FINGERPRINT,
+                () -> "result-" + submissions.incrementAndGet());
+
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertEquals("result-1", retry.getResultJson());
+        assertEquals("result-2", otherUser.getResultJson());
+        assertEquals(1, deduplicator.getReplayCount());
+    }
+
+    @Test
+    void testSubmit_sameKeyDifferentSubmission_shouldThrowKeyReuseException() throws Exception {
+        SubmissionDeduplicator deduplicator = new SubmissionDeduplicator(10, 60000);
+        deduplicator.submit(7, "key-1", FINGERPRINT, () -> "result");
+
+        assertThrows(SubmissionDeduplicator.KeyReuseException.class,
+                () -> deduplicator.submit(7, "key-1", fingerprint(101, null), () -> "other"));
+    }
+
+    @Test
+    void testSubmit_failedSubmission_shouldNotBeRemembered() throws Exception {
+        SubmissionDeduplicator deduplicator = new SubmissionDeduplicator(10, 60000);
+
+        assertThrows(SQLException.class, () -> deduplicator.submit(7, "key-1", FINGERPRINT, () -> {
+            throw new SQLException("connection lost");
+        }));
+        SubmissionDeduplicator.Outcome retry = deduplicator.submit(7, "key-1", FINGERPRINT, () -> "result");
+
+        assertFalse(retry.isReplayed());
+        assertEquals("result", retry.getResultJson());
+    }
+
+    @Test
+    void testFingerprint_differentSubmissions_shouldDiffer() {
+        assertArrayEquals(fingerprint(100, "a"), fingerprint(100, "a"));
+        // The answers of the first pair have the same 32-bit Objects.hash.
+        assertFalse(Arrays.equals(fingerprint(100, "Aa"), fingerprint(100, "BB")));
+        assertFalse(Arrays.equals(fingerprint(100, null), fingerprint(null, "100")));
+        assertFalse(Arrays.equals(fingerprint(null, ""), fingerprint(null, null)));
+        assertFalse(Arrays.equals(SubmissionDeduplicator.fingerprint(1, List.of()), SubmissionDeduplicator.fingerprint(2, List.of())));
+        assertFalse(Arrays.equals(
+                SubmissionDeduplicator.fingerprint(1, List.of(new UserAnswerSubmissionDTO(10, null, "ab"))),
+                SubmissionDeduplicator.fingerprint(1, List.of(new UserAnswerSubmissionDTO(10, null, "a"),
+                        new UserAnswerSubmissionDTO(10, null, "b")))));
+    }
+
+    private static byte[] fingerprint(Integer selectedOptionId, String answerText) {
+        return SubmissionDeduplicator.fingerprint(1, List.of(new UserAnswerSubmissionDTO(10, selectedOptionId, answerText)));
+    }
+}
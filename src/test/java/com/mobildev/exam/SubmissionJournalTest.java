@@ -0,0 +1,94 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.submission.PendingSubmission;
+import com.mobildev.exam.submission.SubmissionJournal;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SubmissionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testOpen_tornLastEntry_shouldTruncateItBeforeAppending() throws Exception {
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            journal.append(submission("a"));
+            journal.append(submission("b"));
+        }
+        // A crash in the middle of an append leaves an entry without its newline.
+        Files.writeString(directory.resolve("submissions.journal"), "{\"sequence\":3,\"submiss",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            assertEquals(List.of("a", "b"), submissionIds(journal.getUncommitted()));
+            PendingSubmission next = submission("c");
+            journal.append(next);
+            assertEquals(3, next.getSequence());
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            assertEquals(List.of("a", "b", "c"), submissionIds(journal.getUncommitted()));
+        }
+    }
+
+    @Test
+    void testCheckpoint_shouldReplayOnlyLaterEntriesAndTruncateWhenAllCommitted() throws Exception {
+        try (SubmissionJournal journal = new SubmissionJournal(directory, false)) {
+            journal.append(submission("a"));
+            journal.append(submission("b"));
+            journal.append(submission("c"));
+            journal.checkpoint(2);
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory, false)) {
+            assertEquals(List.of("c"), submissionIds(journal.getUncommitted()));
+            journal.checkpoint(3);
+            assertEquals(0, Files.size(directory.resolve("submissions.journal")));
+        }
+
+        try (SubmissionJournal journal = new SubmissionJournal(directory, false)) {
+            assertTrue(journal.getUncommitted().isEmpty());
+            // Sequence numbers continue after the checkpoint, even though the journal is empty.
+            PendingSubmission next = submission("d");
+            journal.append(next);
+            assertEquals(4, next.getSequence());
+        }
+    }
+
+    @Test
+    void testDeadLetter_shouldAppendSubmissionToDeadLetterFile() throws Exception {
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            PendingSubmission rejected = submission("a");
+            journal.append(rejected);
+            journal.deadLetter(rejected);
+            journal.checkpoint(rejected.getSequence());
+        }
+
+        List<String> deadLetters = Files.readAllLines(directory.resolve("submissions.deadletter"));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("\"submissionId\":\"a\""));
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            assertTrue(journal.getUncommitted().isEmpty());
+        }
+    }
+
+    private static PendingSubmission submission(String submissionId) {
+        return new PendingSubmission(submissionId, 7, 1, new BigDecimal("50.00"),
+                List.of(new UserAnswerSubmissionDTO(10, 100, null)));
+    }
+
+    private static List<String> submissionIds(List<PendingSubmission> submissions) {
+        return submissions.stream().map(PendingSubmission::getSubmissionId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+package com.mobildev.exam;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.mobildev.exam.dto.ExamSubmissionDTO;
+import com.mobildev.exam.submission.SubmissionParser;
+import com.mobildev.exam.util.JsonUtil;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class SubmissionParserTest {
+
+    private static final String SUBMISSION = "{\"examId\": 101, \"answers\": ["
+            + "{\"questionId\": 1, \"selectedOptionId\": 10},"
+            + "{\"questionId\": 2, \"answerText\": \"Ankara\"}]}";
+
+    private final SubmissionParser parser = new SubmissionParser(JsonUtil.getFactory(), 1024, 3);
+
+    @Test
+    void testParse_validSubmission_shouldReadAllAnswers() throws IOException {
+        ExamSubmissionDTO submission = parse(parser, SUBMISSION);
+
+        assertEquals(101, submission.getExamId());
+        assertEquals(2, submission.getAnswers().size());
+        assertEquals(10, submission.getAnswers().get(0).getSelectedOptionId());
+        assertNull(submission.getAnswers().get(1).getSelectedOptionId());
+        assertEquals("Ankara", submission.getAnswers().get(1).getAnswerText());
+    }
+
+    @Test
+    void testParse_bodyOfExactlyTheLimit_shouldBeAccepted() throws IOException {
+        int length = SUBMISSION.getBytes(StandardCharsets.UTF_8).length;
+
+        assertEquals(101, parse(new SubmissionParser(JsonUtil.getFactory(), length, 3), SUBMISSION).getExamId());
+        assertThrows(SubmissionParser.PayloadTooLargeException.class,
+                () -> parse(new SubmissionParser(JsonUtil.getFactory(), length - 1, 3), SUBMISSION));
+    }
+
+    @Test
+    void testParse_tooManyAnswers_shouldThrowIllegalArgumentException() {
+        String json = "{\"examId\": 101, \"answers\": [{\"questionId\": 1}, {\"questionId\": 2}, "
+                + "{\"questionId\": 3}, {\"questionId\": 4}]}";
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parse(parser, json));
+        assertTrue(e.getMessage().contains("at most 3 answers"));
+    }
+
+    @Test
+    void testParse_duplicateQuestionId_shouldThrowIllegalArgumentException() {
+        String json = "{\"examId\": 101, \"answers\": [{\"questionId\": 1, \"selectedOptionId\": 10}, "
+                + "{\"questionId\": 1, \"selectedOptionId\": 11}]}";
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parse(parser, json));
+        assertTrue(e.getMessage().contains("more than once"));
+    }
+
+    @Test
+    void testParse_unknownField_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> parse(parser, "{\"examId\": 101, \"score\": 100}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> parse(parser, "{\"examId\": 101, \"answers\": [{\"questionId\": 1, \"correct\": true}]}"));
+    }
+
+    @Test
+    void testParse_outOfRangeInt_shouldThrowIllegalArgumentException() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> parse(parser, "{\"examId\": 2147483648}"));
+        assertTrue(e.getMessage().contains("out of range"));
+        assertThrows(IllegalArgumentException.class,
+                () -> parse(parser, "{\"examId\": 101, \"answers\": [{\"questionId\": 1, \"selectedOptionId\": -2147483649}]}"));
+    }
+
+    @Test
+    void testParse_trailingContent_shouldThrowIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> parse(parser, "{\"examId\": 101} {\"examId\": 102}"));
+    }
+
+    @Test
+    void testParse_malformedJson_shouldThrowJsonProcessingException() {
+        assertThrows(JsonProcessingException.class, () -> parse(parser, "{\"examId\": 101, \"answers\": [}"));
+    }
+
+    private static ExamSubmissionDTO parse(SubmissionParser parser, String json) throws IOException {
+        return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
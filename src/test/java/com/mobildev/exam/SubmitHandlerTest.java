@@ -1,8 +1,13 @@
 package com.mobildev.exam;
 
 import com.mobildev.exam.dto.ExamSubmissionDTO;
+import com.mobildev.exam.handlers.JwtAuthHandler;
 import com.mobildev.exam.handlers.SubmitHandler;
+import com.mobildev.exam.model.AuthenticatedUser;
 import com.mobildev.exam.service.SubmitService;
+import com.mobildev.exam.submission.SubmissionParser;
+import com.mobildev.exam.submission.WriteBehindSubmissionWriter;
+import com.mobildev.exam.util.JsonUtil;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import java.io.ByteArrayInputStream;
@@ -10,7 +15,10 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -18,6 +26,7 @@ import org.mockito.Mock;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
@@ -40,7 +49,7 @@ public class SubmitHandlerTest {
     @Test
     void testHandle_successfulSubmission_shouldReturn200() throws IOException, Exception {
         // Hazırlık (Arrange)
-        String username = "testUser";
+        AuthenticatedUser principal = new AuthenticatedUser(7, "testUser", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
         String validJson = "{\"examId\": 101, \"answers\": []}";
         String responseJson = "{\"message\":\"Exam submitted and scored successfully.\",\"finalScore\":95.00}";
 
@@ -48,13 +57,13 @@ public class SubmitHandlerTest {
         OutputStream outputStream = new ByteArrayOutputStream();
 
         when(mockExchange.getRequestMethod()).thenReturn("POST");
-        when(mockExchange.getAttribute("username")).thenReturn(username);
+        when(mockExchange.getAttribute(JwtAuthHandler.PRINCIPAL_ATTRIBUTE)).thenReturn(principal);
         when(mockExchange.getRequestBody()).thenReturn(inputStream);
         when(mockExchange.getResponseBody()).thenReturn(outputStream);
         when(mockExchange.getResponseHeaders()).thenReturn(new Headers());
 
         when(mockSubmitService.processExamSubmission(
-                eq(username),
+                eq(principal),
                 anyInt(),
                 any(ExamSubmissionDTO.class)))
                 .thenReturn(responseJson);
@@ -66,7 +75,7 @@ public class SubmitHandlerTest {
         assertEquals(responseJson, outputStream.toString().trim());
 
         ArgumentCaptor<ExamSubmissionDTO> dtoCaptor = ArgumentCaptor.forClass(ExamSubmissionDTO.class);
-        verify(mockSubmitService).processExamSubmission(eq(username), eq(101), dtoCaptor.capture());
+        verify(mockSubmitService).processExamSubmission(eq(principal), eq(101), dtoCaptor.capture());
         assertEquals(101, dtoCaptor.getValue().getExamId());
     }
 
@@ -85,7 +94,7 @@ public class SubmitHandlerTest {
     @Test
     void testHandle_unauthorizedUser_shouldReturn401() throws IOException {
         when(mockExchange.getRequestMethod()).thenReturn("POST");
-        when(mockExchange.getAttribute("username")).thenReturn(null);
+        when(mockExchange.getAttribute(JwtAuthHandler.PRINCIPAL_ATTRIBUTE)).thenReturn(null);
         when(mockExchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
         when(mockExchange.getResponseHeaders()).thenReturn(new Headers()); // Gerekli düzeltme: Yanıt başlıklarını mock'luyoruz
 
@@ -97,19 +106,19 @@ public class SubmitHandlerTest {
 
     @Test
     void testHandle_serviceThrowsIllegalArgumentException_shouldReturn400() throws IOException, Exception {
-        String username = "testUser";
+        AuthenticatedUser principal = new AuthenticatedUser(7, "testUser", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
         String validJson = "{\"examId\": 101, \"answers\": []}";
 
         InputStream inputStream = new ByteArrayInputStream(validJson.getBytes());
         when(mockExchange.getRequestMethod()).thenReturn("POST");
-        when(mockExchange.getAttribute("username")).thenReturn(username);
+        when(mockExchange.getAttribute(JwtAuthHandler.PRINCIPAL_ATTRIBUTE)).thenReturn(principal);
         when(mockExchange.getRequestBody()).thenReturn(inputStream);
         when(mockExchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
         when(mockExchange.getResponseHeaders()).thenReturn(new Headers()); // Gerekli düzeltme: Yanıt başlıklarını mock'luyoruz
 
         String exceptionMessage = "Exam not found.";
         when(mockSubmitService.processExamSubmission(
-                eq(username),
+                eq(principal),
                 anyInt(),
                 any(ExamSubmissionDTO.class)))
                 .thenThrow(new IllegalArgumentException(exceptionMessage));
@@ -121,20 +130,64 @@ public class SubmitHandlerTest {
     }
 
     @Test
-    void testHandle_invalidJson_shouldReturn500() throws IOException, Exception {
-        String username = "testUser";
+    void testHandle_invalidJson_shouldReturn400() throws IOException, Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(7, "testUser", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
         String invalidJson = "{\"examId\": 101, \"answers\": [}"; // Bozuk JSON
 
         InputStream inputStream = new ByteArrayInputStream(invalidJson.getBytes());
         when(mockExchange.getRequestMethod()).thenReturn("POST");
-        when(mockExchange.getAttribute("username")).thenReturn(username);
+        when(mockExchange.getAttribute(JwtAuthHandler.PRINCIPAL_ATTRIBUTE)).thenReturn(principal);
         when(mockExchange.getRequestBody()).thenReturn(inputStream);
         when(mockExchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
         when(mockExchange.getResponseHeaders()).thenReturn(new Headers()); // Gerekli düzeltme: Yanıt başlıklarını mock'luyoruz
 
         submitHandler.handle(mockExchange);
 
-        String errorMessage = "Internal Server Error.";
-        verify(mockExchange).sendResponseHeaders(500, errorMessage.length());
+        String errorMessage = "Bad Request - Malformed JSON.";
+        verify(mockExchange).sendResponseHeaders(400, errorMessage.length());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testHandle_bodyOverLimit_shouldReturn413() throws IOException, Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(7, "testUser", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
+        String json = "{\"examId\": 101, \"answers\": [{\"questionId\": 1, \"answerText\": \"a long answer\"}]}";
+        SubmitHandler limitedHandler = new SubmitHandler(mockSubmitService,
+                new SubmissionParser(JsonUtil.getFactory(), json.length() - 1, 10));
+
+        // Sent without a Content-Length, so the limit is enforced while the body is read.
+        when(mockExchange.getRequestMethod()).thenReturn("POST");
+        when(mockExchange.getAttribute(JwtAuthHandler.PRINCIPAL_ATTRIBUTE)).thenReturn(principal);
+        when(mockExchange.getRequestHeaders()).thenReturn(new Headers());
+        when(mockExchange.getRequestBody()).thenReturn(new ByteArrayInputStream(json.getBytes()));
+        when(mockExchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
+        when(mockExchange.getResponseHeaders()).thenReturn(new Headers());
+
+        limitedHandler.handle(mockExchange);
+
+        String errorMessage = "Payload Too Large";
+        verify(mockExchange).sendResponseHeaders(413, errorMessage.length());
+        verify(mockSubmitService, never()).processExamSubmission(any(), anyInt(), any(ExamSubmissionDTO.class));
+    }
+
+    @Test
+    void testHandle_writeBehindQueueFull_shouldReturn503() throws IOException, Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(7, "testUser", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
+        String validJson = "{\"examId\": 101, \"answers\": []}";
+        Headers responseHeaders = new Headers();
+
+        when(mockExchange.getRequestMethod()).thenReturn("POST");
+        when(mockExchange.getAttribute(JwtAuthHandler.PRINCIPAL_ATTRIBUTE)).thenReturn(principal);
+        when(mockExchange.getRequestBody()).thenReturn(new ByteArrayInputStream(validJson.getBytes()));
+        when(mockExchange.getResponseBody()).thenReturn(new ByteArrayOutputStream());
+        when(mockExchange.getResponseHeaders()).thenReturn(responseHeaders);
+        when(mockExchange.getRequestURI()).thenReturn(URI.create("/submit"));
+        when(mockSubmitService.processExamSubmission(eq(principal), anyInt(), any(ExamSubmissionDTO.class)))
+                .thenThrow(new WriteBehindSubmissionWriter.QueueFullException(1));
+
+        submitHandler.handle(mockExchange);
+
+        String errorMessage = "Server is busy. Please retry.";
+        verify(mockExchange).sendResponseHeaders(503, errorMessage.length());
+        assertNotNull(responseHeaders.getFirst("Retry-After"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.db.SqlScript;
+import com.mobildev.exam.dto.ExamSubmissionDTO;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.service.SubmitService;
+import com.mobildev.exam.submission.SubmissionJournal;
+import com.mobildev.exam.submission.WriteBehindSubmissionWriter;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SubmitServiceTest {
+
+    private static final AuthenticatedUser PRINCIPAL =
+            new AuthenticatedUser(7, "candidate", Set.of(AuthenticatedUser.ROLE_CANDIDATE));
+
+    private H2DataSourceProvider provider;
+    private SubmitService submitService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = TestDatabase.create();
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (1, 'Exam', NULL, 60)",
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (10, 1, 'Pick one', 'MULTIPLE_CHOICE', NULL)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (100, 10, 'Right', TRUE)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (101, 10, 'Wrong', FALSE)");
+        submitService = new SubmitService(provider, null, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testProcessExamSubmission_repeatedIdempotencyKey_shouldSaveOneResult() throws Exception {
+        String first = submitService.processExamSubmission(PRINCIPAL, 1, submission(100), "key-1");
+        // A retry reaching the database again, e.g. after a restart lost the in-memory table
+        String retry = submitService.processExamSubmission(PRINCIPAL, 1, submission(100), "key-1");
+
+        assertEquals(first, retry);
+        assertEquals(1, TestDatabase.count(provider, "results"));
+        assertEquals(1, TestDatabase.count(provider, "user_answers"));
+    }
+
+    @Test
+    void testProcessExamSubmission_databaseBeforeMigration_shouldAcceptSubmissionsWithoutKey() throws Exception {
+        // A database that has not run V1__results_idempotency_key.sql yet
+        TestDatabase.execute(provider,
+                "ALTER TABLE results DROP CONSTRAINT uk_results_user_idempotency_key",
+                "ALTER TABLE results DROP COLUMN idempotency_key");
+
+        submitService.processExamSubmission(PRINCIPAL, 1, submission(101));
+        submitService.processExamSubmission(PRINCIPAL, 1, submission(101));
+
+        assertEquals(2, TestDatabase.count(provider, "results"));
+
+        try (Connection conn = provider.getConnection()) {
+            SqlScript.execute(conn, "db/migration/V1__results_idempotency_key.sql");
+        }
+        submitService.processExamSubmission(PRINCIPAL, 1, submission(101), "key-1");
+        submitService.processExamSubmission(PRINCIPAL, 1, submission(101), "key-1");
+        assertEquals(3, TestDatabase.count(provider, "results"));
+    }
+
+    @Test
+    void testProcessExamSubmission_examWithoutQuestions_shouldNotCacheEmptyAnswerKey() throws Exception {
+        TestDatabase.execute(provider,
+                "INSERT INTO exams (id, title, description, duration_minutes) VALUES (2, 'Draft', NULL, 60)");
+        String early = submitService.processExamSubmission(PRINCIPAL, 2, new ExamSubmissionDTO(PRINCIPAL.getUserId(), 2,
+                List.of(new UserAnswerSubmissionDTO(20, 200, null))));
+        assertTrue(early.contains("\"score\":0.00"), early);
+        assertEquals(0, submitService.getAnswerKeyCache().size());
+
+        // The questions are added without an invalidation, as an editor saving them one by one would.
+        TestDatabase.execute(provider,
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (20, 2, 'Pick one', 'MULTIPLE_CHOICE', NULL)",
+                "INSERT INTO options (id, question_id, option_text, is_correct) VALUES (200, 20, 'Right', TRUE)");
+        String scored = submitService.processExamSubmission(PRINCIPAL, 2, new ExamSubmissionDTO(PRINCIPAL.getUserId(), 2,
+                List.of(new UserAnswerSubmissionDTO(20, 200, null))));
+        assertTrue(scored.contains("\"score\":100.00"), scored);
+        assertEquals(1, submitService.getAnswerKeyCache().size());
+    }
+
+    @Test
+    void testProcessExamSubmission_classicQuestionWithNullCorrectAnswer_shouldNeverScore() throws Exception {
+        TestDatabase.execute(provider,
+                "INSERT INTO questions (id, exam_id, question_text, question_type, correct_answer) "
+                        + "VALUES (11, 1, 'Explain', 'CLASSIC', NULL)");
+
+        // Neither an empty answer nor the text of a NULL matches a missing correct answer.
+        for (String answerText : new String[]{"", "null", "0"}) {
+            String result = submitService.processExamSubmission(PRINCIPAL, 1, new ExamSubmissionDTO(PRINCIPAL.getUserId(), 1,
+                    List.of(new UserAnswerSubmissionDTO(11, null, answerText))));
+            assertTrue(result.contains("\"score\":0.00"), result);
+        }
+    }
+
+    @Test
+    void testProcessExamSubmission_writeBehindRetryAfterRestart_shouldSaveOneResult(@TempDir Path journalDir)
+            throws Exception {
+        WriteBehindSubmissionWriter writer = new WriteBehindSubmissionWriter(provider,
+                new SubmissionJournal(journalDir, true), 100);
+        writer.start();
+        new SubmitService(provider, writer, 16).processExamSubmission(PRINCIPAL, 1, submission(100), "key-1");
+        writer.shutdown(5000);
+
+        // The restarted server no longer remembers the key in memory.
+        WriteBehindSubmissionWriter restarted = new WriteBehindSubmissionWriter(provider,
+                new SubmissionJournal(journalDir, true), 100);
+        restarted.start();
+        new SubmitService(provider, restarted, 16).processExamSubmission(PRINCIPAL, 1, submission(100), "key-1");
+        restarted.shutdown(5000);
+
+        assertEquals(1, TestDatabase.count(provider, "results"));
+        assertEquals(1, TestDatabase.count(provider, "user_answers"));
+    }
+
+    private static ExamSubmissionDTO submission(int selectedOptionId) {
+        return new ExamSubmissionDTO(PRINCIPAL.getUserId(), 1,
+                List.of(new UserAnswerSubmissionDTO(10, selectedOptionId, null)));
+    }
+}
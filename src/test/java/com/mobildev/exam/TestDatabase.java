@@ -0,0 +1,54 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.config.AppConfig;
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.db.SqlScript;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Creates an empty in-memory H2 database with the application schema, for tests of the SQL paths.
+ */
+final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    /**
+     * @return A provider of a new database with the tables of {@code db/schema.sql}; the caller closes it.
+     */
+    static H2DataSourceProvider create() throws SQLException {
+        H2DataSourceProvider provider = new H2DataSourceProvider(AppConfig.getInstance(), "test-" + UUID.randomUUID());
+        try (Connection conn = provider.getConnection()) {
+            SqlScript.execute(conn, SqlScript.SCHEMA);
+        }
+        return provider;
+    }
+
+    /**
+     * Executes statements, e.g. to insert test data.
+     */
+    static void execute(H2DataSourceProvider provider, String... statements) throws SQLException {
+        try (Connection conn = provider.getConnection(); Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * @return The number of rows of a table.
+     */
+    static int count(H2DataSourceProvider provider, String table) throws SQLException {
+        try (Connection conn = provider.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM " + table);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.model.AuthenticatedUser;
+import com.mobildev.exam.util.JwtUtil;
+import com.mobildev.exam.util.TokenVerifier;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+public class TokenVerifierTest {
+
+    private static final AuthenticatedUser PRINCIPAL = new AuthenticatedUser(7, "candidate",
+            Set.of(AuthenticatedUser.ROLE_CANDIDATE, AuthenticatedUser.ROLE_ADMIN));
+
+    @Test
+    void testVerify_cachedToken_shouldSkipVerification() {
+        TokenVerifier verifier = new TokenVerifier(10);
+        String token = JwtUtil.generateToken(PRINCIPAL);
+
+        AuthenticatedUser first = verifier.verify(token);
+        AuthenticatedUser second = verifier.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, verifier.getVerificationCount());
+        assertEquals(1, verifier.getCacheHitCount());
+    }
+
+    @Test
+    void testVerify_cachedTokenPastExpiration_shouldBeRejected() throws Exception {
+        TokenVerifier verifier = new TokenVerifier(10);
+        // The expiration is stored in whole seconds, so it is between one and two seconds away.
+        String token = JwtUtil.generateToken(PRINCIPAL, 2000);
+        verifier.verify(token);
+        assertEquals(1, verifier.getCache().size());
+
+        Thread.sleep(2100);
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+        assertEquals(2, verifier.getVerificationCount());
+        assertEquals(1, verifier.getRejectedCount());
+        assertEquals(0, verifier.getCache().size());
+    }
+
+    @Test
+    void testVerify_forgedOrMalformedToken_shouldNeverBeCached() {
+        TokenVerifier verifier = new TokenVerifier(10);
+        String valid = JwtUtil.generateToken(PRINCIPAL);
+        // Signed with a key the server does not know
+        String forged = Jwts.builder()
+                .setSubject(PRINCIPAL.getUsername())
+                .claim(JwtUtil.CLAIM_USER_ID, PRINCIPAL.getUserId())
+                .setExpiration(new Date(System.currentTimeMillis() + 900000))
+                .signWith(Keys.secretKeyFor(SignatureAlgorithm.HS256))
+                .compact();
+        // The claims of the valid token with another user ID, under the valid token's signature
+        String[] parts = valid.split("\\.");
+        String otherClaims = JwtUtil.generateToken(new AuthenticatedUser(8, PRINCIPAL.getUsername(), PRINCIPAL.getRoles()))
+                .split("\\.")[1];
+        String tampered = parts[0] + "." + otherClaims + "." + parts[2];
+
+        // Each is rejected again on the second attempt instead of being served from the cache.
+        for (String token : List.of(forged, tampered, "not-a-token")) {
+            assertThrows(JwtException.class, () -> verifier.verify(token));
+            assertThrows(JwtException.class, () -> verifier.verify(token));
+        }
+
+        assertThrows(MalformedJwtException.class, () -> verifier.verify("not-a-token"));
+        assertEquals(0, verifier.getCache().size());
+        assertEquals(7, verifier.getVerificationCount());
+        assertEquals(7, verifier.getRejectedCount());
+    }
+
+    @Test
+    void testVerify_issuedToken_shouldRoundTripUserIdAndRoles() {
+        TokenVerifier verifier = new TokenVerifier(10);
+
+        AuthenticatedUser principal = verifier.verify(JwtUtil.generateToken(PRINCIPAL));
+        AuthenticatedUser claimsPrincipal = JwtUtil.toAuthenticatedUser(
+                JwtUtil.parseToken(JwtUtil.generateToken(PRINCIPAL)).getBody());
+
+        for (AuthenticatedUser user : List.of(principal, claimsPrincipal)) {
+            assertEquals(PRINCIPAL.getUserId(), user.getUserId());
+            assertEquals(PRINCIPAL.getUsername(), user.getUsername());
+            assertEquals(PRINCIPAL.getRoles(), user.getRoles());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.tracing.Span;
+import com.mobildev.exam.tracing.Trace;
+import com.mobildev.exam.tracing.TraceCollector;
+import com.mobildev.exam.tracing.Tracer;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+public class TraceCollectorTest {
+
+    @Test
+    void testSpan_openedInsideAnotherSpan_shouldBeItsChild() {
+        TraceCollector collector = new TraceCollector(10, null);
+        Trace trace = collector.begin("req-1", "POST", "/submit");
+        try (Span outer = Tracer.span("outer")) {
+            try (Span inner = Tracer.span("inner")) {
+                assertEquals("req-1", Tracer.currentRequestId());
+            }
+        }
+        try (Span sibling = Tracer.span("sibling")) {
+            assertEquals("req-1", Tracer.currentRequestId());
+        }
+        collector.detach();
+        try (Span ignored = Tracer.span("after-detach")) {
+            assertNull(Tracer.currentRequestId());
+        }
+        collector.finish(trace, 200);
+
+        List<Span> spans = trace.getSpans();
+        assertEquals(3, spans.size());
+        assertEquals(-1, spans.get(0).getParentIndex());
+        assertEquals(0, spans.get(1).getParentIndex());
+        assertEquals(-1, spans.get(2).getParentIndex());
+        assertEquals(200, trace.getStatus());
+    }
+
+    @Test
+    void testGetSlowest_moreTracesThanCapacity_shouldKeepTheSlowest() throws InterruptedException {
+        TraceCollector collector = new TraceCollector(2, null);
+        Trace slowest = collector.begin(null, "GET", "/exams");
+        Trace middle = collector.begin(null, "GET", "/exams");
+        Trace fastest = collector.begin(null, "GET", "/exams");
+        collector.detach();
+
+        collector.finish(fastest, 200);
+        Thread.sleep(5);
+        collector.finish(middle, 200);
+        Thread.sleep(5);
+        collector.finish(slowest, 200);
+
+        assertEquals(List.of(slowest, middle), collector.getSlowest());
+    }
+
+    @Test
+    void testBegin_invalidRequestId_shouldUseTheTraceId() {
+        TraceCollector collector = new TraceCollector(1, null);
+        Trace trace = collector.begin("not valid\r\nheader", "GET", "/exams");
+        collector.detach();
+
+        assertEquals(32, trace.getTraceId().length());
+        assertEquals(trace.getTraceId(), trace.getRequestId());
+    }
+}
@@ -0,0 +1,136 @@
+package com.mobildev.exam;
+
+import com.mobildev.exam.db.H2DataSourceProvider;
+import com.mobildev.exam.dto.UserAnswerSubmissionDTO;
+import com.mobildev.exam.submission.PendingSubmission;
+import com.mobildev.exam.submission.SubmissionJournal;
+import com.mobildev.exam.submission.WriteBehindSubmissionWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WriteBehindSubmissionWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private H2DataSourceProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        provider = TestDatabase.create();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testStart_uncommittedSubmissions_shouldBeReplayedAndCheckpointed() throws Exception {
+        // Accepted before a crash, never written to the database.
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            journal.append(submission("a", "50.00"));
+            journal.append(submission("b", "75.00"));
+        }
+
+        WriteBehindSubmissionWriter writer = new WriteBehindSubmissionWriter(provider,
+                new SubmissionJournal(directory, true), 100);
+        writer.start();
+        writer.shutdown(5000);
+
+        assertEquals(2, TestDatabase.count(provider, "results"));
+        assertEquals(2, TestDatabase.count(provider, "user_answers"));
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            assertTrue(journal.getUncommitted().isEmpty());
+            assertEquals(2, journal.getCheckpointSequence());
+        }
+    }
+
+    @Test
+    void testStart_batchCommittedBeforeCrash_shouldNotBeWrittenTwice() throws Exception {
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            journal.append(submission("a", "50.00"));
+            journal.append(submission("b", "75.00"));
+        }
+        byte[] journalBeforeCommit = Files.readAllBytes(directory.resolve("submissions.journal"));
+        WriteBehindSubmissionWriter writer = new WriteBehindSubmissionWriter(provider,
+                new SubmissionJournal(directory, true), 100);
+        writer.start();
+        writer.shutdown(5000);
+
+        // A crash after the commit but before the checkpoint leaves the batch in the journal.
+        Files.write(directory.resolve("submissions.journal"), journalBeforeCommit);
+        Files.writeString(directory.resolve("submissions.checkpoint"), "0");
+        WriteBehindSubmissionWriter restarted = new WriteBehindSubmissionWriter(provider,
+                new SubmissionJournal(directory, true), 100);
+        restarted.start();
+        restarted.shutdown(5000);
+
+        assertEquals(2, TestDatabase.count(provider, "results"));
+        assertEquals(2, TestDatabase.count(provider, "user_answers"));
+        assertEquals(0, restarted.getDeadLetterCount());
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            assertTrue(journal.getUncommitted().isEmpty());
+            assertEquals(2, journal.getCheckpointSequence());
+        }
+    }
+
+    @Test
+    void testSubmit_rejectedSubmission_shouldBeDeadLetteredWithoutBlockingOthers() throws Exception {
+        WriteBehindSubmissionWriter writer = new WriteBehindSubmissionWriter(provider,
+                new SubmissionJournal(directory, true), 100);
+        writer.start();
+        writer.submit(submission("a", "50.00"));
+        // Does not fit results.score DECIMAL(5, 2).
+        writer.submit(submission("b", "1000.00"));
+        writer.submit(submission("c", "75.00"));
+        writer.shutdown(5000);
+
+        assertEquals(2, TestDatabase.count(provider, "results"));
+        assertEquals(1, writer.getDeadLetterCount());
+        List<String> deadLetters = Files.readAllLines(directory.resolve("submissions.deadletter"));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("\"submissionId\":\"b\""));
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            assertTrue(journal.getUncommitted().isEmpty());
+        }
+    }
+
+    @Test
+    void testSubmit_queueFull_shouldRefuseWithoutJournaling() throws Exception {
+        // Every batch fails until the table is back, so nothing leaves the queue.
+        TestDatabase.execute(provider, "ALTER TABLE results RENAME TO results_offline");
+        WriteBehindSubmissionWriter writer = new WriteBehindSubmissionWriter(provider,
+                new SubmissionJournal(directory, true), 100, 1);
+        writer.start();
+
+        // The writer may already hold the first submission in its failing batch, which frees a place in the queue.
+        int accepted = 0;
+        try {
+            for (; accepted < 3; accepted++) {
+                writer.submit(submission("s" + accepted, "50.00"));
+            }
+        } catch (WriteBehindSubmissionWriter.QueueFullException e) {
+            // Expected once the queue holds one submission.
+        }
+        writer.shutdown(5000);
+
+        assertTrue(accepted >= 1 && accepted <= 2, "accepted " + accepted);
+        try (SubmissionJournal journal = new SubmissionJournal(directory, true)) {
+            assertEquals(accepted, journal.getUncommitted().size());
+        }
+    }
+
+    private static PendingSubmission submission(String submissionId, String score) {
+        return new PendingSubmission(submissionId, 7, 1, new BigDecimal(score),
+                List.of(new UserAnswerSubmissionDTO(10, 100, null)));
+    }
+}